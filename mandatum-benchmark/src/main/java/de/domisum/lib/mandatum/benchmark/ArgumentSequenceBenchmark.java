@@ -0,0 +1,77 @@
+package de.domisum.lib.mandatum.benchmark;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of single ArgumentSequences.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentSequenceBenchmark
+{
+
+	// INPUT
+	private final ArgumentSequence numbers = new ArgumentSequence("numbers", Integer.class, Double.class, Boolean.class);
+	private final ArgumentSequence pay = new ArgumentSequence("pay", Player.class, Double.class, ArgumentMessage.class);
+	private final ArgumentSequence uuid = new ArgumentSequence("uuid", UUID.class);
+
+	private final List<String> validNumbers = Arrays.asList("-1234", "56.789", "true");
+	private final List<String> invalidNumbers = Arrays.asList("-1234", "56.78.9", "true");
+	private final List<String> validPay = Arrays.asList("Player7", "10.5", "thanks", "for", "the", "help");
+	private final List<String> validUUID = Arrays.asList("123e4567-e89b-12d3-a456-426614174000");
+
+
+	// LENGTH
+	@Benchmark public boolean lengthFitsFixed()
+	{
+		return this.numbers.doesArgumentLengthFit(this.validNumbers);
+	}
+
+	@Benchmark public boolean lengthFitsMessage()
+	{
+		return this.pay.doesArgumentLengthFit(this.validPay);
+	}
+
+
+	// VALIDATION
+	@Benchmark public String validateNumbers()
+	{
+		return this.numbers.validateArguments(this.validNumbers);
+	}
+
+	@Benchmark public String validateInvalidNumbers()
+	{
+		return this.numbers.validateArguments(this.invalidNumbers);
+	}
+
+	@Benchmark public String validatePay(BenchmarkState state)
+	{
+		return this.pay.validateArguments(this.validPay);
+	}
+
+	@Benchmark public String validateUUID()
+	{
+		return this.uuid.validateArguments(this.validUUID);
+	}
+
+}
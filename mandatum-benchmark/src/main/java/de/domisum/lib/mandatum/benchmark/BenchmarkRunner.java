@@ -0,0 +1,31 @@
+package de.domisum.lib.mandatum.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so the allocation rate is reported next to the throughput. All options of
+ * the JMH command line (like a benchmark filter or {@code -rf json}) are passed through.
+ */
+public final class BenchmarkRunner
+{
+
+	// CONSTRUCTOR
+	private BenchmarkRunner()
+	{
+
+	}
+
+
+	// MAIN
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException
+	{
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
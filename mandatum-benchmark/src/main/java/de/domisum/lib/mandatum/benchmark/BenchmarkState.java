@@ -0,0 +1,108 @@
+package de.domisum.lib.mandatum.benchmark;
+
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.benchmark.commands.BenchmarkCommands.BanCommand;
+import de.domisum.lib.mandatum.benchmark.commands.BenchmarkCommands.EcoCommand;
+import de.domisum.lib.mandatum.benchmark.commands.BenchmarkCommands.HealCommand;
+import de.domisum.lib.mandatum.benchmark.commands.BenchmarkCommands.MassHealCommand;
+import de.domisum.lib.mandatum.benchmark.commands.BenchmarkCommands.NetCommand;
+import de.domisum.lib.mandatum.benchmark.commands.BenchmarkCommands.StatelessHealCommand;
+import de.domisum.lib.mandatum.benchmark.stub.StubCommand;
+import de.domisum.lib.mandatum.benchmark.stub.StubPlayers;
+import de.domisum.lib.mandatum.benchmark.stub.StubPlugin;
+import de.domisum.lib.mandatum.benchmark.stub.StubServer;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.exe.InvocationCache;
+import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
+import org.bukkit.command.Command;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MandatumLib enabled against the stub server, with the benchmark commands registered and a configurable number of
+ * players online.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkState
+{
+
+	// SETTINGS
+	@Param({"500"})
+	public int onlinePlayers;
+
+	// 0 dispatches without an InvocationCache
+	@Param({"0"})
+	public int invocationCacheCapacity;
+
+	// REFERENCES
+	public MandatumCommandExecutor executor;
+	public Player sender;
+	public final LongAdder receivedMessages = new LongAdder();
+
+	public final Command heal = new StubCommand("heal");
+	public final Command statelessHeal = new StubCommand("sheal");
+	public final Command eco = new StubCommand("eco");
+	public final Command ban = new StubCommand("ban");
+	public final Command net = new StubCommand("net");
+	public final Command massHeal = new StubCommand("mheal");
+
+
+	// SETUP
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		setUp(StubPlugin.create());
+
+		Map<String, Class<? extends MandatumBaseCommand>> commandClasses = new HashMap<>();
+		commandClasses.put("heal", HealCommand.class);
+		commandClasses.put("sheal", StatelessHealCommand.class);
+		commandClasses.put("eco", EcoCommand.class);
+		commandClasses.put("ban", BanCommand.class);
+		commandClasses.put("net", NetCommand.class);
+		commandClasses.put("mheal", MassHealCommand.class);
+		for(Class<? extends MandatumBaseCommand> commandClass : commandClasses.values())
+			this.executor.registerCommandTree(commandClass);
+		this.executor.addCommandClasses(commandClasses);
+	}
+
+	/**
+	 * Enables MandatumLib for the plugin without registering the benchmark commands, so the commands listed in the
+	 * plugin.yml of the plugin can be registered instead.
+	 *
+	 * @param plugin the plugin
+	 */
+	public void setUp(StubPlugin plugin)
+	{
+		StubServer.install();
+		StubServer.clearOnlinePlayers();
+		for(int i = 0; i < this.onlinePlayers; i++)
+			StubServer.addOnlinePlayer(StubPlayers.create("Player"+i, this.receivedMessages));
+		StubServer.clearPluginCommands();
+		StubServer.addPluginCommands(plugin);
+
+		MandatumLib.enable(plugin);
+		MandatumLib.getPlayerIndex().reset(StubServer.getOnlinePlayers());
+
+		this.executor = MandatumLib.getCommandExecutor();
+		if(this.invocationCacheCapacity > 0)
+			this.executor.setInvocationCache(new InvocationCache(this.invocationCacheCapacity));
+
+		this.sender = StubPlayers.create("BenchmarkSender", this.receivedMessages);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		MandatumLib.disable();
+	}
+
+}
@@ -0,0 +1,139 @@
+package de.domisum.lib.mandatum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole dispatch path, starting at {@code onCommand} like a command sent by Bukkit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark
+{
+
+	// INPUT
+	private final String[] healOther = {"Player7", "10"};
+	private final String[] healSelf = {"10"};
+	private final String[] healUnknownPlayer = {"NoSuchPlayer", "10"};
+	private final String[] healWrongArity = {"1", "2", "3"};
+
+	private final String[] ecoFirstSequence = {};
+	private final String[] ecoLastSequence = {"pay", "Player7", "10.5", "thanks", "for", "the", "help"};
+	private final String[] ecoInvalid = {"give", "Player7", "abc"};
+
+	private final String[] banLongReason = createLongMessage("Player7", 60);
+
+	private final String[] netRestart = {"restart", "lobby-1"};
+	private final String[] netUnknownSubCommand = {"reboot", "lobby-1"};
+
+	private final String[] massHealAll = {"*", "10"};
+	private final String[] massHealPrefix = {"Player1*", "10"};
+
+
+	// FLAT
+	@Benchmark public boolean flatWithPlayer(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.heal, "heal", this.healOther);
+	}
+
+	@Benchmark public boolean flatOnSelf(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.heal, "heal", this.healSelf);
+	}
+
+	@Benchmark public boolean flatStatelessWithPlayer(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.statelessHeal, "sheal", this.healOther);
+	}
+
+	@Benchmark public boolean flatStatelessOnSelf(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.statelessHeal, "sheal", this.healSelf);
+	}
+
+
+	// OVERLOADED
+	@Benchmark public boolean overloadedFirstSequence(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.eco, "eco", this.ecoFirstSequence);
+	}
+
+	@Benchmark public boolean overloadedLastSequence(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.eco, "eco", this.ecoLastSequence);
+	}
+
+
+	// NESTED
+	@Benchmark public boolean nestedSubCommand(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.net, "net", this.netRestart);
+	}
+
+
+	// MESSAGE
+	@Benchmark public boolean messageTail(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.ban, "ban", this.banLongReason);
+	}
+
+
+	// FAN-OUT
+	@Benchmark public boolean fanOutAll(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.massHeal, "mheal", this.massHealAll);
+	}
+
+	@Benchmark public boolean fanOutPrefix(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.massHeal, "mheal", this.massHealPrefix);
+	}
+
+
+	// INVALID
+	@Benchmark public boolean invalidUnknownPlayer(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.heal, "heal", this.healUnknownPlayer);
+	}
+
+	@Benchmark public boolean invalidArity(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.heal, "heal", this.healWrongArity);
+	}
+
+	@Benchmark public boolean invalidOverloaded(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.eco, "eco", this.ecoInvalid);
+	}
+
+	@Benchmark public boolean invalidSubCommand(BenchmarkState state)
+	{
+		return state.executor.onCommand(state.sender, state.net, "net", this.netUnknownSubCommand);
+	}
+
+
+	// UTIL
+	private static String[] createLongMessage(String firstArgument, int words)
+	{
+		String[] args = new String[words+1];
+		args[0] = firstArgument;
+		for(int i = 1; i <= words; i++)
+			args[i] = "word"+i;
+
+		return args;
+	}
+
+}
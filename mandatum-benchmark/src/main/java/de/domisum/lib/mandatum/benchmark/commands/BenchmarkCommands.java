@@ -0,0 +1,378 @@
+package de.domisum.lib.mandatum.benchmark.commands;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage;
+import de.domisum.lib.mandatum.cmd.CommandContext;
+import de.domisum.lib.mandatum.cmd.MandatumCommand;
+import de.domisum.lib.mandatum.cmd.MandatumStatelessCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSuperCommand;
+import de.domisum.lib.mandatum.cmd.arg.TargetPlayers;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The commands dispatched by the benchmarks. Their {@code execute()} methods only read the parsed arguments, so the
+ * measurements show the cost of the dispatch path and not of the commands themselves.
+ */
+public final class BenchmarkCommands
+{
+
+	// STATUS
+	/**
+	 * Written by every command, so the JIT can't remove the executions.
+	 */
+	public static volatile Object sink;
+
+
+	// CONSTRUCTOR
+	private BenchmarkCommands()
+	{
+
+	}
+
+
+	// FLAT
+
+	/**
+	 * {@code /heal [player] <health>}
+	 */
+	public static class HealCommand extends BenchmarkCommand
+	{
+
+		private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Arrays.asList(
+				new ArgumentSequence("withPlayer", Player.class, Double.class),
+				new ArgumentSequence("onSelf", Double.class));
+
+
+		public HealCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public String getName()
+		{
+			return "heal";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return ARGUMENT_SEQUENCES;
+		}
+
+		@Override public void execute()
+		{
+			if("withPlayer".equals(this.argumentSequenceName))
+				sink = getPlayer(0);
+			else
+				sink = getDouble(0);
+		}
+
+	}
+
+
+	/**
+	 * {@code /sheal [player] <health>}, the same as {@link HealCommand} but stateless
+	 */
+	public static class StatelessHealCommand extends MandatumStatelessCommand
+	{
+
+		private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Arrays.asList(
+				new ArgumentSequence("withPlayer", Player.class, Double.class),
+				new ArgumentSequence("onSelf", Double.class));
+
+
+		@Override public String getName()
+		{
+			return "sheal";
+		}
+
+		@Override public boolean canBeRunByConsole()
+		{
+			return true;
+		}
+
+		@Override public String getRequiredPermissionNode()
+		{
+			return "benchmark."+getName();
+		}
+
+		@Override public String getUsage()
+		{
+			return "/"+getName()+" <arguments>";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return ARGUMENT_SEQUENCES;
+		}
+
+		@Override public void execute(CommandContext context)
+		{
+			if("withPlayer".equals(context.getArgumentSequenceName()))
+				sink = context.getPlayer(0);
+			else
+				sink = context.getDouble(0);
+		}
+
+	}
+
+
+	// OVERLOADED
+
+	/**
+	 * An economy command with eight ArgumentSequences, several of them sharing their first arguments.
+	 */
+	public static class EcoCommand extends BenchmarkCommand
+	{
+
+		private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Arrays.asList(
+				new ArgumentSequence("balance"),
+				new ArgumentSequence("balanceOther", Player.class),
+				new ArgumentSequence("balanceOffline", UUID.class),
+				new ArgumentSequence("give", String.class, Player.class, Double.class),
+				new ArgumentSequence("giveOffline", String.class, UUID.class, Double.class),
+				new ArgumentSequence("setFlag", String.class, Player.class, Boolean.class),
+				new ArgumentSequence("top", String.class, Integer.class),
+				new ArgumentSequence("pay", String.class, Player.class, Double.class, ArgumentMessage.class));
+
+
+		public EcoCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public String getName()
+		{
+			return "eco";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return ARGUMENT_SEQUENCES;
+		}
+
+		@Override public void execute()
+		{
+			sink = this.argumentSequenceName;
+		}
+
+	}
+
+
+	// MESSAGE
+
+	/**
+	 * {@code /ban <player> <reason>}
+	 */
+	public static class BanCommand extends BenchmarkCommand
+	{
+
+		private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Collections.singletonList(
+				new ArgumentSequence("ban", Player.class, ArgumentMessage.class));
+
+
+		public BanCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public String getName()
+		{
+			return "ban";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return ARGUMENT_SEQUENCES;
+		}
+
+		@Override public void execute()
+		{
+			sink = getMessage(1);
+		}
+
+	}
+
+
+	// FAN-OUT
+
+	/**
+	 * {@code /mheal <targets> <health>}, healing all players selected by the targets at once
+	 */
+	public static class MassHealCommand extends BenchmarkCommand
+	{
+
+		private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Collections.singletonList(
+				new ArgumentSequence("targets", TargetPlayers.class, Double.class));
+
+
+		public MassHealCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public String getName()
+		{
+			return "mheal";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return ARGUMENT_SEQUENCES;
+		}
+
+		@Override public void execute()
+		{
+			for(Player player : getTargetPlayers(0))
+				sink = player;
+		}
+
+	}
+
+
+	// NESTED
+
+	/**
+	 * {@code /net <subcommand>}
+	 */
+	public static class NetCommand extends MandatumSuperCommand
+	{
+
+		private static final Map<String, Class<? extends MandatumSubCommand>> SUB_COMMANDS = new HashMap<>();
+
+		static
+		{
+			SUB_COMMANDS.put("restart", NetRestartCommand.class);
+		}
+
+
+		public NetCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public String getName()
+		{
+			return "net";
+		}
+
+		@Override public boolean canBeRunByConsole()
+		{
+			return true;
+		}
+
+		@Override public String getRequiredPermissionNode()
+		{
+			return "benchmark.net";
+		}
+
+		@Override public void registerSubCommands()
+		{
+			// the subcommands are known statically
+		}
+
+		@Override public String getSubCommandsClassPath()
+		{
+			return BenchmarkCommands.class.getPackage().getName();
+		}
+
+		@Override public Map<String, Class<? extends MandatumSubCommand>> getSubCommands()
+		{
+			return SUB_COMMANDS;
+		}
+
+		@Override public Class<? extends MandatumSubCommand> getSubCommandClass(String subCommandName)
+		{
+			return SUB_COMMANDS.get(subCommandName);
+		}
+
+	}
+
+	/**
+	 * {@code /net restart <server>}
+	 */
+	public static class NetRestartCommand extends MandatumSubCommand
+	{
+
+		private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Collections.singletonList(
+				new ArgumentSequence("restart", String.class));
+
+
+		public NetRestartCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public String getName()
+		{
+			return "restart";
+		}
+
+		@Override public String getSuperCommandName()
+		{
+			return "net";
+		}
+
+		@Override public boolean canBeRunByConsole()
+		{
+			return true;
+		}
+
+		@Override public String getRequiredPermissionNode()
+		{
+			return "benchmark.net.restart";
+		}
+
+		@Override public String getUsage()
+		{
+			return "/net restart <server>";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return ARGUMENT_SEQUENCES;
+		}
+
+		@Override public void execute()
+		{
+			sink = this.args.get(0);
+		}
+
+	}
+
+
+	// BASE
+	private abstract static class BenchmarkCommand extends MandatumCommand
+	{
+
+		BenchmarkCommand(CommandSender commandSender, List<String> args)
+		{
+			super(commandSender, args);
+		}
+
+		@Override public boolean canBeRunByConsole()
+		{
+			return true;
+		}
+
+		@Override public String getRequiredPermissionNode()
+		{
+			return "benchmark."+getName();
+		}
+
+		@Override public String getUsage()
+		{
+			return "/"+getName()+" <arguments>";
+		}
+
+	}
+
+}
@@ -0,0 +1,174 @@
+package de.domisum.lib.mandatum.benchmark.replay;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A recorded sequence of commands, ordered by their time.
+ * <p>
+ * Every line of a trace consists of tab separated fields: the time, the name of the sender and the command line. The
+ * time is either in epoch milliseconds or an ISO-8601 instant, the sender {@value #CONSOLE} stands for the console.
+ * Lines written by the {@code AuditLog} of MandatumLib are accepted as well, their additional fields are ignored. Empty
+ * lines and lines starting with {@code #} are skipped.
+ */
+public class CommandTrace
+{
+
+	// CONSTANTS
+	public static final String CONSOLE = "CONSOLE";
+	private static final int AUDIT_LOG_FIELDS = 7;
+	private static final int AUDIT_LOG_COMMAND_FIELD = 3;
+
+	// PROPERTIES
+	private final List<TraceEntry> entries;
+
+
+	// CONSTRUCTOR
+	private CommandTrace(List<TraceEntry> entries)
+	{
+		this.entries = Collections.unmodifiableList(entries);
+	}
+
+	public static CommandTrace read(Path file) throws IOException
+	{
+		return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param lines the lines of the trace
+	 * @return the trace
+	 * @throws IllegalArgumentException if a line can't be parsed
+	 */
+	public static CommandTrace parse(List<String> lines)
+	{
+		List<Long> times = new ArrayList<>();
+		List<String[]> fields = new ArrayList<>();
+		for(int i = 0; i < lines.size(); i++)
+		{
+			String line = lines.get(i).trim();
+			if(line.isEmpty() || line.startsWith("#"))
+				continue;
+
+			String[] lineFields = line.split("\t");
+			if(lineFields.length != 3 && lineFields.length != AUDIT_LOG_FIELDS)
+				throw new IllegalArgumentException("Line "+(i+1)+" doesn't have 3 or "+AUDIT_LOG_FIELDS+" fields: "+line);
+
+			times.add(parseTime(lineFields[0], i+1));
+			fields.add(lineFields);
+		}
+
+		List<TraceEntry> entries = new ArrayList<>();
+		if(fields.isEmpty())
+			return new CommandTrace(entries);
+
+		long startMillis = Collections.min(times);
+
+		for(int i = 0; i < fields.size(); i++)
+		{
+			String[] lineFields = fields.get(i);
+			String commandLine = lineFields.length == AUDIT_LOG_FIELDS ?
+					unescape(lineFields[AUDIT_LOG_COMMAND_FIELD]) :
+					lineFields[2];
+			if(commandLine.startsWith("/"))
+				commandLine = commandLine.substring(1);
+
+			String[] words = commandLine.trim().split(" +");
+			String sender = unescape(lineFields[1]);
+			entries.add(new TraceEntry(times.get(i)-startMillis, CONSOLE.equals(sender) ? null : sender,
+					words[0].toLowerCase(), Arrays.copyOfRange(words, 1, words.length)));
+		}
+
+		// the sort is stable, so commands with the same time keep their order
+		entries.sort(Comparator.comparingLong(TraceEntry::getOffsetMillis));
+		return new CommandTrace(entries);
+	}
+
+	private static long parseTime(String time, int lineNumber)
+	{
+		try
+		{
+			if(!time.isEmpty() && time.chars().allMatch(Character::isDigit))
+				return Long.parseLong(time);
+
+			return Instant.parse(time).toEpochMilli();
+		}
+		catch(NumberFormatException|DateTimeParseException e)
+		{
+			throw new IllegalArgumentException("Line "+lineNumber+" has an invalid time: "+time, e);
+		}
+	}
+
+	private static String unescape(String value)
+	{
+		if(value.indexOf('\\') == -1)
+			return value;
+
+		StringBuilder unescaped = new StringBuilder(value.length());
+		for(int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			if(c != '\\' || i == value.length()-1)
+			{
+				unescaped.append(c);
+				continue;
+			}
+
+			char escaped = value.charAt(++i);
+			if(escaped == 't')
+				unescaped.append('\t');
+			else if(escaped == 'n')
+				unescaped.append('\n');
+			else if(escaped == 'r')
+				unescaped.append('\r');
+			else
+				unescaped.append(escaped);
+		}
+
+		return unescaped.toString();
+	}
+
+
+	// GETTERS
+	public List<TraceEntry> getEntries()
+	{
+		return this.entries;
+	}
+
+	public int size()
+	{
+		return this.entries.size();
+	}
+
+	/**
+	 * @return the time between the first and the last command
+	 */
+	public long getDurationMillis()
+	{
+		return this.entries.isEmpty() ? 0 : this.entries.get(this.entries.size()-1).getOffsetMillis();
+	}
+
+	/**
+	 * @return the names of all players sending commands in the trace, in the order of their first command
+	 */
+	public Set<String> getSenderNames()
+	{
+		Set<String> senderNames = new LinkedHashSet<>();
+		for(TraceEntry entry : this.entries)
+			if(entry.getSenderName() != null)
+				senderNames.add(entry.getSenderName());
+
+		return senderNames;
+	}
+
+}
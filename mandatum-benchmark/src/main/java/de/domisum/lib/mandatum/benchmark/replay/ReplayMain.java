@@ -0,0 +1,145 @@
+package de.domisum.lib.mandatum.benchmark.replay;
+
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.benchmark.BenchmarkState;
+import de.domisum.lib.mandatum.benchmark.stub.StubPlayers;
+import de.domisum.lib.mandatum.benchmark.stub.StubPlugin;
+import de.domisum.lib.mandatum.benchmark.stub.StubServer;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Replays a command trace against MandatumLib running headless, and prints the report.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar:<plugin classes> de.domisum.lib.mandatum.benchmark.replay.ReplayMain
+ * <trace file> [--commands <package>]... [--plugin-yml <file>] [--speed-up <factor>] [--threads <number>]
+ * [--warmup <replays>] [--players <number>]}
+ * <p>
+ * Without {@code --commands}, the benchmark commands are registered. Otherwise the commands in the packages are
+ * registered like a plugin registers them using {@link MandatumLib#registerCommands(String)}, so the trace of a real
+ * server can be replayed against its own commands. The commands are looked up in the plugin.yml passed using
+ * {@code --plugin-yml}, or in one listing all commands of the trace if none is passed.
+ * <p>
+ * The senders of the trace join the stub server before replaying, in addition to the other online players. The trace
+ * is first replayed as fast as possible for the warmup, so the measured replay runs on compiled code.
+ */
+public final class ReplayMain
+{
+
+	// CONSTRUCTOR
+	private ReplayMain()
+	{
+
+	}
+
+
+	// MAIN
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		if(args.length == 0 || args.length%2 == 0)
+		{
+			System.err.println("Usage: ReplayMain <trace file> [--commands <package>]... [--plugin-yml <file>] "
+					+"[--speed-up <factor>] [--threads <number>] [--warmup <replays>] [--players <number>]");
+			System.exit(1);
+		}
+
+		CommandTrace trace = CommandTrace.read(Paths.get(args[0]));
+		ReplaySettings settings = new ReplaySettings();
+		int warmupReplays = 3;
+		int onlinePlayers = 500;
+		List<String> commandPackages = new ArrayList<>();
+		String pluginYml = null;
+		for(int i = 1; i < args.length; i += 2)
+			switch(args[i])
+			{
+				case "--commands":
+					commandPackages.add(args[i+1]);
+					break;
+				case "--plugin-yml":
+					pluginYml = new String(Files.readAllBytes(Paths.get(args[i+1])), StandardCharsets.UTF_8);
+					break;
+				case "--speed-up":
+					settings.speedUp(Double.parseDouble(args[i+1]));
+					break;
+				case "--threads":
+					settings.threads(Integer.parseInt(args[i+1]));
+					break;
+				case "--warmup":
+					warmupReplays = Integer.parseInt(args[i+1]);
+					break;
+				case "--players":
+					onlinePlayers = Integer.parseInt(args[i+1]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: "+args[i]);
+			}
+
+		BenchmarkState state = new BenchmarkState();
+		state.onlinePlayers = onlinePlayers;
+		if(commandPackages.isEmpty())
+			state.setUp();
+		else
+		{
+			state.setUp(StubPlugin.create(pluginYml != null ? pluginYml : createPluginYml(trace)));
+			for(String commandPackage : commandPackages)
+				MandatumLib.registerCommands(commandPackage);
+		}
+
+		try
+		{
+			TraceReplayer replayer = new TraceReplayer(state.executor, joinSenders(trace, state));
+
+			System.out.println("Replaying "+trace.size()+" commands over "+trace.getDurationMillis()+" ms from "
+					+trace.getSenderNames().size()+" players");
+			ReplaySettings warmupSettings = new ReplaySettings().speedUp(0).threads(settings.getThreads());
+			for(int i = 0; i < warmupReplays; i++)
+				replayer.replay(trace, warmupSettings);
+
+			System.out.print(replayer.replay(trace, settings).format());
+		}
+		finally
+		{
+			state.tearDown();
+		}
+	}
+
+	private static String createPluginYml(CommandTrace trace)
+	{
+		Set<String> labels = new TreeSet<>();
+		for(TraceEntry entry : trace.getEntries())
+			labels.add(entry.getLabel());
+
+		StringBuilder pluginYml = new StringBuilder();
+		pluginYml.append("name: MandatumReplay\nversion: 1.0\nmain: ").append(StubPlugin.class.getName()).append("\n");
+		pluginYml.append("commands:\n");
+		for(String label : labels)
+			pluginYml.append("  ").append(label).append(": {}\n");
+
+		return pluginYml.toString();
+	}
+
+	private static Map<String, Player> joinSenders(CommandTrace trace, BenchmarkState state)
+	{
+		Map<String, Player> senders = new HashMap<>();
+		for(String senderName : trace.getSenderNames())
+		{
+			Player player = StubPlayers.create(senderName, state.receivedMessages);
+			StubServer.addOnlinePlayer(player);
+			MandatumLib.getPlayerIndex().add(player);
+			senders.put(senderName, player);
+		}
+
+		return senders;
+	}
+
+}
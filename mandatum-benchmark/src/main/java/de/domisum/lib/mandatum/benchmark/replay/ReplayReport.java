@@ -0,0 +1,149 @@
+package de.domisum.lib.mandatum.benchmark.replay;
+
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput, latencies and allocation measured while replaying a {@link CommandTrace}.
+ */
+public class ReplayReport
+{
+
+	// PROPERTIES
+	private final int commands;
+	private final int unknownCommands;
+	private final int unknownSenders;
+	private final int exceptions;
+	private final long[] outcomeCounts;
+
+	private final long durationNanos;
+	private final long[] sortedLatencies;
+	private final long maxLagNanos;
+	private final long allocatedBytes;
+
+
+	// CONSTRUCTOR
+	ReplayReport(int commands, int unknownCommands, int unknownSenders, int exceptions, long[] outcomeCounts,
+			long durationNanos, long[] sortedLatencies, long maxLagNanos, long allocatedBytes)
+	{
+		this.commands = commands;
+		this.unknownCommands = unknownCommands;
+		this.unknownSenders = unknownSenders;
+		this.exceptions = exceptions;
+		this.outcomeCounts = outcomeCounts;
+		this.durationNanos = durationNanos;
+		this.sortedLatencies = sortedLatencies;
+		this.maxLagNanos = maxLagNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+
+	// GETTERS
+	public int getCommands()
+	{
+		return this.commands;
+	}
+
+	/**
+	 * @return the number of commands that aren't registered in the executor, they aren't measured
+	 */
+	public int getUnknownCommands()
+	{
+		return this.unknownCommands;
+	}
+
+	/**
+	 * @return the number of commands sent by players the replayer doesn't know, they aren't measured
+	 */
+	public int getUnknownSenders()
+	{
+		return this.unknownSenders;
+	}
+
+	public int getExceptions()
+	{
+		return this.exceptions;
+	}
+
+	public long getOutcomeCount(CommandOutcome outcome)
+	{
+		return this.outcomeCounts[outcome.ordinal()];
+	}
+
+	public long getDurationNanos()
+	{
+		return this.durationNanos;
+	}
+
+	/**
+	 * @return the number of dispatched commands per second of the whole replay
+	 */
+	public double getThroughput()
+	{
+		return this.durationNanos == 0 ? 0 : this.sortedLatencies.length*(double) TimeUnit.SECONDS.toNanos(1)/this.durationNanos;
+	}
+
+	/**
+	 * Returns the dispatch latency below which the provided share of the commands finished. The latency is measured from
+	 * handing the command to the executor until the executor returns, so it contains the execution of synchronous
+	 * commands.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency in nanoseconds
+	 */
+	public long getPercentileNanos(double percentile)
+	{
+		if(this.sortedLatencies.length == 0)
+			return 0;
+
+		int index = (int) Math.ceil(percentile/100*this.sortedLatencies.length)-1;
+		return this.sortedLatencies[Math.max(0, Math.min(index, this.sortedLatencies.length-1))];
+	}
+
+	/**
+	 * @return how far the dispatching threads fell behind the times of the trace at most, in nanoseconds
+	 */
+	public long getMaxLagNanos()
+	{
+		return this.maxLagNanos;
+	}
+
+	/**
+	 * @return the bytes allocated by the dispatching threads, -1 if the JVM doesn't measure it
+	 */
+	public long getAllocatedBytes()
+	{
+		return this.allocatedBytes;
+	}
+
+
+	// FORMAT
+	public String format()
+	{
+		StringBuilder report = new StringBuilder();
+		report.append(String.format(Locale.ROOT, "commands:    %d (%d unknown, %d of unknown senders, %d exceptions)%n",
+				this.commands, this.unknownCommands, this.unknownSenders, this.exceptions));
+		report.append(String.format(Locale.ROOT, "duration:    %.1f ms%n", this.durationNanos/1e6));
+		report.append(String.format(Locale.ROOT, "throughput:  %.0f commands/s%n", getThroughput()));
+		report.append(String.format(Locale.ROOT, "latency:     p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+				getPercentileNanos(50)/1e3, getPercentileNanos(90)/1e3, getPercentileNanos(99)/1e3,
+				getPercentileNanos(99.9)/1e3, getPercentileNanos(100)/1e3));
+		report.append(String.format(Locale.ROOT, "max lag:     %.1f ms%n", this.maxLagNanos/1e6));
+
+		if(this.allocatedBytes >= 0)
+			report.append(String.format(Locale.ROOT, "allocation:  %d bytes (%.0f bytes/command)%n", this.allocatedBytes,
+					this.sortedLatencies.length == 0 ? 0 : this.allocatedBytes/(double) this.sortedLatencies.length));
+		else
+			report.append("allocation:  not supported by this JVM").append(System.lineSeparator());
+
+		report.append("outcomes:   ");
+		for(CommandOutcome outcome : CommandOutcome.values())
+			if(getOutcomeCount(outcome) > 0)
+				report.append(' ').append(outcome.name()).append('=').append(getOutcomeCount(outcome));
+
+		return report.append(System.lineSeparator()).toString();
+	}
+
+}
@@ -0,0 +1,60 @@
+package de.domisum.lib.mandatum.benchmark.replay;
+
+/**
+ * The settings of a replay of a {@link CommandTrace}.
+ */
+public class ReplaySettings
+{
+
+	// PROPERTIES
+	private double speedUp = 1;
+	private int threads = 1;
+
+
+	// SETTINGS
+
+	/**
+	 * Sets how much faster than recorded the trace is replayed. A speed-up of {@code 0} replays the commands as fast as
+	 * possible, ignoring their times.
+	 *
+	 * @param speedUp the factor the time between the commands is divided by
+	 * @return this ReplaySettings
+	 */
+	public ReplaySettings speedUp(double speedUp)
+	{
+		if(speedUp < 0)
+			throw new IllegalArgumentException("The speed-up can't be negative, but was "+speedUp);
+
+		this.speedUp = speedUp;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads dispatching the commands at the same time. The commands of one sender are always
+	 * dispatched by the same thread, so they keep their order.
+	 *
+	 * @param threads the number of threads
+	 * @return this ReplaySettings
+	 */
+	public ReplaySettings threads(int threads)
+	{
+		if(threads <= 0)
+			throw new IllegalArgumentException("The number of threads has to be positive, not "+threads);
+
+		this.threads = threads;
+		return this;
+	}
+
+
+	// GETTERS
+	public double getSpeedUp()
+	{
+		return this.speedUp;
+	}
+
+	public int getThreads()
+	{
+		return this.threads;
+	}
+
+}
@@ -0,0 +1,57 @@
+package de.domisum.lib.mandatum.benchmark.replay;
+
+/**
+ * One command of a {@link CommandTrace}.
+ */
+public class TraceEntry
+{
+
+	// PROPERTIES
+	private final long offsetMillis;
+	private final String senderName;
+	private final String label;
+	private final String[] args;
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param offsetMillis the time of the command, relative to the first command of the trace
+	 * @param senderName   the name of the player sending the command, null for the console
+	 * @param label        the name of the command
+	 * @param args         the arguments of the command, including the names of subcommands
+	 */
+	public TraceEntry(long offsetMillis, String senderName, String label, String[] args)
+	{
+		this.offsetMillis = offsetMillis;
+		this.senderName = senderName;
+		this.label = label;
+		this.args = args;
+	}
+
+
+	// GETTERS
+	public long getOffsetMillis()
+	{
+		return this.offsetMillis;
+	}
+
+	public String getSenderName()
+	{
+		return this.senderName;
+	}
+
+	public String getLabel()
+	{
+		return this.label;
+	}
+
+	/**
+	 * @return the arguments, shared between all replays of the entry
+	 */
+	public String[] getArgs()
+	{
+		return this.args;
+	}
+
+}
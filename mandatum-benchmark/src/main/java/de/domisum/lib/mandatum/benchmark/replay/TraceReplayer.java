@@ -0,0 +1,245 @@
+package de.domisum.lib.mandatum.benchmark.replay;
+
+import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+import de.domisum.lib.mandatum.util.ArgumentList;
+import org.bukkit.command.CommandSender;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link CommandTrace} against an executor and measures the dispatching.
+ * <p>
+ * The commands are split between the dispatching threads by their sender. Every thread waits for the time of its next
+ * command (divided by the speed-up) and then hands it to the executor, recording the latency into a preallocated array,
+ * so the measurement itself doesn't allocate. The allocation of the dispatching threads is read from the
+ * {@code ThreadMXBean} of HotSpot-based JVMs.
+ * <p>
+ * Commands of senders that aren't known to the replayer aren't dispatched, since running them as the console would
+ * measure different checks than the trace contains. They are counted separately in the report.
+ */
+public class TraceReplayer
+{
+
+	// CONSTANTS
+	private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	// REFERENCES
+	private final MandatumCommandExecutor executor;
+	private final Map<String, ? extends CommandSender> senders;
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param executor the executor dispatching the commands
+	 * @param senders  the senders of the commands by their names, commands of senders missing here are skipped
+	 */
+	public TraceReplayer(MandatumCommandExecutor executor, Map<String, ? extends CommandSender> senders)
+	{
+		this.executor = executor;
+		this.senders = senders;
+	}
+
+
+	// REPLAY
+	public ReplayReport replay(CommandTrace trace, ReplaySettings settings) throws InterruptedException
+	{
+		List<List<TraceEntry>> partitions = partition(trace, settings.getThreads());
+
+		long startNanos = System.nanoTime()+START_DELAY_NANOS;
+		CountDownLatch finished = new CountDownLatch(partitions.size());
+		List<Worker> workers = new ArrayList<>();
+		for(int i = 0; i < partitions.size(); i++)
+		{
+			Worker worker = new Worker(partitions.get(i), settings.getSpeedUp(), startNanos, finished);
+			workers.add(worker);
+
+			Thread thread = new Thread(worker, "MandatumLib replay "+i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		finished.await();
+		long durationNanos = System.nanoTime()-startNanos;
+
+		return createReport(trace, workers, durationNanos);
+	}
+
+	private static List<List<TraceEntry>> partition(CommandTrace trace, int threads)
+	{
+		List<List<TraceEntry>> partitions = new ArrayList<>();
+		for(int i = 0; i < threads; i++)
+			partitions.add(new ArrayList<>());
+
+		// the trace is sorted by time, so every partition is as well
+		for(TraceEntry entry : trace.getEntries())
+		{
+			int hash = entry.getSenderName() == null ? 0 : entry.getSenderName().hashCode();
+			partitions.get(Math.floorMod(hash, threads)).add(entry);
+		}
+
+		return partitions;
+	}
+
+	private static ReplayReport createReport(CommandTrace trace, List<Worker> workers, long durationNanos)
+	{
+		int measured = 0;
+		for(Worker worker : workers)
+			measured += worker.measured;
+
+		long[] latencies = new long[measured];
+		long[] outcomeCounts = new long[CommandOutcome.values().length];
+		int unknownCommands = 0;
+		int unknownSenders = 0;
+		int exceptions = 0;
+		long maxLagNanos = 0;
+		long allocatedBytes = 0;
+
+		int offset = 0;
+		for(Worker worker : workers)
+		{
+			System.arraycopy(worker.latencies, 0, latencies, offset, worker.measured);
+			offset += worker.measured;
+
+			for(int i = 0; i < outcomeCounts.length; i++)
+				outcomeCounts[i] += worker.outcomeCounts[i];
+			unknownCommands += worker.unknownCommands;
+			unknownSenders += worker.unknownSenders;
+			exceptions += worker.exceptions;
+			maxLagNanos = Math.max(maxLagNanos, worker.maxLagNanos);
+			allocatedBytes = worker.allocatedBytes < 0 || allocatedBytes < 0 ? -1 : allocatedBytes+worker.allocatedBytes;
+		}
+
+		Arrays.sort(latencies);
+		return new ReplayReport(trace.size(), unknownCommands, unknownSenders, exceptions, outcomeCounts, durationNanos,
+				latencies, maxLagNanos, allocatedBytes);
+	}
+
+
+	// WORKER
+	private class Worker implements Runnable
+	{
+
+		// INPUT
+		private final List<TraceEntry> entries;
+		private final double speedUp;
+		private final long startNanos;
+		private final CountDownLatch finished;
+
+		// RESULT
+		private final long[] latencies;
+		private final long[] outcomeCounts = new long[CommandOutcome.values().length];
+		private int measured;
+		private int unknownCommands;
+		private int unknownSenders;
+		private int exceptions;
+		private long maxLagNanos;
+		private long allocatedBytes;
+
+
+		private Worker(List<TraceEntry> entries, double speedUp, long startNanos, CountDownLatch finished)
+		{
+			this.entries = entries;
+			this.speedUp = speedUp;
+			this.startNanos = startNanos;
+			this.finished = finished;
+			this.latencies = new long[entries.size()];
+		}
+
+
+		@Override public void run()
+		{
+			try
+			{
+				long allocatedBefore = getAllocatedBytes();
+				for(TraceEntry entry : this.entries)
+					replay(entry);
+				long allocatedAfter = getAllocatedBytes();
+
+				this.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter-allocatedBefore;
+			}
+			finally
+			{
+				this.finished.countDown();
+			}
+		}
+
+		private void replay(TraceEntry entry)
+		{
+			long scheduledNanos = this.startNanos;
+			if(this.speedUp > 0)
+				scheduledNanos += (long) (TimeUnit.MILLISECONDS.toNanos(entry.getOffsetMillis())/this.speedUp);
+			waitUntil(scheduledNanos);
+
+			// commands are looked up on every replay, like the executor does, since the registry can change meanwhile
+			RegisteredCommand registeredCommand = TraceReplayer.this.executor.getRegistry().get(entry.getLabel());
+			if(registeredCommand == null)
+			{
+				this.unknownCommands++;
+				return;
+			}
+
+			// entries without a sender have been sent by the console
+			CommandSender sender = null;
+			if(entry.getSenderName() != null)
+			{
+				sender = TraceReplayer.this.senders.get(entry.getSenderName());
+				if(sender == null)
+				{
+					this.unknownSenders++;
+					return;
+				}
+			}
+
+			long dispatchStartNanos = System.nanoTime();
+			this.maxLagNanos = Math.max(this.maxLagNanos, dispatchStartNanos-scheduledNanos);
+			try
+			{
+				CommandOutcome outcome = TraceReplayer.this.executor
+						.runCommand(registeredCommand, sender, ArgumentList.of(entry.getArgs()));
+				this.outcomeCounts[outcome.ordinal()]++;
+			}
+			catch(RuntimeException e)
+			{
+				this.exceptions++;
+			}
+
+			this.latencies[this.measured++] = System.nanoTime()-dispatchStartNanos;
+		}
+
+		private void waitUntil(long nanos)
+		{
+			long remainingNanos;
+			while((remainingNanos = nanos-System.nanoTime()) > 0)
+				LockSupport.parkNanos(remainingNanos);
+		}
+
+	}
+
+
+	// UTIL
+	private static long getAllocatedBytes()
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(!(threadBean instanceof com.sun.management.ThreadMXBean))
+			return -1;
+
+		com.sun.management.ThreadMXBean hotSpotThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+		if(!hotSpotThreadBean.isThreadAllocatedMemorySupported())
+			return -1;
+		if(!hotSpotThreadBean.isThreadAllocatedMemoryEnabled())
+			hotSpotThreadBean.setThreadAllocatedMemoryEnabled(true);
+
+		return hotSpotThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+}
@@ -0,0 +1,25 @@
+package de.domisum.lib.mandatum.benchmark.stub;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+/**
+ * The Bukkit command object handed to the executor, only its name is read.
+ */
+public class StubCommand extends Command
+{
+
+	// CONSTRUCTOR
+	public StubCommand(String name)
+	{
+		super(name);
+	}
+
+
+	// EXECUTION
+	@Override public boolean execute(CommandSender sender, String label, String[] args)
+	{
+		return false;
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.domisum.lib.mandatum.benchmark.stub;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Implements the huge Bukkit interfaces with a dynamic proxy. Only the methods needed by MandatumLib get answers, all
+ * others return the default value of their return type.
+ */
+class StubInvocationHandler implements InvocationHandler
+{
+
+	// REFERENCES
+	private final String description;
+	private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+
+	// CONSTRUCTOR
+	StubInvocationHandler(String description)
+	{
+		this.description = description;
+	}
+
+
+	// SETUP
+	StubInvocationHandler answer(String methodName, Function<Object[], Object> answer)
+	{
+		this.answers.put(methodName, answer);
+		return this;
+	}
+
+	@SuppressWarnings("unchecked") <T> T createProxy(Class<T> type)
+	{
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, this);
+	}
+
+
+	// INVOCATION
+	@Override public Object invoke(Object proxy, Method method, Object[] args)
+	{
+		Function<Object[], Object> answer = this.answers.get(method.getName());
+		if(answer != null)
+			return answer.apply(args);
+
+		switch(method.getName())
+		{
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return this.description;
+			default:
+				return getDefaultValue(method.getReturnType());
+		}
+	}
+
+	private static Object getDefaultValue(Class<?> type)
+	{
+		if(type == boolean.class)
+			return false;
+		else if(type == int.class)
+			return 0;
+		else if(type == long.class)
+			return 0L;
+		else if(type == double.class)
+			return 0d;
+		else if(type == float.class)
+			return 0f;
+		else if(type == short.class)
+			return (short) 0;
+		else if(type == byte.class)
+			return (byte) 0;
+		else if(type == char.class)
+			return (char) 0;
+		else if(type == String.class)
+			return "";
+		else if(type == List.class)
+			return Collections.emptyList();
+		else if(type == Set.class)
+			return Collections.emptySet();
+		else if(type == Map.class)
+			return Collections.emptyMap();
+
+		return null;
+	}
+
+}
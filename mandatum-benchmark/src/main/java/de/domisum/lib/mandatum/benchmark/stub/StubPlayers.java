@@ -0,0 +1,66 @@
+package de.domisum.lib.mandatum.benchmark.stub;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates stand-ins for players that work without a server.
+ */
+public final class StubPlayers
+{
+
+	// CONSTRUCTOR
+	private StubPlayers()
+	{
+
+	}
+
+
+	// CREATION
+
+	/**
+	 * Creates a player that has every permission and counts the messages sent to them instead of delivering them.
+	 *
+	 * @param name             the name of the player
+	 * @param receivedMessages the counter incremented for every message sent to the player
+	 * @return the player
+	 */
+	public static Player create(String name, LongAdder receivedMessages)
+	{
+		UUID id = UUID.nameUUIDFromBytes(("OfflinePlayer:"+name).getBytes());
+
+		// messages of several lines are sent as chat components
+		Player.Spigot spigot = new Player.Spigot()
+		{
+			@Override public void sendMessage(BaseComponent component)
+			{
+				receivedMessages.increment();
+			}
+
+			@Override public void sendMessage(BaseComponent... components)
+			{
+				receivedMessages.increment();
+			}
+		};
+
+		return new StubInvocationHandler("StubPlayer{"+name+"}")
+				.answer("getName", args->name)
+				.answer("getDisplayName", args->name)
+				.answer("getUniqueId", args->id)
+				.answer("isOnline", args->true)
+				.answer("isValid", args->true)
+				.answer("isOp", args->false)
+				.answer("hasPermission", args->true)
+				.answer("sendMessage", args->
+				{
+					receivedMessages.increment();
+					return null;
+				})
+				.answer("spigot", args->spigot)
+				.createProxy(Player.class);
+	}
+
+}
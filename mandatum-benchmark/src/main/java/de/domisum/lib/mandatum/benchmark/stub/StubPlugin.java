@@ -0,0 +1,56 @@
+package de.domisum.lib.mandatum.benchmark.stub;
+
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.StringReader;
+
+/**
+ * A plugin that isn't loaded by a PluginClassLoader, created through the initialization constructor that Bukkit offers
+ * for tests.
+ */
+public class StubPlugin extends JavaPlugin
+{
+
+	// CONSTRUCTOR
+	private StubPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file)
+	{
+		super(loader, description, dataFolder, file);
+	}
+
+	/**
+	 * Creates a plugin with the provided plugin.yml contents.
+	 *
+	 * @param pluginYml the contents of the plugin.yml, including the commands
+	 * @return the plugin
+	 */
+	public static StubPlugin create(String pluginYml)
+	{
+		PluginDescriptionFile description;
+		try
+		{
+			description = new PluginDescriptionFile(new StringReader(pluginYml));
+		}
+		catch(InvalidDescriptionException e)
+		{
+			throw new IllegalArgumentException("The plugin.yml is invalid", e);
+		}
+
+		File dataFolder = new File(System.getProperty("java.io.tmpdir"), "mandatum-stub");
+		return new StubPlugin(new JavaPluginLoader(StubServer.install()), description, dataFolder, new File(dataFolder, "stub.jar"));
+	}
+
+	/**
+	 * Creates a plugin without commands.
+	 *
+	 * @return the plugin
+	 */
+	public static StubPlugin create()
+	{
+		return create("name: MandatumStub\nversion: 1.0\nmain: "+StubPlugin.class.getName()+"\n");
+	}
+
+}
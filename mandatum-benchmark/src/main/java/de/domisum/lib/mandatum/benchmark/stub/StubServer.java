@@ -0,0 +1,164 @@
+package de.domisum.lib.mandatum.benchmark.stub;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A server without a world, network or scheduler thread, used to run MandatumLib headless.
+ * <p>
+ * Tasks handed to the scheduler are run immediately on the calling thread, and the main thread check can be replaced so
+ * that several threads can act as the main thread while replaying load.
+ */
+public final class StubServer
+{
+
+	// REFERENCES
+	private static Server server;
+	private static final List<Player> onlinePlayers = new CopyOnWriteArrayList<>();
+	private static final Map<String, PluginCommand> pluginCommands = new ConcurrentHashMap<>();
+	private static volatile BooleanSupplier primaryThreadCheck = ()->true;
+
+
+	// CONSTRUCTOR
+	private StubServer()
+	{
+
+	}
+
+
+	// INIT
+
+	/**
+	 * Installs the stub server as the Bukkit server. This can only be done once per JVM, so later calls return the
+	 * installed server.
+	 *
+	 * @return the server
+	 */
+	public static synchronized Server install()
+	{
+		if(server != null)
+			return server;
+
+		// the info messages of the registration would only distort the measurements
+		Logger logger = Logger.getLogger("StubServer");
+		logger.setUseParentHandlers(false);
+		ConsoleHandler handler = new ConsoleHandler();
+		handler.setLevel(Level.WARNING);
+		logger.addHandler(handler);
+
+		BukkitScheduler scheduler = new StubInvocationHandler("StubScheduler")
+				.answer("runTask", args->runNow(args[1]))
+				.answer("runTaskAsynchronously", args->runNow(args[1]))
+				.answer("scheduleSyncDelayedTask", args->
+				{
+					runNow(args[1]);
+					return 0;
+				})
+				.createProxy(BukkitScheduler.class);
+		PluginManager pluginManager = new StubInvocationHandler("StubPluginManager").createProxy(PluginManager.class);
+
+		server = new StubInvocationHandler("StubServer")
+				.answer("getName", args->"StubServer")
+				.answer("getVersion", args->"stub")
+				.answer("getBukkitVersion", args->"stub")
+				.answer("getLogger", args->logger)
+				.answer("getScheduler", args->scheduler)
+				.answer("getPluginManager", args->pluginManager)
+				.answer("getOnlinePlayers", args->Collections.unmodifiableCollection(onlinePlayers))
+				.answer("isPrimaryThread", args->primaryThreadCheck.getAsBoolean())
+				.answer("getPluginCommand", args->pluginCommands.get((String) args[0]))
+				.createProxy(Server.class);
+		Bukkit.setServer(server);
+
+		return server;
+	}
+
+
+	// PLAYERS
+	public static void addOnlinePlayer(Player player)
+	{
+		onlinePlayers.add(player);
+	}
+
+	public static void clearOnlinePlayers()
+	{
+		onlinePlayers.clear();
+	}
+
+	public static Collection<Player> getOnlinePlayers()
+	{
+		return Collections.unmodifiableCollection(onlinePlayers);
+	}
+
+
+	// COMMANDS
+
+	/**
+	 * Creates the commands listed in the plugin.yml of the plugin, so they can be looked up like on a real server.
+	 *
+	 * @param plugin the plugin
+	 */
+	public static void addPluginCommands(Plugin plugin)
+	{
+		Map<String, Map<String, Object>> commands = plugin.getDescription().getCommands();
+		if(commands == null)
+			return;
+
+		for(String commandName : commands.keySet())
+			pluginCommands.put(commandName, createPluginCommand(commandName, plugin));
+	}
+
+	public static void clearPluginCommands()
+	{
+		pluginCommands.clear();
+	}
+
+	private static PluginCommand createPluginCommand(String commandName, Plugin plugin)
+	{
+		// Bukkit only creates plugin commands itself, so the protected constructor is used
+		try
+		{
+			Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+			constructor.setAccessible(true);
+			return constructor.newInstance(commandName, plugin);
+		}
+		catch(NoSuchMethodException|InstantiationException|IllegalAccessException|InvocationTargetException e)
+		{
+			throw new IllegalStateException("Failed to create the plugin command '"+commandName+"'", e);
+		}
+	}
+
+
+	// THREADS
+	public static void setPrimaryThreadCheck(BooleanSupplier primaryThreadCheck)
+	{
+		StubServer.primaryThreadCheck = primaryThreadCheck;
+	}
+
+
+	// UTIL
+	private static Object runNow(Object task)
+	{
+		((Runnable) task).run();
+		return null;
+	}
+
+}
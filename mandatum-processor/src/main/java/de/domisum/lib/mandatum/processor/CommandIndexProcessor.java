@@ -0,0 +1,298 @@
+package de.domisum.lib.mandatum.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates a {@code MandatumCommandIndex} class in every package containing classes annotated with
+ * {@code @IndexedCommand}.
+ * <p>
+ * The generated index lists the command classes with their names, the names of their supercommands and factories
+ * calling their constructors directly, so MandatumLib can register the commands without scanning the package or
+ * instantiating the classes.
+ * <p>
+ * The processor doesn't depend on MandatumLib itself, the classes of the library are referenced by name.
+ */
+@SupportedAnnotationTypes(CommandIndexProcessor.ANNOTATION)
+public class CommandIndexProcessor extends AbstractProcessor
+{
+
+	// CONSTANTS
+	static final String ANNOTATION = "de.domisum.lib.mandatum.index.IndexedCommand";
+	private static final String COMMAND = "de.domisum.lib.mandatum.cmd.MandatumBaseCommand";
+	private static final String SUB_COMMAND = "de.domisum.lib.mandatum.cmd.MandatumSubCommand";
+	private static final String STATELESS_COMMAND = "de.domisum.lib.mandatum.cmd.MandatumStatelessCommand";
+	private static final String COMMAND_SENDER = "org.bukkit.command.CommandSender";
+	private static final String INDEX_CLASS_NAME = "MandatumCommandIndex";
+
+	// STATUS
+	private final Set<String> generatedPackages = new HashSet<>();
+
+
+	// PROCESSOR
+	@Override public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment)
+	{
+		TypeElement annotation = elements().getTypeElement(ANNOTATION);
+		if(annotation == null)
+			return false;
+
+		// commands of one package are written into one index, so they are collected before generating
+		Map<String, List<IndexEntry>> entriesByPackage = new TreeMap<>();
+		for(Element element : roundEnvironment.getElementsAnnotatedWith(annotation))
+		{
+			IndexEntry entry = readEntry((TypeElement) element);
+			if(entry == null)
+				continue;
+
+			String packageName = elements().getPackageOf(element).getQualifiedName().toString();
+			entriesByPackage.computeIfAbsent(packageName, p->new ArrayList<>()).add(entry);
+		}
+
+		for(Entry<String, List<IndexEntry>> entry : entriesByPackage.entrySet())
+			writeIndex(entry.getKey(), entry.getValue());
+
+		return true;
+	}
+
+
+	// READING
+	private IndexEntry readEntry(TypeElement element)
+	{
+		if(element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT))
+			return error(element, "@IndexedCommand can only be used on classes that aren't abstract");
+
+		if(element.getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC))
+			return error(element, "@IndexedCommand can't be used on inner classes, they have to be static");
+		if(element.getNestingKind() == NestingKind.LOCAL || element.getNestingKind() == NestingKind.ANONYMOUS)
+			return error(element, "@IndexedCommand can't be used on local classes");
+
+		if(elements().getPackageOf(element).isUnnamed())
+			return error(element, "@IndexedCommand can't be used on classes in the default package");
+
+		if(!isSubtype(element, COMMAND))
+			return error(element, "@IndexedCommand can only be used on subclasses of MandatumCommand or MandatumStatelessCommand");
+
+		// stateless commands are created once using their constructor without parameters
+		boolean stateless = isSubtype(element, STATELESS_COMMAND);
+		if(stateless && !hasStatelessConstructor(element))
+			return error(element, "The stateless command doesn't have a constructor without parameters");
+		if(!stateless && !hasCommandConstructor(element))
+			return error(element, "The command doesn't have a constructor with the parameters (CommandSender, List)");
+
+		AnnotationMirror annotationMirror = getAnnotationMirror(element);
+		String name = getAnnotationValue(annotationMirror, "name");
+		String superCommandName = getAnnotationValue(annotationMirror, "superCommand");
+
+		if(name == null || name.isEmpty())
+			return error(element, "The name of the command can't be empty");
+
+		boolean subCommand = isSubtype(element, SUB_COMMAND);
+		if(subCommand && (superCommandName == null || superCommandName.isEmpty()))
+			return error(element, "Subcommands have to declare the name of their supercommand");
+		if(!subCommand && superCommandName != null && !superCommandName.isEmpty())
+			return error(element, "Only subcommands can declare the name of a supercommand");
+
+		return new IndexEntry(getSourceName(element), name, subCommand ? superCommandName : null, stateless);
+	}
+
+	private boolean hasCommandConstructor(TypeElement element)
+	{
+		TypeMirror commandSender = types().erasure(elements().getTypeElement(COMMAND_SENDER).asType());
+		TypeMirror list = types().erasure(elements().getTypeElement(List.class.getName()).asType());
+
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements()))
+		{
+			if(constructor.getModifiers().contains(Modifier.PRIVATE) || constructor.getParameters().size() != 2)
+				continue;
+
+			TypeMirror first = types().erasure(constructor.getParameters().get(0).asType());
+			TypeMirror second = types().erasure(constructor.getParameters().get(1).asType());
+			if(types().isSameType(first, commandSender) && types().isSameType(second, list))
+				return true;
+		}
+
+		return false;
+	}
+
+	private static boolean hasStatelessConstructor(TypeElement element)
+	{
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements()))
+			if(!constructor.getModifiers().contains(Modifier.PRIVATE) && constructor.getParameters().isEmpty())
+				return true;
+
+		return false;
+	}
+
+	private AnnotationMirror getAnnotationMirror(TypeElement element)
+	{
+		for(AnnotationMirror annotationMirror : element.getAnnotationMirrors())
+			if(((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION))
+				return annotationMirror;
+
+		throw new IllegalStateException("The element "+element+" isn't annotated with "+ANNOTATION);
+	}
+
+	private static String getAnnotationValue(AnnotationMirror annotationMirror, String key)
+	{
+		for(Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet())
+			if(entry.getKey().getSimpleName().contentEquals(key))
+				return (String) entry.getValue().getValue();
+
+		return null;
+	}
+
+	private String getSourceName(TypeElement element)
+	{
+		// nested classes are referenced through their enclosing classes, relative to the package
+		String qualifiedName = element.getQualifiedName().toString();
+		PackageElement packageElement = elements().getPackageOf(element);
+		return qualifiedName.substring(packageElement.getQualifiedName().length()+1);
+	}
+
+
+	// WRITING
+	private void writeIndex(String packageName, List<IndexEntry> entries)
+	{
+		if(!this.generatedPackages.add(packageName))
+		{
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"The commands of the package '"+packageName+"' were spread over several rounds of annotation processing");
+			return;
+		}
+
+		String indexName = packageName+"."+INDEX_CLASS_NAME;
+		try
+		{
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(indexName);
+			try(Writer writer = file.openWriter())
+			{
+				writer.write(generateSource(packageName, entries));
+			}
+		}
+		catch(IOException e)
+		{
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write the command index '"+indexName+"': "+e);
+		}
+	}
+
+	private static String generateSource(String packageName, List<IndexEntry> entries)
+	{
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("import de.domisum.lib.mandatum.exe.CommandFactory;\n");
+		source.append("import de.domisum.lib.mandatum.index.CommandIndex;\n");
+		source.append("import de.domisum.lib.mandatum.index.CommandIndexEntry;\n\n");
+		source.append("import java.util.ArrayList;\n");
+		source.append("import java.util.List;\n\n");
+		source.append("/**\n * Generated by ").append(CommandIndexProcessor.class.getName()).append(", do not edit.\n */\n");
+		source.append("public final class ").append(INDEX_CLASS_NAME).append(" implements CommandIndex\n{\n\n");
+		source.append("\t@Override public List<CommandIndexEntry> getEntries()\n\t{\n");
+		source.append("\t\tList<CommandIndexEntry> entries = new ArrayList<>();\n");
+		for(IndexEntry entry : entries)
+		{
+			source.append("\t\tentries.add(new CommandIndexEntry(").append(entry.className).append(".class, ");
+			source.append(toLiteral(entry.name)).append(", ").append(toLiteral(entry.superCommandName)).append(", ");
+			if(entry.stateless)
+				source.append("CommandFactory.singleton(new ").append(entry.className).append("())));\n");
+			else
+				source.append(entry.className).append("::new));\n");
+		}
+		source.append("\t\treturn entries;\n\t}\n\n}\n");
+
+		return source.toString();
+	}
+
+	private static String toLiteral(String value)
+	{
+		if(value == null)
+			return "null";
+
+		StringBuilder literal = new StringBuilder("\"");
+		for(char c : value.toCharArray())
+			if(c == '"' || c == '\\')
+				literal.append('\\').append(c);
+			else if(c < 0x20 || c > 0x7e)
+				literal.append(String.format("\\u%04x", (int) c));
+			else
+				literal.append(c);
+
+		return literal.append('"').toString();
+	}
+
+
+	// UTIL
+	private Elements elements()
+	{
+		return processingEnv.getElementUtils();
+	}
+
+	private Types types()
+	{
+		return processingEnv.getTypeUtils();
+	}
+
+	private boolean isSubtype(TypeElement element, String superTypeName)
+	{
+		TypeElement superType = elements().getTypeElement(superTypeName);
+		return superType != null && types().isSubtype(types().erasure(element.asType()), types().erasure(superType.asType()));
+	}
+
+	private IndexEntry error(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+		return null;
+	}
+
+
+	// ENTRY
+	private static class IndexEntry
+	{
+
+		private final String className;
+		private final String name;
+		private final String superCommandName;
+		private final boolean stateless;
+
+
+		private IndexEntry(String className, String name, String superCommandName, boolean stateless)
+		{
+			this.className = className;
+			this.name = name;
+			this.superCommandName = superCommandName;
+			this.stateless = stateless;
+		}
+
+	}
+
+}
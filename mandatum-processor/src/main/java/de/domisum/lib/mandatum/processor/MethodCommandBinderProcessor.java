@@ -0,0 +1,276 @@
+package de.domisum.lib.mandatum.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Generates a {@code MethodCommandBinder} for every class annotated with {@code @MethodCommand}.
+ * <p>
+ * The binder calls the command methods of the class directly, selected by their index, so MandatumLib doesn't have to
+ * call them through reflection or method handles. The signatures of the methods are written into the binder, so a
+ * binder not matching the compiled class is ignored for the methods that changed.
+ * <p>
+ * Like the {@link CommandIndexProcessor}, the processor references the classes of the library by name.
+ */
+@SupportedAnnotationTypes(MethodCommandBinderProcessor.ANNOTATION)
+public class MethodCommandBinderProcessor extends AbstractProcessor
+{
+
+	// CONSTANTS
+	static final String ANNOTATION = "de.domisum.lib.mandatum.cmd.method.MethodCommand";
+	private static final String METHOD_ANNOTATION = "de.domisum.lib.mandatum.cmd.method.CommandMethod";
+	private static final String COMMAND_CONTEXT = "de.domisum.lib.mandatum.cmd.CommandContext";
+	private static final String BINDER_SUFFIX = "_MandatumBinder";
+
+
+	// PROCESSOR
+	@Override public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment)
+	{
+		TypeElement annotation = elements().getTypeElement(ANNOTATION);
+		if(annotation == null)
+			return false;
+
+		for(Element element : roundEnvironment.getElementsAnnotatedWith(annotation))
+		{
+			TypeElement typeElement = (TypeElement) element;
+			List<BoundMethod> methods = readMethods(typeElement);
+			if(methods != null)
+				writeBinder(typeElement, methods);
+		}
+
+		return true;
+	}
+
+
+	// READING
+	private List<BoundMethod> readMethods(TypeElement element)
+	{
+		if(element.getKind() != ElementKind.CLASS)
+			return error(element, "@MethodCommand can only be used on classes");
+		if(element.getModifiers().contains(Modifier.PRIVATE))
+			return error(element, "@MethodCommand can't be used on private classes");
+		if(element.getNestingKind() == NestingKind.LOCAL || element.getNestingKind() == NestingKind.ANONYMOUS)
+			return error(element, "@MethodCommand can't be used on local classes");
+		if(elements().getPackageOf(element).isUnnamed())
+			return error(element, "@MethodCommand can't be used on classes in the default package");
+
+		// the methods are ordered by their signatures, the order of the indexes doesn't matter to the library
+		Map<String, BoundMethod> methodsBySignature = new TreeMap<>();
+		for(ExecutableElement method : ElementFilter.methodsIn(elements().getAllMembers(element)))
+		{
+			if(!isCommandMethod(method))
+				continue;
+
+			if(!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC))
+				return error(method, "Command methods have to be public and can't be static");
+
+			BoundMethod boundMethod = readMethod(method);
+			methodsBySignature.put(boundMethod.signature, boundMethod);
+		}
+
+		if(methodsBySignature.isEmpty())
+			return error(element, "The class doesn't have any methods annotated with @CommandMethod");
+
+		return new ArrayList<>(methodsBySignature.values());
+	}
+
+	private BoundMethod readMethod(ExecutableElement method)
+	{
+		List<String> parameterTypes = new ArrayList<>();
+		for(VariableElement parameter : method.getParameters())
+			parameterTypes.add(types().erasure(parameter.asType()).toString());
+
+		boolean context = !parameterTypes.isEmpty() && parameterTypes.get(0).equals(COMMAND_CONTEXT);
+
+		StringJoiner signature = new StringJoiner(",", method.getSimpleName()+"(", ")");
+		parameterTypes.forEach(signature::add);
+
+		return new BoundMethod(method.getSimpleName().toString(), signature.toString(), parameterTypes, context);
+	}
+
+	private static boolean isCommandMethod(ExecutableElement method)
+	{
+		for(AnnotationMirror annotationMirror : method.getAnnotationMirrors())
+			if(((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName()
+					.contentEquals(METHOD_ANNOTATION))
+				return true;
+
+		return false;
+	}
+
+
+	// WRITING
+	private void writeBinder(TypeElement element, List<BoundMethod> methods)
+	{
+		String packageName = elements().getPackageOf(element).getQualifiedName().toString();
+		String sourceName = getSourceName(element);
+		String binderName = packageName+"."+sourceName.replace('.', '_')+BINDER_SUFFIX;
+
+		try
+		{
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(binderName, element);
+			try(Writer writer = file.openWriter())
+			{
+				writer.write(generateSource(packageName, sourceName, methods));
+			}
+		}
+		catch(IOException e)
+		{
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to write the command binder '"+binderName+"': "+e);
+		}
+	}
+
+	private static String generateSource(String packageName, String sourceName, List<BoundMethod> methods)
+	{
+		String binderSimpleName = sourceName.replace('.', '_')+BINDER_SUFFIX;
+
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(packageName).append(";\n\n");
+		source.append("import de.domisum.lib.mandatum.cmd.CommandContext;\n");
+		source.append("import de.domisum.lib.mandatum.cmd.method.MethodCommandBinder;\n\n");
+		source.append("/**\n * Generated by ").append(MethodCommandBinderProcessor.class.getName()).append(", do not edit.\n */\n");
+		source.append("public final class ").append(binderSimpleName);
+		source.append(" implements MethodCommandBinder<").append(sourceName).append(">\n{\n\n");
+
+		source.append("\tprivate static final String[] SIGNATURES = {");
+		StringJoiner signatures = new StringJoiner(", ");
+		for(BoundMethod method : methods)
+			signatures.add("\""+method.signature+"\"");
+		source.append(signatures).append("};\n\n\n");
+
+		source.append("\t@Override public String[] getMethodSignatures()\n\t{\n");
+		source.append("\t\treturn SIGNATURES.clone();\n\t}\n\n");
+
+		source.append("\t@SuppressWarnings(\"unchecked\")\n");
+		source.append("\t@Override public void invoke(").append(sourceName);
+		source.append(" target, int methodIndex, CommandContext context, Object[] values)\n\t{\n");
+		source.append("\t\tswitch(methodIndex)\n\t\t{\n");
+		for(int i = 0; i < methods.size(); i++)
+		{
+			BoundMethod method = methods.get(i);
+			source.append("\t\t\tcase ").append(i).append(":\n");
+			source.append("\t\t\t\ttarget.").append(method.name).append("(").append(generateArguments(method)).append(");\n");
+			source.append("\t\t\t\treturn;\n");
+		}
+		source.append("\t\t\tdefault:\n");
+		source.append("\t\t\t\tthrow new IllegalArgumentException(\"There is no command method with the index \"+methodIndex);\n");
+		source.append("\t\t}\n\t}\n\n}\n");
+
+		return source.toString();
+	}
+
+	private static String generateArguments(BoundMethod method)
+	{
+		StringJoiner arguments = new StringJoiner(", ");
+		int offset = method.context ? 1 : 0;
+		if(method.context)
+			arguments.add("context");
+
+		// primitive parameters are unboxed from the wrapper class their ArgumentType parses
+		for(int i = offset; i < method.parameterTypes.size(); i++)
+			arguments.add("("+toReferenceType(method.parameterTypes.get(i))+") values["+(i-offset)+"]");
+
+		return arguments.toString();
+	}
+
+	private static String toReferenceType(String typeName)
+	{
+		switch(typeName)
+		{
+			case "boolean":
+				return "Boolean";
+			case "byte":
+				return "Byte";
+			case "short":
+				return "Short";
+			case "char":
+				return "Character";
+			case "int":
+				return "Integer";
+			case "long":
+				return "Long";
+			case "float":
+				return "Float";
+			case "double":
+				return "Double";
+			default:
+				return typeName;
+		}
+	}
+
+	private String getSourceName(TypeElement element)
+	{
+		String qualifiedName = element.getQualifiedName().toString();
+		PackageElement packageElement = elements().getPackageOf(element);
+		return qualifiedName.substring(packageElement.getQualifiedName().length()+1);
+	}
+
+
+	// UTIL
+	private Elements elements()
+	{
+		return processingEnv.getElementUtils();
+	}
+
+	private Types types()
+	{
+		return processingEnv.getTypeUtils();
+	}
+
+	private List<BoundMethod> error(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+		return null;
+	}
+
+
+	// METHOD
+	private static class BoundMethod
+	{
+
+		private final String name;
+		private final String signature;
+		private final List<String> parameterTypes;
+		private final boolean context;
+
+
+		private BoundMethod(String name, String signature, List<String> parameterTypes, boolean context)
+		{
+			this.name = name;
+			this.signature = signature;
+			this.parameterTypes = parameterTypes;
+			this.context = context;
+		}
+
+	}
+
+}
@@ -1,10 +1,28 @@
 package de.domisum.lib.mandatum;
 
 import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.audit.AuditLog;
+import de.domisum.lib.mandatum.audit.AuditSettings;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.cmd.method.AnnotatedCommand;
 import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
 import de.domisum.lib.mandatum.exe.MandatumCommandRegisterer;
+import de.domisum.lib.mandatum.exe.MandatumTabCompleter;
+import de.domisum.lib.mandatum.exe.ParallelCommandRegisterer;
+import de.domisum.lib.mandatum.exe.RegistrationReport;
+import de.domisum.lib.mandatum.exe.UnknownCommandListener;
+import de.domisum.lib.mandatum.metrics.MandatumMetricsCommand;
+import de.domisum.lib.mandatum.permission.PermissionCacheListener;
+import de.domisum.lib.mandatum.player.OnlinePlayerIndex;
+import de.domisum.lib.mandatum.player.OnlinePlayerListener;
+import de.domisum.lib.mandatum.watchdog.CommandWatchdog;
+import de.domisum.lib.mandatum.watchdog.WatchdogSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.logging.Logger;
 
 public class MandatumLib
@@ -15,6 +33,8 @@ public class MandatumLib
 	private JavaPlugin plugin;
 
 	private MandatumCommandExecutor commandExecutor;
+	private MandatumTabCompleter tabCompleter;
+	private OnlinePlayerIndex playerIndex;
 
 
 	// CONSTRUCTOR
@@ -45,12 +65,29 @@ public class MandatumLib
 	private void onEnable()
 	{
 		this.commandExecutor = new MandatumCommandExecutor();
+		this.tabCompleter = new MandatumTabCompleter(this.commandExecutor);
 
-		getLogger().info(this.getClass().getSimpleName()+" has been enabled");
+		this.playerIndex = new OnlinePlayerIndex();
+		this.playerIndex.reset(Bukkit.getOnlinePlayers());
+		Bukkit.getPluginManager().registerEvents(new OnlinePlayerListener(this.playerIndex), this.plugin);
+		Bukkit.getPluginManager()
+				.registerEvents(new PermissionCacheListener(this.commandExecutor.getPermissionCache()), this.plugin);
+		Bukkit.getPluginManager().registerEvents(new UnknownCommandListener(this.commandExecutor), this.plugin);
+
+		// the instance isn't set yet while enabling, so the static logger getter can't be used here
+		this.plugin.getLogger().info(this.getClass().getSimpleName()+" has been enabled");
 	}
 
 	private void onDisable()
 	{
+		AuditLog auditLog = this.commandExecutor.getAuditLog();
+		if(auditLog != null)
+			auditLog.stop();
+
+		CommandWatchdog watchdog = this.commandExecutor.getWatchdog();
+		if(watchdog != null)
+			watchdog.stop();
+
 		getLogger().info(this.getClass().getSimpleName()+" has been disabled");
 	}
 
@@ -77,6 +114,16 @@ public class MandatumLib
 		return getInstance().commandExecutor;
 	}
 
+	public static MandatumTabCompleter getTabCompleter()
+	{
+		return getInstance().tabCompleter;
+	}
+
+	public static OnlinePlayerIndex getPlayerIndex()
+	{
+		return getInstance().playerIndex;
+	}
+
 
 	// REGISTERING
 	@API public static void registerCommands(String classPath)
@@ -85,4 +132,142 @@ public class MandatumLib
 		getInstance().commandExecutor.addCommandClasses(registerer.getCommandClasses());
 	}
 
+	/**
+	 * Registers the commands of several packages at once. The packages are scanned and the commands are resolved in
+	 * parallel, only binding them to the commands of the plugin is done on the main thread.
+	 *
+	 * @param classPaths the packages containing the commands
+	 * @return the report containing the timings of the registration and the commands missing in the plugin.yml or as
+	 * classes
+	 * @see ParallelCommandRegisterer
+	 */
+	@API public static RegistrationReport registerCommandPackages(Collection<String> classPaths)
+	{
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		return new ParallelCommandRegisterer(getInstance().commandExecutor, classPaths, parallelism).register();
+	}
+
+	/**
+	 * Registers a single command class. The command has to be listed in the plugin.yml like the commands registered
+	 * using {@link #registerCommands(String)}.
+	 *
+	 * @param commandClazz the class of the command
+	 */
+	@API public static void registerCommand(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		MandatumCommandRegisterer registerer = new MandatumCommandRegisterer(commandClazz);
+		getInstance().commandExecutor.addCommandClasses(registerer.getCommandClasses());
+	}
+
+	/**
+	 * Registers the built-in {@link MandatumMetricsCommand}. The plugin has to list the command
+	 * {@value MandatumMetricsCommand#NAME} in its plugin.yml.
+	 */
+	@API public static void registerMetricsCommand()
+	{
+		registerCommand(MandatumMetricsCommand.class);
+	}
+
+	/**
+	 * Registers the command made up of the {@link de.domisum.lib.mandatum.cmd.method.CommandMethod}s of the object. The
+	 * command has to be listed in the plugin.yml like the commands registered using {@link #registerCommands(String)}.
+	 *
+	 * @param target the object of a class annotated with {@link de.domisum.lib.mandatum.cmd.method.MethodCommand}
+	 * @throws IllegalArgumentException if the class isn't a valid method command
+	 */
+	@API public static void registerMethodCommand(Object target)
+	{
+		AnnotatedCommand command = AnnotatedCommand.of(target);
+
+		PluginCommand pluginCommand = getInstance().plugin.getCommand(command.getName());
+		if(pluginCommand == null)
+		{
+			getLogger().severe("The command '"+command.getName()+"' is represented by a class but not listed in the plugin.yml");
+			return;
+		}
+
+		getInstance().commandExecutor.registerCommand(command);
+		pluginCommand.setExecutor(getInstance().commandExecutor);
+		pluginCommand.setTabCompleter(getInstance().tabCompleter);
+		getLogger().info("The command '"+command.getName()+"' has been registered");
+	}
+
+	/**
+	 * Replaces the command registered under the name, for example after the module providing it has been reloaded. The
+	 * command stays bound to its plugin command, so this can be called from any thread.
+	 *
+	 * @param commandName  the name of the command
+	 * @param commandClazz the class of the new command
+	 * @see MandatumCommandExecutor#replaceCommand(String, Class)
+	 */
+	@API public static void replaceCommand(String commandName, Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		getInstance().commandExecutor.replaceCommand(commandName, commandClazz);
+	}
+
+	/**
+	 * Unregisters the command with the name, for example when the module providing it is unloaded.
+	 *
+	 * @param commandName the name of the command
+	 * @see MandatumCommandExecutor#unregisterCommand(String)
+	 */
+	@API public static void unregisterCommand(String commandName)
+	{
+		getInstance().commandExecutor.unregisterCommand(commandName);
+	}
+
+
+	// SETTINGS
+
+	/**
+	 * Caches the permission decisions of the players for the permission nodes of the commands. Plugins changing the
+	 * permissions of online players have to invalidate the cache afterwards.
+	 *
+	 * @see de.domisum.lib.mandatum.permission.PermissionCache
+	 */
+	@API public static void enablePermissionCache()
+	{
+		getInstance().commandExecutor.getPermissionCache().setEnabled(true);
+	}
+
+	/**
+	 * Starts recording the commands selected for auditing. The commands are selected on the returned log, for example
+	 * using {@link AuditLog#audit(String)}.
+	 *
+	 * @param settings the settings of the log
+	 * @return the started audit log
+	 * @throws IOException if the log file can't be created
+	 */
+	@API public static AuditLog enableAuditLog(AuditSettings settings) throws IOException
+	{
+		AuditLog auditLog = new AuditLog(settings);
+		auditLog.start();
+
+		AuditLog previous = getInstance().commandExecutor.getAuditLog();
+		getInstance().commandExecutor.setAuditLog(auditLog);
+		if(previous != null)
+			previous.stop();
+
+		return auditLog;
+	}
+
+	/**
+	 * Starts watching the synchronous executions of the commands, reporting the ones stalling the server.
+	 *
+	 * @param settings the settings of the watchdog
+	 * @return the started watchdog
+	 */
+	@API public static CommandWatchdog enableWatchdog(WatchdogSettings settings)
+	{
+		CommandWatchdog watchdog = new CommandWatchdog(settings);
+		watchdog.start();
+
+		CommandWatchdog previous = getInstance().commandExecutor.getWatchdog();
+		getInstance().commandExecutor.setWatchdog(watchdog);
+		if(previous != null)
+			previous.stop();
+
+		return watchdog;
+	}
+
 }
@@ -0,0 +1,354 @@
+package de.domisum.lib.mandatum.audit;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the dispatched commands selected for auditing into append-only log files.
+ * <p>
+ * The dispatching thread only creates an {@link AuditRecord} and puts it into an {@link AuditRingBuffer}, which
+ * doesn't lock and never waits. A background thread drains the buffer, formats the records as lines and writes them in
+ * batches, so no file I/O happens on the main thread even when many commands are run at once. If the writer can't keep
+ * up, records are dropped and counted instead of blocking the dispatching thread.
+ * <p>
+ * The current log file is {@value #FILE_NAME}. Once it exceeds the maximum size, it is renamed with the current time
+ * appended and a new file is started.
+ */
+public class AuditLog
+{
+
+	// CONSTANTS
+	private static final String FILE_NAME = "commands.log";
+	private static final String ROTATED_FILE_PREFIX = "commands-";
+	private static final String ROTATED_FILE_SUFFIX = ".log";
+	private static final DateTimeFormatter ROTATION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+	private static final int WRITE_BATCH_SIZE = 64*1024;
+
+	// SETTINGS
+	private final AuditSettings settings;
+	private final Set<String> auditedCommandPaths = ConcurrentHashMap.newKeySet();
+	private volatile boolean auditingAll = false;
+
+	// REFERENCES
+	private final AuditRingBuffer buffer;
+	private Thread writerThread;
+	private FileChannel channel;
+
+	// STATUS
+	private volatile boolean running;
+	private long currentFileSize;
+	private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+
+
+	// CONSTRUCTOR
+	@API public AuditLog(AuditSettings settings)
+	{
+		this.settings = settings;
+		this.buffer = new AuditRingBuffer(settings.getCapacity());
+	}
+
+
+	// SETTINGS
+
+	/**
+	 * Selects the command with the path and all of its subcommands for auditing.
+	 *
+	 * @param commandPath the names of the command and its supercommands, separated by spaces
+	 */
+	@API public void audit(String commandPath)
+	{
+		this.auditedCommandPaths.add(commandPath.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Selects all commands for auditing.
+	 */
+	@API public void auditAll()
+	{
+		this.auditingAll = true;
+	}
+
+	/**
+	 * @param registeredCommand the command
+	 * @return if the command or one of its supercommands has been selected for auditing
+	 */
+	public boolean isAudited(RegisteredCommand registeredCommand)
+	{
+		if(this.auditingAll)
+			return true;
+
+		for(RegisteredCommand command = registeredCommand; command != null; command = command.getParent())
+			if(this.auditedCommandPaths.contains(command.getCommandPath()))
+				return true;
+
+		return false;
+	}
+
+
+	// GETTERS
+
+	/**
+	 * @return the number of records dropped because the buffer was full or writing them failed
+	 */
+	@API public long getDropped()
+	{
+		return this.dropped.get();
+	}
+
+	/**
+	 * @return the number of records written to the log files
+	 */
+	@API public long getWritten()
+	{
+		return this.written.get();
+	}
+
+
+	// RECORDING
+
+	/**
+	 * Adds the record to the buffer without blocking. Can be called from any thread.
+	 *
+	 * @param record the record
+	 */
+	public void record(AuditRecord record)
+	{
+		if(!this.running || !this.buffer.offer(record))
+		{
+			this.dropped.incrementAndGet();
+			return;
+		}
+
+		// the writer sleeps between flushes, so it is woken up early when many records arrive at once. The size can skip
+		// past any exact value when records are added concurrently, and only one thread has to wake the writer up.
+		if(this.buffer.size() >= this.buffer.getCapacity()/2 && this.wakeUpPending.compareAndSet(false, true))
+			LockSupport.unpark(this.writerThread);
+	}
+
+
+	// LIFECYCLE
+
+	/**
+	 * Opens the log file and starts the writer thread.
+	 *
+	 * @throws IOException if the directory or the log file can't be created
+	 */
+	@API public synchronized void start() throws IOException
+	{
+		if(this.running)
+			throw new IllegalStateException("The audit log has already been started");
+
+		Files.createDirectories(this.settings.getDirectory());
+		openFile();
+
+		this.running = true;
+		this.writerThread = new Thread(this::writeLoop, "MandatumLib audit writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	/**
+	 * Stops the writer thread after writing the remaining records and closes the log file.
+	 */
+	@API public synchronized void stop()
+	{
+		if(!this.running)
+			return;
+
+		this.running = false;
+		LockSupport.unpark(this.writerThread);
+		try
+		{
+			this.writerThread.join(TimeUnit.SECONDS.toMillis(5));
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	// WRITER
+	private void writeLoop()
+	{
+		StringBuilder lines = new StringBuilder(WRITE_BATCH_SIZE);
+		while(true)
+		{
+			// read the flag before draining, so records added before stopping are still written
+			boolean stopping = !this.running;
+
+			// reset before draining, so records added while draining can wake the writer up again
+			this.wakeUpPending.set(false);
+
+			int drained = 0;
+			AuditRecord record;
+			while((record = this.buffer.poll()) != null)
+			{
+				record.appendLine(lines);
+				drained++;
+
+				if(lines.length() >= WRITE_BATCH_SIZE)
+				{
+					write(lines, drained);
+					drained = 0;
+				}
+			}
+			if(drained > 0)
+				write(lines, drained);
+
+			if(stopping)
+				break;
+			if(drained == 0)
+				LockSupport.parkNanos(this, this.settings.getFlushIntervalNanos());
+		}
+
+		closeFile();
+	}
+
+	private void write(StringBuilder lines, int numberOfRecords)
+	{
+		ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+		lines.setLength(0);
+
+		try
+		{
+			// the file can still be closed if reopening it after a rotation failed
+			if(!this.channel.isOpen())
+				openFile();
+			if(this.currentFileSize > 0 && this.currentFileSize+bytes.remaining() > this.settings.getMaxFileSize())
+				rotate();
+
+			while(bytes.hasRemaining())
+				this.currentFileSize += this.channel.write(bytes);
+			if(this.settings.isSyncOnFlush())
+				this.channel.force(false);
+
+			this.written.addAndGet(numberOfRecords);
+		}
+		catch(IOException e)
+		{
+			this.dropped.addAndGet(numberOfRecords);
+			getLogger().log(Level.SEVERE, "Failed to write "+numberOfRecords+" records to the audit log", e);
+		}
+	}
+
+
+	// FILES
+	private void openFile() throws IOException
+	{
+		Path file = this.settings.getDirectory().resolve(FILE_NAME);
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.currentFileSize = this.channel.size();
+	}
+
+	private void closeFile()
+	{
+		if(!this.channel.isOpen())
+			return;
+
+		try
+		{
+			this.channel.close();
+		}
+		catch(IOException e)
+		{
+			getLogger().log(Level.WARNING, "Failed to close the audit log", e);
+		}
+	}
+
+	private void rotate() throws IOException
+	{
+		this.channel.close();
+
+		Path directory = this.settings.getDirectory();
+		try
+		{
+			Files.move(directory.resolve(FILE_NAME), getRotatedFile(directory));
+		}
+		catch(IOException e)
+		{
+			// the records are appended to the current file instead, it is rotated again with the next write
+			getLogger().log(Level.WARNING, "Failed to rotate the audit log", e);
+		}
+		finally
+		{
+			// the log is reopened in any case, otherwise all following records would be dropped
+			openFile();
+		}
+
+		try
+		{
+			deleteOldFiles();
+		}
+		catch(IOException e)
+		{
+			getLogger().log(Level.WARNING, "Failed to delete old audit log files", e);
+		}
+	}
+
+	private static Path getRotatedFile(Path directory)
+	{
+		// several rotations can happen in the same millisecond, so the later ones get a sequence number appended
+		String name = ROTATED_FILE_PREFIX+LocalDateTime.now().format(ROTATION_FORMAT);
+		Path rotatedFile = directory.resolve(name+ROTATED_FILE_SUFFIX);
+		for(int sequence = 1; Files.exists(rotatedFile); sequence++)
+			rotatedFile = directory.resolve(name+"-"+sequence+ROTATED_FILE_SUFFIX);
+
+		return rotatedFile;
+	}
+
+	private void deleteOldFiles() throws IOException
+	{
+		if(this.settings.getMaxRotatedFiles() < 0)
+			return;
+
+		List<Path> rotatedFiles = new ArrayList<>();
+		try(DirectoryStream<Path> files = Files
+				.newDirectoryStream(this.settings.getDirectory(), ROTATED_FILE_PREFIX+"*"+ROTATED_FILE_SUFFIX))
+		{
+			files.forEach(rotatedFiles::add);
+		}
+
+		// the names contain the time of the rotation, so they sort from the oldest to the newest
+		Collections.sort(rotatedFiles);
+		for(int i = 0; i < rotatedFiles.size()-this.settings.getMaxRotatedFiles(); i++)
+			Files.deleteIfExists(rotatedFiles.get(i));
+	}
+
+
+	// UTIL
+	private static Logger getLogger()
+	{
+		if(MandatumLib.getInstance() == null)
+			return Logger.getLogger(AuditLog.class.getName());
+
+		return MandatumLib.getLogger();
+	}
+
+}
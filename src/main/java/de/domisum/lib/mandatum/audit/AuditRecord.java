@@ -0,0 +1,150 @@
+package de.domisum.lib.mandatum.audit;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One dispatched command as recorded in the {@link AuditLog}.
+ * <p>
+ * Records are created on the dispatching thread, so they only hold the raw values. Formatting them into log lines is
+ * done by the writer thread.
+ */
+public class AuditRecord
+{
+
+	// PROPERTIES
+	private final long timestampMillis;
+	private final String senderName;
+	private final UUID senderId;
+	private final String commandPath;
+	private final String argumentSequenceName;
+	private final String[] args;
+	private final CommandOutcome outcome;
+	private final long durationNanos;
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param timestampMillis      the time the command has been dispatched
+	 * @param senderName           the name of the sender
+	 * @param senderId             the uuid of the sender, null for the console
+	 * @param commandPath          the names of the command and its supercommands, separated by spaces
+	 * @param argumentSequenceName the name of the ArgumentSequence fitting the arguments, null if none fit
+	 * @param args                 the arguments following the command path
+	 * @param outcome              the outcome of the command
+	 * @param durationNanos        the time it took to dispatch the command, including its execution unless it is async
+	 */
+	public AuditRecord(long timestampMillis, String senderName, UUID senderId, String commandPath,
+			String argumentSequenceName, String[] args, CommandOutcome outcome, long durationNanos)
+	{
+		this.timestampMillis = timestampMillis;
+		this.senderName = senderName;
+		this.senderId = senderId;
+		this.commandPath = commandPath;
+		this.argumentSequenceName = argumentSequenceName;
+		this.args = args;
+		this.outcome = outcome;
+		this.durationNanos = durationNanos;
+	}
+
+
+	// GETTERS
+	@API public long getTimestampMillis()
+	{
+		return this.timestampMillis;
+	}
+
+	@API public String getSenderName()
+	{
+		return this.senderName;
+	}
+
+	@API public UUID getSenderId()
+	{
+		return this.senderId;
+	}
+
+	@API public String getCommandPath()
+	{
+		return this.commandPath;
+	}
+
+	@API public String getArgumentSequenceName()
+	{
+		return this.argumentSequenceName;
+	}
+
+	@API public String[] getArgs()
+	{
+		return this.args.clone();
+	}
+
+	@API public CommandOutcome getOutcome()
+	{
+		return this.outcome;
+	}
+
+	@API public long getDurationNanos()
+	{
+		return this.durationNanos;
+	}
+
+
+	// FORMAT
+
+	/**
+	 * Appends the record as one line of tab separated fields: the time, the sender name, the sender uuid, the command
+	 * with its arguments, the ArgumentSequence, the outcome and the duration in microseconds. Missing values are written
+	 * as {@code -}, tabs, line breaks and backslashes in the values are escaped.
+	 *
+	 * @param line the builder to append the line to, including the line break
+	 */
+	public void appendLine(StringBuilder line)
+	{
+		line.append(Instant.ofEpochMilli(this.timestampMillis)).append('\t');
+		appendEscaped(line, this.senderName);
+		line.append('\t').append(this.senderId == null ? "-" : this.senderId.toString()).append('\t');
+
+		line.append('/');
+		appendEscaped(line, this.commandPath);
+		for(String arg : this.args)
+		{
+			line.append(' ');
+			appendEscaped(line, arg);
+		}
+
+		line.append('\t');
+		appendEscaped(line, this.argumentSequenceName);
+		line.append('\t').append(this.outcome.name());
+		line.append('\t').append(this.durationNanos/1000).append('\n');
+	}
+
+	private static void appendEscaped(StringBuilder line, String value)
+	{
+		if(value == null)
+		{
+			line.append('-');
+			return;
+		}
+
+		for(int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			if(c == '\t')
+				line.append("\\t");
+			else if(c == '\n')
+				line.append("\\n");
+			else if(c == '\r')
+				line.append("\\r");
+			else if(c == '\\')
+				line.append("\\\\");
+			else
+				line.append(c);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package de.domisum.lib.mandatum.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue of {@link AuditRecord}s for any number of producers and a single consumer, without locks.
+ * <p>
+ * Every slot has a sequence number telling whose turn it is: a producer claims the next position by increasing the tail
+ * with a compare-and-set, writes its record and then publishes it by advancing the sequence of the slot. The consumer
+ * only reads slots whose sequence shows a published record and hands the slot back to the producers of the next lap.
+ * Offering to a full buffer fails immediately instead of waiting for the consumer.
+ */
+class AuditRingBuffer
+{
+
+	// PROPERTIES
+	private final int capacity;
+	private final int mask;
+
+	// STATUS
+	private final AtomicReferenceArray<AuditRecord> records;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+
+	// only written by the consumer, volatile so producers can estimate the size
+	private volatile long head;
+
+
+	// CONSTRUCTOR
+	AuditRingBuffer(int minCapacity)
+	{
+		this.capacity = Integer.highestOneBit(minCapacity) == minCapacity ? minCapacity : Integer.highestOneBit(minCapacity)<<1;
+		this.mask = this.capacity-1;
+
+		this.records = new AtomicReferenceArray<>(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+		for(int i = 0; i < this.capacity; i++)
+			this.sequences.set(i, i);
+	}
+
+
+	// GETTERS
+	int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * @return the number of records waiting, which can already be outdated when it is returned
+	 */
+	int size()
+	{
+		return (int) Math.max(0, Math.min(this.capacity, this.tail.get()-this.head));
+	}
+
+
+	// PRODUCER
+
+	/**
+	 * @param record the record
+	 * @return if the record has been added, false if the buffer is full
+	 */
+	boolean offer(AuditRecord record)
+	{
+		while(true)
+		{
+			long position = this.tail.get();
+			int index = (int) position&this.mask;
+			long sequence = this.sequences.get(index);
+
+			if(sequence == position)
+			{
+				if(this.tail.compareAndSet(position, position+1))
+				{
+					// the record has to be written before the sequence publishes it to the consumer
+					this.records.lazySet(index, record);
+					this.sequences.lazySet(index, position+1);
+					return true;
+				}
+			}
+			else if(sequence < position)
+				return false;
+
+			// another producer claimed the position first, so try the next one
+		}
+	}
+
+
+	// CONSUMER
+
+	/**
+	 * Removes the oldest record. Must only be called by the consumer thread.
+	 *
+	 * @return the record, null if no record has been published yet
+	 */
+	AuditRecord poll()
+	{
+		long position = this.head;
+		int index = (int) position&this.mask;
+		if(this.sequences.get(index) != position+1)
+			return null;
+
+		AuditRecord record = this.records.get(index);
+		this.records.lazySet(index, null);
+
+		// hand the slot over to the producers of the next lap
+		this.sequences.lazySet(index, position+this.capacity);
+		this.head = position+1;
+		return record;
+	}
+
+}
@@ -0,0 +1,140 @@
+package de.domisum.lib.mandatum.audit;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of an {@link AuditLog}.
+ */
+public class AuditSettings
+{
+
+	// PROPERTIES
+	private final Path directory;
+	private int capacity = 8192;
+	private long maxFileSize = 16*1024*1024;
+	private int maxRotatedFiles = 10;
+	private long flushIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+	private boolean syncOnFlush = false;
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param directory the directory the log files are written to, it is created if it doesn't exist
+	 */
+	@API public AuditSettings(Path directory)
+	{
+		this.directory = directory;
+	}
+
+
+	// SETTINGS
+
+	/**
+	 * Sets how many records can wait to be written. Records arriving while the buffer is full are dropped and counted,
+	 * so a stalled disk never blocks the main thread.
+	 *
+	 * @param capacity the number of records, rounded up to the next power of two
+	 * @return this AuditSettings
+	 */
+	@API public AuditSettings capacity(int capacity)
+	{
+		if(capacity <= 0 || capacity > 1<<30)
+			throw new IllegalArgumentException("The capacity has to be between 1 and 2^30, not "+capacity);
+
+		this.capacity = capacity;
+		return this;
+	}
+
+	/**
+	 * Sets the size at which the current log file is rotated.
+	 *
+	 * @param maxFileSize the size in bytes
+	 * @return this AuditSettings
+	 */
+	@API public AuditSettings maxFileSize(long maxFileSize)
+	{
+		if(maxFileSize <= 0)
+			throw new IllegalArgumentException("The maximum file size has to be positive, not "+maxFileSize);
+
+		this.maxFileSize = maxFileSize;
+		return this;
+	}
+
+	/**
+	 * Sets how many rotated files are kept, older ones are deleted. Values below 0 keep all files.
+	 *
+	 * @param maxRotatedFiles the number of rotated files
+	 * @return this AuditSettings
+	 */
+	@API public AuditSettings maxRotatedFiles(int maxRotatedFiles)
+	{
+		this.maxRotatedFiles = maxRotatedFiles;
+		return this;
+	}
+
+	/**
+	 * Sets how long the writer waits for new records once the buffer is empty. The writer is woken up earlier once the
+	 * buffer is half full.
+	 *
+	 * @param flushInterval the interval
+	 * @param unit          the unit of the interval
+	 * @return this AuditSettings
+	 */
+	@API public AuditSettings flushInterval(long flushInterval, TimeUnit unit)
+	{
+		if(flushInterval <= 0)
+			throw new IllegalArgumentException("The flush interval has to be positive, not "+flushInterval);
+
+		this.flushIntervalNanos = unit.toNanos(flushInterval);
+		return this;
+	}
+
+	/**
+	 * Sets if the written records are forced to the disk after every write, so they survive a crash of the machine.
+	 *
+	 * @param syncOnFlush if the log file is synced after writing
+	 * @return this AuditSettings
+	 */
+	@API public AuditSettings syncOnFlush(boolean syncOnFlush)
+	{
+		this.syncOnFlush = syncOnFlush;
+		return this;
+	}
+
+
+	// GETTERS
+	public Path getDirectory()
+	{
+		return this.directory;
+	}
+
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	public long getMaxFileSize()
+	{
+		return this.maxFileSize;
+	}
+
+	public int getMaxRotatedFiles()
+	{
+		return this.maxRotatedFiles;
+	}
+
+	public long getFlushIntervalNanos()
+	{
+		return this.flushIntervalNanos;
+	}
+
+	public boolean isSyncOnFlush()
+	{
+		return this.syncOnFlush;
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.domisum.lib.mandatum.batch;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+
+import java.util.List;
+
+/**
+ * A line of a batch that couldn't be executed successfully.
+ */
+public class BatchFailure
+{
+
+	// PROPERTIES
+	private final int lineNumber;
+	private final String line;
+	private final CommandOutcome outcome;
+	private final String reason;
+	private final List<String> messages;
+
+
+	// CONSTRUCTOR
+	BatchFailure(int lineNumber, String line, CommandOutcome outcome, String reason, List<String> messages)
+	{
+		this.lineNumber = lineNumber;
+		this.line = line;
+		this.outcome = outcome;
+		this.reason = reason;
+		this.messages = messages;
+	}
+
+
+	// GETTERS
+
+	/**
+	 * @return the number of the line, starting at 1
+	 */
+	@API public int getLineNumber()
+	{
+		return this.lineNumber;
+	}
+
+	@API public String getLine()
+	{
+		return this.line;
+	}
+
+	/**
+	 * @return the outcome of the command, null if the line didn't reach a MandatumLib command
+	 */
+	@API public CommandOutcome getOutcome()
+	{
+		return this.outcome;
+	}
+
+	@API public String getReason()
+	{
+		return this.reason;
+	}
+
+	/**
+	 * @return the first messages sent to the console by the command
+	 */
+	@API public List<String> getMessages()
+	{
+		return this.messages;
+	}
+
+
+	// OBJECT
+	@Override public String toString()
+	{
+		return "line "+this.lineNumber+" '"+this.line+"': "+this.reason+(this.messages.isEmpty() ? "" : " "+this.messages);
+	}
+
+}
@@ -0,0 +1,133 @@
+package de.domisum.lib.mandatum.batch;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+
+import java.util.List;
+
+/**
+ * The aggregated result of running a batch of commands.
+ */
+public class BatchReport
+{
+
+	// PROPERTIES
+	private final int lines;
+	private final long[] outcomeCounts;
+	private final int dispatchedToBukkit;
+	private final int unknownCommands;
+	private final int exceptions;
+	private final int numberOfFailures;
+	private final List<BatchFailure> failures;
+
+	private final int ticks;
+	private final long durationNanos;
+
+
+	// CONSTRUCTOR
+	BatchReport(int lines, long[] outcomeCounts, int dispatchedToBukkit, int unknownCommands, int exceptions,
+			int numberOfFailures, List<BatchFailure> failures, int ticks, long durationNanos)
+	{
+		this.lines = lines;
+		this.outcomeCounts = outcomeCounts;
+		this.dispatchedToBukkit = dispatchedToBukkit;
+		this.unknownCommands = unknownCommands;
+		this.exceptions = exceptions;
+		this.numberOfFailures = numberOfFailures;
+		this.failures = failures;
+		this.ticks = ticks;
+		this.durationNanos = durationNanos;
+	}
+
+
+	// GETTERS
+
+	/**
+	 * @return the number of lines containing a command, without empty lines and comments
+	 */
+	@API public int getLines()
+	{
+		return this.lines;
+	}
+
+	@API public long getOutcomeCount(CommandOutcome outcome)
+	{
+		return this.outcomeCounts[outcome.ordinal()];
+	}
+
+	@API public long getExecuted()
+	{
+		return getOutcomeCount(CommandOutcome.EXECUTED);
+	}
+
+	@API public long getUsageErrors()
+	{
+		return getOutcomeCount(CommandOutcome.USAGE_ERROR);
+	}
+
+	@API public long getValidationErrors()
+	{
+		return getOutcomeCount(CommandOutcome.VALIDATION_ERROR);
+	}
+
+	/**
+	 * @return the number of lines of commands not registered with MandatumLib that were passed to Bukkit
+	 */
+	@API public int getDispatchedToBukkit()
+	{
+		return this.dispatchedToBukkit;
+	}
+
+	@API public int getUnknownCommands()
+	{
+		return this.unknownCommands;
+	}
+
+	/**
+	 * @return the number of lines whose command threw an exception
+	 */
+	@API public int getExceptions()
+	{
+		return this.exceptions;
+	}
+
+	/**
+	 * @return the number of lines that failed, including those that aren't recorded in {@link #getFailures()}
+	 */
+	@API public int getNumberOfFailures()
+	{
+		return this.numberOfFailures;
+	}
+
+	@API public List<BatchFailure> getFailures()
+	{
+		return this.failures;
+	}
+
+	@API public boolean isSuccessful()
+	{
+		return this.numberOfFailures == 0;
+	}
+
+	/**
+	 * @return the number of ticks the batch has been spread over
+	 */
+	@API public int getTicks()
+	{
+		return this.ticks;
+	}
+
+	@API public long getDurationNanos()
+	{
+		return this.durationNanos;
+	}
+
+
+	// OBJECT
+	@Override public String toString()
+	{
+		return "BatchReport{"+this.lines+" lines, "+getExecuted()+" executed, "+this.dispatchedToBukkit
+				+" dispatched to Bukkit, "+this.numberOfFailures+" failed, "+this.ticks+" ticks}";
+	}
+
+}
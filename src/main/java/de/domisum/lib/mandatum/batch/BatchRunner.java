@@ -0,0 +1,244 @@
+package de.domisum.lib.mandatum.batch;
+
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+import de.domisum.lib.mandatum.util.ArgumentList;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the lines of a batch on the main thread, spread over as many ticks as needed to stay within the time budget
+ * per tick.
+ * <p>
+ * The commands are looked up once per distinct command name. Messages sent to the console while a line is
+ * executed are collected instead of being logged, and kept in the report if the line fails.
+ */
+public class BatchRunner implements Runnable
+{
+
+	// CONSTANTS
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	// REFERENCES
+	private final MandatumCommandExecutor executor;
+	private final Iterator<String> lines;
+	private final CommandSender sender;
+	private final BatchSettings settings;
+	private final AutoCloseable source;
+
+	private final CompletableFuture<BatchReport> result = new CompletableFuture<>();
+	private BukkitTask task;
+
+	// STATUS
+	private final Map<String, RegisteredCommand> commands = new HashMap<>();
+	private final List<String> lineMessages = new ArrayList<>();
+
+	private long startNanos;
+	private int ticks;
+	private int lineNumber;
+	private int commandLines;
+	private final long[] outcomeCounts = new long[CommandOutcome.values().length];
+	private int dispatchedToBukkit;
+	private int unknownCommands;
+	private int exceptions;
+	private int numberOfFailures;
+	private final List<BatchFailure> failures = new ArrayList<>();
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param executor the executor running the commands
+	 * @param lines    the command lines, which are read on the main thread
+	 * @param sender   the sender the commands are run as
+	 * @param settings the settings of the batch
+	 * @param source   closed once the batch is done, null if there is nothing to close
+	 */
+	public BatchRunner(MandatumCommandExecutor executor, Iterator<String> lines, CommandSender sender,
+			BatchSettings settings, AutoCloseable source)
+	{
+		this.executor = executor;
+		this.lines = lines;
+		this.sender = sender;
+		this.settings = settings;
+		this.source = source;
+	}
+
+
+	// EXECUTION
+
+	/**
+	 * Schedules the batch to run every tick, starting with the next one.
+	 *
+	 * @param plugin the plugin scheduling the task
+	 * @return the future completed with the report once all lines have been run
+	 */
+	public CompletableFuture<BatchReport> start(Plugin plugin)
+	{
+		this.startNanos = System.nanoTime();
+		this.task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+
+		return this.result;
+	}
+
+	@Override public void run()
+	{
+		if(this.result.isDone())
+			return;
+
+		this.ticks++;
+		long tickStartNanos = System.nanoTime();
+
+		MandatumCommandExecutor.setConsoleMessageSink(this::collectMessage);
+		try
+		{
+			while(System.nanoTime()-tickStartNanos < this.settings.getTimeBudgetNanos())
+			{
+				if(!this.lines.hasNext())
+				{
+					finish();
+					return;
+				}
+
+				runLine(this.lines.next());
+			}
+		}
+		catch(RuntimeException e)
+		{
+			// reading the lines failed, the commands themselves are handled per line
+			MandatumLib.getLogger().log(Level.SEVERE, "Reading the lines of a command batch failed", e);
+			stop();
+			this.result.completeExceptionally(e);
+		}
+		finally
+		{
+			MandatumCommandExecutor.setConsoleMessageSink(null);
+		}
+	}
+
+	private void runLine(String rawLine)
+	{
+		this.lineNumber++;
+
+		// empty lines and comments are skipped, so batches can be written by hand
+		String line = rawLine.trim();
+		if(line.isEmpty() || line.startsWith("#"))
+			return;
+		if(line.startsWith("/"))
+			line = line.substring(1);
+
+		this.commandLines++;
+		this.lineMessages.clear();
+
+		String[] parts = WHITESPACE.split(line);
+		String commandName = parts[0].toLowerCase(Locale.ROOT);
+		RegisteredCommand command = getCommand(commandName);
+		try
+		{
+			if(command == null)
+				runUnknownCommand(line);
+			else
+				runCommand(line, command, ArgumentList.of(parts).slice(1));
+		}
+		catch(RuntimeException e)
+		{
+			this.exceptions++;
+			addFailure(line, null, "The command threw "+e);
+		}
+	}
+
+	private void runCommand(String line, RegisteredCommand command, ArgumentList args)
+	{
+		CommandOutcome outcome = this.executor.runCommand(command, this.sender, args);
+		this.outcomeCounts[outcome.ordinal()]++;
+
+		if(outcome.isFailure())
+			addFailure(line, outcome, "The command failed with the outcome "+outcome);
+	}
+
+	private void runUnknownCommand(String line)
+	{
+		if(this.settings.isDispatchUnknownCommands() && Bukkit.dispatchCommand(this.sender, line))
+		{
+			this.dispatchedToBukkit++;
+			return;
+		}
+
+		this.unknownCommands++;
+		addFailure(line, null, "The command is unknown");
+	}
+
+	private RegisteredCommand getCommand(String commandName)
+	{
+		// the whole batch uses the command that was registered when its name first appeared,
+		// even if the command is replaced while the batch is running
+		if(this.commands.containsKey(commandName))
+			return this.commands.get(commandName);
+
+		RegisteredCommand command = this.executor.getRegisteredCommand(commandName);
+		this.commands.put(commandName, command);
+		return command;
+	}
+
+
+	// REPORT
+	private void collectMessage(String message)
+	{
+		if(this.lineMessages.size() < this.settings.getMaxMessagesPerLine())
+			this.lineMessages.add(message);
+	}
+
+	private void addFailure(String line, CommandOutcome outcome, String reason)
+	{
+		this.numberOfFailures++;
+		if(this.failures.size() >= this.settings.getMaxRecordedFailures())
+			return;
+
+		List<String> messages = this.lineMessages.isEmpty() ?
+				Collections.emptyList() :
+				Collections.unmodifiableList(new ArrayList<>(this.lineMessages));
+		this.failures.add(new BatchFailure(this.lineNumber, line, outcome, reason, messages));
+	}
+
+	private void finish()
+	{
+		stop();
+
+		BatchReport report = new BatchReport(this.commandLines, this.outcomeCounts.clone(), this.dispatchedToBukkit,
+				this.unknownCommands, this.exceptions, this.numberOfFailures, Collections.unmodifiableList(this.failures),
+				this.ticks, System.nanoTime()-this.startNanos);
+		this.result.complete(report);
+	}
+
+	private void stop()
+	{
+		if(this.task != null)
+			this.task.cancel();
+
+		if(this.source != null)
+			try
+			{
+				this.source.close();
+			}
+			catch(Exception e)
+			{
+				MandatumLib.getLogger().log(Level.WARNING, "Closing the source of a command batch failed", e);
+			}
+	}
+
+}
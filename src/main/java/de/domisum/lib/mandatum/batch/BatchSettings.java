@@ -0,0 +1,108 @@
+package de.domisum.lib.mandatum.batch;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of a batch of commands run by
+ * {@link de.domisum.lib.mandatum.exe.MandatumCommandExecutor#runBatch(java.util.Iterator, org.bukkit.command.CommandSender,
+ * BatchSettings)}.
+ */
+public class BatchSettings
+{
+
+	// PROPERTIES
+	private long timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(10);
+	private int maxRecordedFailures = 100;
+	private int maxMessagesPerLine = 5;
+	private boolean dispatchUnknownCommands = true;
+
+
+	// CONSTRUCTOR
+	@API public BatchSettings()
+	{
+
+	}
+
+
+	// SETTINGS
+
+	/**
+	 * Sets the time the batch may use per tick. Once it has been used up, the batch continues in the next tick. A line
+	 * that has been started is always finished, so a single slow command can exceed the budget.
+	 *
+	 * @param timeBudget the time per tick
+	 * @param unit       the unit of the time
+	 * @return this BatchSettings
+	 */
+	@API public BatchSettings timeBudget(long timeBudget, TimeUnit unit)
+	{
+		if(timeBudget <= 0)
+			throw new IllegalArgumentException("The time budget has to be positive, not "+timeBudget);
+
+		this.timeBudgetNanos = unit.toNanos(timeBudget);
+		return this;
+	}
+
+	/**
+	 * Sets how many failed lines are included in the report. Failures beyond this number are still counted.
+	 *
+	 * @param maxRecordedFailures the maximum number of failures in the report
+	 * @return this BatchSettings
+	 */
+	@API public BatchSettings maxRecordedFailures(int maxRecordedFailures)
+	{
+		this.maxRecordedFailures = maxRecordedFailures;
+		return this;
+	}
+
+	/**
+	 * Sets how many of the messages sent to the console by a failed line are kept in the report. Messages sent to the
+	 * console while running the batch are never written to the log, so large batches don't flood it.
+	 *
+	 * @param maxMessagesPerLine the maximum number of messages per failed line
+	 * @return this BatchSettings
+	 */
+	@API public BatchSettings maxMessagesPerLine(int maxMessagesPerLine)
+	{
+		this.maxMessagesPerLine = maxMessagesPerLine;
+		return this;
+	}
+
+	/**
+	 * Sets if lines of commands not registered with MandatumLib are passed to {@code Bukkit.dispatchCommand}, so batches
+	 * can contain commands of other plugins. If not, these lines fail.
+	 *
+	 * @param dispatchUnknownCommands if unknown commands are dispatched through Bukkit
+	 * @return this BatchSettings
+	 */
+	@API public BatchSettings dispatchUnknownCommands(boolean dispatchUnknownCommands)
+	{
+		this.dispatchUnknownCommands = dispatchUnknownCommands;
+		return this;
+	}
+
+
+	// GETTERS
+	public long getTimeBudgetNanos()
+	{
+		return this.timeBudgetNanos;
+	}
+
+	public int getMaxRecordedFailures()
+	{
+		return this.maxRecordedFailures;
+	}
+
+	public int getMaxMessagesPerLine()
+	{
+		return this.maxMessagesPerLine;
+	}
+
+	public boolean isDispatchUnknownCommands()
+	{
+		return this.dispatchUnknownCommands;
+	}
+
+}
@@ -1,13 +1,13 @@
 package de.domisum.lib.mandatum.cmd;
 
 import de.domisum.lib.auxilium.util.java.annotations.API;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentType;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentTypes;
+import de.domisum.lib.mandatum.limit.CommandLimit;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Used to define the combinations of arguments that a command accepts.
@@ -24,6 +24,10 @@ import java.util.UUID;
  * Example: The player enters {@code /heal 10}
  * Then the argumentSequenceName in the Command object will be "onSelf".
  * This String can now be used to read the arguments properly.
+ * <p>
+ * Every class used in an ArgumentSequence needs an {@link ArgumentType} registered in {@link ArgumentTypes}. The values
+ * parsed while validating are handed to the command, which can read them with {@code getInt(index)},
+ * {@code getPlayer(index)} etc.
  */
 public class ArgumentSequence
 {
@@ -31,6 +35,9 @@ public class ArgumentSequence
 	// PROPERTIES
 	private String name;
 	private List<Class<?>> argumentClasses;
+	private ArgumentType<?>[] argumentTypes;
+	private boolean async = false;
+	private CommandLimit limit;
 
 
 	// CONSTRUCTOR
@@ -40,6 +47,7 @@ public class ArgumentSequence
 	 *
 	 * @param name            The name of the ArgumentSequence
 	 * @param argumentClasses The classes of the Arguments
+	 * @throws IllegalArgumentException if no ArgumentType has been registered for one of the classes
 	 */
 	@API public ArgumentSequence(String name, Class<?>... argumentClasses)
 	{
@@ -53,6 +61,37 @@ public class ArgumentSequence
 	{
 		this.name = name;
 		this.argumentClasses = argumentClasses;
+
+		this.argumentTypes = new ArgumentType<?>[argumentClasses.size()];
+		for(int i = 0; i < argumentClasses.size(); i++)
+			this.argumentTypes[i] = ArgumentTypes.get(argumentClasses.get(i));
+	}
+
+
+	/**
+	 * Marks this ArgumentSequence as async, so the command is executed asynchronously if this sequence is selected.
+	 *
+	 * @return this ArgumentSequence
+	 * @see MandatumBaseCommand#isAsync()
+	 */
+	@API public ArgumentSequence async()
+	{
+		this.async = true;
+		return this;
+	}
+
+	/**
+	 * Limits how often a single player can use the command with this ArgumentSequence. This is checked in addition to
+	 * the limit of the command itself.
+	 *
+	 * @param limit the limit
+	 * @return this ArgumentSequence
+	 * @see MandatumBaseCommand#getLimit()
+	 */
+	@API public ArgumentSequence limit(CommandLimit limit)
+	{
+		this.limit = limit;
+		return this;
 	}
 
 
@@ -66,6 +105,48 @@ public class ArgumentSequence
 		return this.name;
 	}
 
+	/**
+	 * @return The number of arguments of the ArgumentSequence, including the ArgumentMessage
+	 */
+	public int getNumberOfArguments()
+	{
+		return this.argumentTypes.length;
+	}
+
+	/**
+	 * @return If the command is executed asynchronously when this ArgumentSequence is selected
+	 */
+	public boolean isAsync()
+	{
+		return this.async;
+	}
+
+	/**
+	 * @return The limit of this ArgumentSequence, null if it isn't limited
+	 */
+	public CommandLimit getLimit()
+	{
+		return this.limit;
+	}
+
+	/**
+	 * @param index the index of the argument
+	 * @return The class of the argument at the provided index
+	 */
+	public Class<?> getArgumentClass(int index)
+	{
+		return this.argumentClasses.get(index);
+	}
+
+	/**
+	 * @param index the index of the argument
+	 * @return The ArgumentType parsing the argument at the provided index
+	 */
+	public ArgumentType<?> getArgumentType(int index)
+	{
+		return this.argumentTypes[index];
+	}
+
 
 	// VALIDATION
 
@@ -97,78 +178,35 @@ public class ArgumentSequence
 	 */
 	public String validateArguments(List<String> args)
 	{
-		// loop over argumentClasses instead of args to handle messages (arguments will be longer than argument classes)
-		for(int i = 0; i < this.argumentClasses.size(); i++)
-		{
-			Class<?> clazz = this.argumentClasses.get(i);
-			String arg = args.get(i);
-
-			String errorMessage = validateArgument(clazz, arg);
-			if(errorMessage != null)
-				return errorMessage;
-		}
-
-		return null;
+		return validateArguments(args, new Object[this.argumentTypes.length]);
 	}
 
 	/**
-	 * This method checks whether a supplied argument String fits the supplied class.
-	 * This doesn't always purely check if the String could be cast/converted to the type of the class.
-	 * For example it checks for {@code Player.class} whether the player is currently on the server.
+	 * Checks if the provided arguments fit the set arguments of this object and stores the parsed values in the provided
+	 * array. If this is not the case, an error message is returned to be displayed to the command dispatcher. If no error
+	 * message is returned, the arguments are valid and the array contains the parsed value of every argument.
 	 * <p>
-	 * The method returns a error message if the argument doesn't fit its template, if it properly fits, null is returned.
-	 * A special case of error message is the empty String: {@code ""}. If this is returned, the provided argument just simply doesn't
-	 * fit the template and the standard message telling the player how to use the command should be displayed instead of
-	 * a special error message.
+	 * A special case of error message is the empty String: {@code ""}. If this is returned, the provided argument just
+	 * simply doesn't fit the template and the standard message telling the player how to use the command should be
+	 * displayed instead of a special error message.
 	 *
-	 * @param clazz the class that the argument has to fit
-	 * @param arg   the argument
-	 * @return error message, if one occured
+	 * @param args   the arguments of the command
+	 * @param values the array to store the parsed values in, at least as long as the number of arguments of this object
+	 * @return the error message
 	 */
-	private String validateArgument(Class<?> clazz, String arg)
+	public String validateArguments(List<String> args, Object[] values)
 	{
-		// this returns "" when the argument is just straight out wrong. The message will be replaced by the usage message in the
-		// command executor before being sent to the player
-
-		// always true
-		if(clazz == ArgumentMessage.class)
-			return null;
-		else if(clazz == String.class)
-			return null;
-
-		else if(clazz == Integer.class)
+		// loop over argumentTypes instead of args to handle messages (arguments will be longer than argument classes)
+		for(int i = 0; i < this.argumentTypes.length; i++)
 		{
-			if(!arg.matches("^-?[0-9]+$"))
-				return "";
-		}
-
-		else if((clazz == Double.class) || (clazz == Float.class))
-		{
-			if(!arg.matches("^-?[0-9]+(\\.[0-9]+)*$"))
-				return "";
-		}
+			String arg = args.get(i);
 
-		else if(clazz == Boolean.class)
-		{
-			if(!(arg.equalsIgnoreCase("true") || arg.equalsIgnoreCase("false")))
-				return "";
-		}
+			Object value = this.argumentTypes[i].parse(arg);
+			if(value == null)
+				return this.argumentTypes[i].getErrorMessage(arg);
 
-		else if(clazz == Player.class)
-		{
-			Player player = Bukkit.getPlayer(arg);
-			if(player == null)
-				return "The player with the name '"+arg+"' isn't currenly online ";
-		}
-
-		else if(clazz == UUID.class)
-		{
-			if(!arg.toLowerCase().matches("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$"))
-				return "The uuid '"+arg+"' is invalid";
+			values[i] = value;
 		}
-		else
-			throw new UnsupportedOperationException(
-					"The class '"+clazz.getName()+"' has not been added to the validation method");
 
 		return null;
 	}
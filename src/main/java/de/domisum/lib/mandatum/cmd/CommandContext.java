@@ -0,0 +1,187 @@
+package de.domisum.lib.mandatum.cmd;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.cmd.arg.ParsedArguments;
+import de.domisum.lib.mandatum.cmd.arg.TargetPlayers;
+import de.domisum.lib.mandatum.exe.MainThread;
+import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
+import de.domisum.lib.mandatum.util.ArgumentList;
+import de.domisum.lib.mandatum.util.MultiLineMessage;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A single invocation of a {@link MandatumStatelessCommand}: the sender, the arguments and the ArgumentSequence they
+ * have been matched to.
+ * <p>
+ * Contexts can't be changed after they have been created, so they can be passed to other threads safely.
+ */
+public final class CommandContext
+{
+
+	// REFERENCES
+	private final MandatumStatelessCommand command;
+	private final Player sender;
+	private final List<String> args;
+	private final ArgumentSequence argumentSequence;
+	private final ParsedArguments parsedArguments;
+
+	// the identity of the sender is copied, so it can be read safely while executing asynchronously
+	private final String senderName;
+	private final UUID senderId;
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param command          the command that is invoked
+	 * @param sender           the sender of the command, null if it was sent by the console
+	 * @param args             the arguments of the command
+	 * @param argumentSequence the ArgumentSequence matching the arguments, null if none of them matched
+	 * @param parsedArguments  the values parsed by the ArgumentSequence, null if none of them matched
+	 */
+	public CommandContext(MandatumStatelessCommand command, Player sender, List<String> args,
+			ArgumentSequence argumentSequence, ParsedArguments parsedArguments)
+	{
+		this.command = command;
+		this.sender = sender;
+		this.args = args;
+		this.argumentSequence = argumentSequence;
+		this.parsedArguments = parsedArguments;
+
+		this.senderName = sender != null ? sender.getName() : null;
+		this.senderId = sender != null ? sender.getUniqueId() : null;
+	}
+
+
+	// GETTERS
+	@API public MandatumStatelessCommand getCommand()
+	{
+		return this.command;
+	}
+
+	/**
+	 * @return the player who sent the command, null if it was sent by the console
+	 */
+	@API public Player getSender()
+	{
+		return this.sender;
+	}
+
+	@API public String getSenderName()
+	{
+		return this.senderName != null ? ("'"+this.senderName+"'") : "the console";
+	}
+
+	@API public UUID getSenderId()
+	{
+		return this.senderId;
+	}
+
+	@API public List<String> getArgs()
+	{
+		return this.args;
+	}
+
+	@API public ArgumentSequence getArgumentSequence()
+	{
+		return this.argumentSequence;
+	}
+
+	@API public String getArgumentSequenceName()
+	{
+		return this.argumentSequence != null ? this.argumentSequence.getName() : null;
+	}
+
+	@API public ParsedArguments getParsedArguments()
+	{
+		return this.parsedArguments;
+	}
+
+
+	// ARGUMENTS
+	@API public String getMessage(int startArgsIndex)
+	{
+		return ArgumentList.join(this.args, startArgsIndex);
+	}
+
+	@API public String getString(int index)
+	{
+		return this.args.get(index);
+	}
+
+	@API public int getInt(int index)
+	{
+		return this.parsedArguments.getInt(index);
+	}
+
+	@API public double getDouble(int index)
+	{
+		return this.parsedArguments.getDouble(index);
+	}
+
+	@API public float getFloat(int index)
+	{
+		return this.parsedArguments.getFloat(index);
+	}
+
+	@API public boolean getBoolean(int index)
+	{
+		return this.parsedArguments.getBoolean(index);
+	}
+
+	@API public Player getPlayer(int index)
+	{
+		return this.parsedArguments.getPlayer(index);
+	}
+
+	@API public UUID getUUID(int index)
+	{
+		return this.parsedArguments.getUUID(index);
+	}
+
+	@API public TargetPlayers getTargetPlayers(int index)
+	{
+		return this.parsedArguments.getTargetPlayers(index);
+	}
+
+	@API public <T> T getArgument(int index, Class<T> clazz)
+	{
+		return this.parsedArguments.get(index, clazz);
+	}
+
+
+	// COMMUNICATION
+	@API public void sendMessage(String message)
+	{
+		if(this.sender != null)
+			// asynchronous commands hand the message back to the main thread
+			MainThread.run(()->this.sender.sendMessage(message));
+		else
+			// send to console
+			MandatumCommandExecutor.sendConsoleMessage(message);
+	}
+
+	/**
+	 * Sends a message of several lines as one message.
+	 *
+	 * @param message the message
+	 */
+	@API public void sendMessage(MultiLineMessage message)
+	{
+		if(this.sender != null)
+			// asynchronous commands hand the message back to the main thread
+			MainThread.run(()->message.send(this.sender));
+		else
+			// send to console
+			message.send(null);
+	}
+
+	@API public void sendUsageMessage()
+	{
+		this.command.sendUsageMessage(this);
+	}
+
+}
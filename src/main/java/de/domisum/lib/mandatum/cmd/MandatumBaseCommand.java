@@ -0,0 +1,88 @@
+package de.domisum.lib.mandatum.cmd;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.exe.MainThread;
+import de.domisum.lib.mandatum.limit.CommandLimit;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * What every command describes about itself: its name, its requirements and the ArgumentSequences it accepts. These
+ * properties are read once when the command is registered.
+ * <p>
+ * This class doesn't know anything about a single invocation. Commands creating an object for every invocation extend
+ * {@link MandatumCommand}, which adds the sender and the arguments. Commands sharing one object for all invocations
+ * extend {@link MandatumStatelessCommand}, which gets them passed in a {@link CommandContext}.
+ */
+public abstract class MandatumBaseCommand
+{
+
+	// -------
+	// CONSTRUCTOR
+	// -------
+	MandatumBaseCommand()
+	{
+
+	}
+
+
+	// -------
+	// GETTERS
+	// -------
+	public abstract String getName();
+
+	public abstract boolean canBeRunByConsole();
+
+	public abstract String getRequiredPermissionNode();
+
+	public abstract String getUsage();
+
+	public abstract List<ArgumentSequence> getArgumentSequences();
+
+	/**
+	 * Determines whether the command is executed asynchronously. Validation and permission checks still happen on the main
+	 * thread, but the command itself is run on the async executor of the
+	 * {@link de.domisum.lib.mandatum.exe.MandatumCommandExecutor}.
+	 * Single ArgumentSequences can also be marked as async using {@link ArgumentSequence#async()}.
+	 * <p>
+	 * Asynchronous commands must not use the Bukkit API directly, but hand that work back to the main thread using
+	 * {@link #runSync(Runnable)} or {@link #callSync(Supplier)}. Sending messages does this by itself.
+	 *
+	 * @return if the command is executed asynchronously
+	 */
+	public boolean isAsync()
+	{
+		return false;
+	}
+
+	/**
+	 * Limits how often a single player can use this command. The limit is read once when the command is registered and
+	 * checked before the command is executed, so rejected uses are cheap. Single ArgumentSequences can have their own
+	 * limits using {@link ArgumentSequence#limit(CommandLimit)}.
+	 *
+	 * @return the limit of the command, null if it isn't limited
+	 */
+	public CommandLimit getLimit()
+	{
+		return null;
+	}
+
+
+	// -------
+	// EXECUTION
+	// -------
+	@API
+	protected void runSync(Runnable task)
+	{
+		MainThread.run(task);
+	}
+
+	@API
+	protected <T> CompletableFuture<T> callSync(Supplier<T> supplier)
+	{
+		return MainThread.call(supplier);
+	}
+
+}
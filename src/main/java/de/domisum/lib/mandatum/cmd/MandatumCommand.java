@@ -2,20 +2,37 @@ package de.domisum.lib.mandatum.cmd;
 
 import de.domisum.lib.auxilium.util.java.annotations.API;
 import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.arg.ParsedArguments;
+import de.domisum.lib.mandatum.cmd.arg.TargetPlayers;
+import de.domisum.lib.mandatum.exe.MainThread;
+import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+import de.domisum.lib.mandatum.util.ArgumentList;
+import de.domisum.lib.mandatum.util.MultiLineMessage;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.List;
+import java.util.UUID;
 
-public abstract class MandatumCommand
+/**
+ * A command of which a new object is created for every invocation, holding the sender, the arguments and the values
+ * parsed from them.
+ */
+public abstract class MandatumCommand extends MandatumBaseCommand
 {
 
 	// REFERENCES
 	@API protected Player sender;
 	@API protected List<String> args;
 	@API protected String argumentSequenceName;
+	@API protected ParsedArguments parsedArguments;
 	// these are not set in the constructor, since it will be determined after this object has been constructed
 
+	// the identity of the sender is copied, so it can be read safely while executing asynchronously
+	private final String senderName;
+	private final UUID senderId;
+
 
 	// -------
 	// CONSTRUCTOR
@@ -27,42 +44,84 @@ public abstract class MandatumCommand
 			this.sender = (Player) commandSender;
 
 		this.args = args;
+
+		this.senderName = this.sender != null ? this.sender.getName() : null;
+		this.senderId = this.sender != null ? this.sender.getUniqueId() : null;
 	}
 
 
 	// -------
 	// GETTERS
 	// -------
-	public abstract String getName();
+	public Player getSender()
+	{
+		return this.sender;
+	}
 
-	public abstract boolean canBeRunByConsole();
+	@API
+	protected String getSenderName()
+	{
+		return this.senderName != null ? ("'"+this.senderName+"'") : "the console";
+	}
 
-	public abstract String getRequiredPermissionNode();
+	@API
+	protected UUID getSenderId()
+	{
+		return this.senderId;
+	}
 
-	public abstract String getUsage();
+	@API
+	protected String getMessage(int startArgsIndex)
+	{
+		return ArgumentList.join(this.args, startArgsIndex);
+	}
 
-	public abstract List<ArgumentSequence> getArgumentSequences();
+	@API
+	protected int getInt(int index)
+	{
+		return this.parsedArguments.getInt(index);
+	}
 
+	@API
+	protected double getDouble(int index)
+	{
+		return this.parsedArguments.getDouble(index);
+	}
 
-	public Player getSender()
+	@API
+	protected float getFloat(int index)
 	{
-		return this.sender;
+		return this.parsedArguments.getFloat(index);
 	}
 
 	@API
-	protected String getSenderName()
+	protected boolean getBoolean(int index)
 	{
-		return this.sender != null ? ("'"+this.sender.getName()+"'") : "the console";
+		return this.parsedArguments.getBoolean(index);
 	}
 
 	@API
-	protected String getMessage(int startArgsIndex)
+	protected Player getPlayer(int index)
 	{
-		String message = "";
-		for(int i = startArgsIndex; i < this.args.size(); i++)
-			message += this.args.get(i)+((i+1) != this.args.size() ? " " : "");
+		return this.parsedArguments.getPlayer(index);
+	}
+
+	@API
+	protected UUID getUUID(int index)
+	{
+		return this.parsedArguments.getUUID(index);
+	}
 
-		return message;
+	@API
+	protected TargetPlayers getTargetPlayers(int index)
+	{
+		return this.parsedArguments.getTargetPlayers(index);
+	}
+
+	@API
+	protected <T> T getArgument(int index, Class<T> clazz)
+	{
+		return this.parsedArguments.get(index, clazz);
 	}
 
 
@@ -74,6 +133,26 @@ public abstract class MandatumCommand
 		this.argumentSequenceName = argumentSequenceName;
 	}
 
+	public void setParsedArguments(ParsedArguments parsedArguments)
+	{
+		this.parsedArguments = parsedArguments;
+	}
+
+	/**
+	 * Replaces the arguments with a copy that can't be changed anymore, so they can be read safely by another thread.
+	 * This is called before the command is executed asynchronously.
+	 */
+	public void snapshotArguments()
+	{
+		// ArgumentLists can't be changed, so only other lists have to be copied
+		if(this.args instanceof ArgumentList)
+			return;
+
+		this.args = ArgumentList.of(this.args);
+		if(this.parsedArguments != null)
+			this.parsedArguments = new ParsedArguments(this.args, this.parsedArguments.getValues());
+	}
+
 
 	// -------
 	// COMMUNICATION
@@ -81,15 +160,42 @@ public abstract class MandatumCommand
 	public void sendMessage(String message)
 	{
 		if(this.sender != null)
-			this.sender.sendMessage(message);
+			// asynchronous commands hand the message back to the main thread
+			MainThread.run(()->this.sender.sendMessage(message));
+		else
+			// send to console
+			MandatumCommandExecutor.sendConsoleMessage(message);
+	}
+
+	/**
+	 * Sends a message of several lines as one message.
+	 *
+	 * @param message the message
+	 */
+	public void sendMessage(MultiLineMessage message)
+	{
+		if(this.sender != null)
+			// asynchronous commands hand the message back to the main thread
+			MainThread.run(()->message.send(this.sender));
 		else
 			// send to console
-			MandatumLib.getLogger().info(message);
+			message.send(null);
 	}
 
+	/**
+	 * Sends the message telling the sender how to use the command. For commands with subcommands, this lists the
+	 * subcommands the sender can use. The message is rendered once and cached by the executor.
+	 */
 	public void sendUsageMessage()
 	{
-		sendMessage("The command format is wrong. Please use: "+getUsage());
+		RegisteredCommand registeredCommand = MandatumLib.getCommandExecutor().getRegisteredCommand(getClass());
+		if(registeredCommand == null)
+		{
+			sendMessage("The command format is wrong. Please use: "+getUsage());
+			return;
+		}
+
+		sendMessage(registeredCommand.getHelp().getUsageMessage(this.sender, this.args));
 	}
 
 
@@ -0,0 +1,67 @@
+package de.domisum.lib.mandatum.cmd;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+
+/**
+ * A command of which only a single object exists, shared by all invocations.
+ * <p>
+ * Unlike a normal {@link MandatumCommand}, no command object is created when the command is used. Everything about a
+ * single invocation (the sender, the arguments and the selected ArgumentSequence) is passed to
+ * {@link #execute(CommandContext)} in a {@link CommandContext} instead. The name, usage, permission node and
+ * ArgumentSequences are read once when the command is registered.
+ * <p>
+ * Since the object is shared, implementations have to be thread safe if they are executed asynchronously. The object
+ * doesn't have a sender or arguments of its own, so everything about the invocation, including sending messages to its
+ * sender, goes through the context.
+ * <p>
+ * Stateless commands need a constructor without parameters. They can't be supercommands or subcommands.
+ */
+public abstract class MandatumStatelessCommand extends MandatumBaseCommand
+{
+
+	// -------
+	// CONSTRUCTOR
+	// -------
+	@API
+	protected MandatumStatelessCommand()
+	{
+
+	}
+
+
+	// -------
+	// COMMUNICATION
+	// -------
+
+	/**
+	 * Sends the message telling the sender of the invocation how to use the command.
+	 *
+	 * @param context the invocation
+	 */
+	public void sendUsageMessage(CommandContext context)
+	{
+		RegisteredCommand registeredCommand = MandatumLib.getCommandExecutor().getRegisteredCommand(getClass());
+		if(registeredCommand == null)
+		{
+			context.sendMessage("The command format is wrong. Please use: "+getUsage());
+			return;
+		}
+
+		context.sendMessage(registeredCommand.getHelp().getUsageMessage(context.getSender(), context.getArgs()));
+	}
+
+
+	// -------
+	// EXECUTION
+	// -------
+
+	/**
+	 * Executes one invocation of the command. This can be called by several threads at once if the command is async.
+	 *
+	 * @param context the invocation
+	 */
+	public abstract void execute(CommandContext context);
+
+}
@@ -24,4 +24,20 @@ public abstract class MandatumSubCommand extends MandatumCommand
 	@API
 	public abstract String getSuperCommandName();
 
+	/**
+	 * Subcommands can have their own subcommands, which are found in the package returned by this method. Their
+	 * {@link #getSuperCommandName()} has to return the name of this subcommand. A subcommand with subcommands passes its
+	 * arguments through to them, so it doesn't need ArgumentSequences.
+	 * <p>
+	 * Example: {@code /net server restart <name>} is made up of the supercommand {@code net}, its subcommand
+	 * {@code server} returning the package of its subcommands here, and the subcommand {@code restart} in that package.
+	 *
+	 * @return the package containing the subcommands of this subcommand, null if it doesn't have subcommands
+	 */
+	@API
+	public String getSubCommandsClassPath()
+	{
+		return null;
+	}
+
 }
@@ -1,17 +1,14 @@
 package de.domisum.lib.mandatum.cmd;
 
-import de.domisum.lib.auxilium.util.java.ClassUtil;
 import de.domisum.lib.auxilium.util.java.annotations.API;
 import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.exe.SubCommandScanner;
+import de.domisum.lib.mandatum.util.ArgumentList;
 import org.bukkit.command.CommandSender;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.TreeMap;
 
 public abstract class MandatumSuperCommand extends MandatumCommand
 {
@@ -42,47 +39,9 @@ public abstract class MandatumSuperCommand extends MandatumCommand
 
 	@API public abstract String getSubCommandsClassPath();
 
-	@SuppressWarnings("unchecked") protected Map<String, Class<? extends MandatumSubCommand>> findSubCommands()
+	@API protected Map<String, Class<? extends MandatumSubCommand>> findSubCommands()
 	{
-		MandatumLib.getLogger().info("Registering subcommands of '"+getName()+"' ...");
-
-		List<Class<?>> classes = ClassUtil.getClasses(getSubCommandsClassPath());
-		Map<String, Class<? extends MandatumSubCommand>> subCommandClasses = new HashMap<>();
-		for(Class<?> c : classes)
-		{
-			if(!MandatumSubCommand.class.isAssignableFrom(c))
-			{
-				MandatumLib.getLogger().warning(
-						"Found class '"+c.getName()+"' in subcommand package that isn't a subcommand. It has been skipped");
-				continue;
-			}
-
-			MandatumSubCommand subCommand = null;
-			try
-			{
-				Constructor<?> constructor = c.getConstructor(CommandSender.class, List.class);
-				subCommand = (MandatumSubCommand) constructor.newInstance(null, null);
-			}
-			catch(InstantiationException|IllegalAccessException|IllegalArgumentException|InvocationTargetException|NoSuchMethodException|SecurityException e)
-			{
-				e.printStackTrace();
-			}
-
-			if(!subCommand.getSuperCommandName().equalsIgnoreCase(getName()))
-			{
-				MandatumLib.getLogger()
-						.severe("The subcommand '"+c.getName()+"' belongs to the command '"+subCommand.getSuperCommandName()
-								+"', not '"+getName()+"'");
-				continue;
-			}
-
-			subCommandClasses.put(subCommand.getName().toLowerCase(), (Class<? extends MandatumSubCommand>) c);
-			MandatumLib.getLogger().info("Registered subcommands '"+subCommand.getName()+"'");
-		}
-
-		MandatumLib.getLogger().info("Registering subcommands of '"+getName()+"' done");
-
-		return subCommandClasses;
+		return SubCommandScanner.find(getName(), getSubCommandsClassPath(), getClass().getClassLoader());
 	}
 
 
@@ -97,14 +56,24 @@ public abstract class MandatumSuperCommand extends MandatumCommand
 	@Override public void sendUsageMessage()
 	{
 		super.sendUsageMessage();
+
+		// registered commands list the subcommands the sender can use in their cached usage message already
+		if(MandatumLib.getCommandExecutor().getRegisteredCommand(getClass()) != null)
+			return;
+
 		sendMessage("These subcommands exist:");
-		for(Entry<String, Class<? extends MandatumSubCommand>> entry : getSubCommands().entrySet())
-			sendMessage(" - "+entry.getKey());
+		for(String subCommandName : new TreeMap<>(getSubCommands()).keySet())
+			sendMessage(" - "+subCommandName);
 	}
 
 	// -------
 	// EXECUTION
 	// -------
+
+	/**
+	 * The executor walks the command tree to the selected subcommand by itself, so this is only used if a supercommand
+	 * object is executed directly.
+	 */
 	@Override public void execute()
 	{
 		String subCommandName = this.args.get(0);
@@ -119,8 +88,8 @@ public abstract class MandatumSuperCommand extends MandatumCommand
 		if(!shouldExecute())
 			return;
 
-		List<String> subCommandArgs = new ArrayList<>(this.args);
-		subCommandArgs.remove(0); // remove first arg since it is the name of the subcommand
+		// the first arg is the name of the subcommand, the view of the rest doesn't copy the arguments
+		List<String> subCommandArgs = ArgumentList.of(this.args).slice(1);
 
 		// run subcommand
 		// if the command was sent by console sender is null, but this is not important since the sender of the subcommand will be
@@ -129,10 +98,27 @@ public abstract class MandatumSuperCommand extends MandatumCommand
 	}
 
 	/**
-	 * Not 100% sure for what this method is used for, but I don't want to delete it yet
+	 * Called before a subcommand of this command is executed. If this returns false, the subcommand isn't executed and
+	 * this method is responsible for telling the sender why.
+	 * <p>
+	 * The executor only creates an object of this command to call this method if it is overridden, so supercommands that
+	 * don't need it shouldn't override it.
+	 *
+	 * @return if the subcommand should be executed
+	 */
+	@API protected boolean shouldExecute()
+	{
+		return true;
+	}
+
+	/**
+	 * Calls {@link #shouldExecute()}. This is used by the executor when it walks the command tree.
 	 *
 	 * @return if the subcommand should be executed
 	 */
-	@API protected abstract boolean shouldExecute();
+	public final boolean checkShouldExecute()
+	{
+		return shouldExecute();
+	}
 
 }
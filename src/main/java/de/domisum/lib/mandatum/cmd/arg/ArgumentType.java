@@ -0,0 +1,79 @@
+package de.domisum.lib.mandatum.cmd.arg;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses the command arguments of one type.
+ * <p>
+ * An ArgumentType is registered for a class in {@link ArgumentTypes} and then used by every
+ * {@link de.domisum.lib.mandatum.cmd.ArgumentSequence} containing that class. The argument is parsed exactly once while
+ * validating, and the parsed value is handed to the command.
+ *
+ * @param <T> the type of the parsed values
+ */
+public interface ArgumentType<T>
+{
+
+	/**
+	 * Parses the provided argument.
+	 *
+	 * @param arg the argument as entered by the command sender
+	 * @return the parsed value, or null if the argument doesn't fit this type
+	 */
+	T parse(String arg);
+
+	/**
+	 * Returns the error message for an argument that couldn't be parsed. The empty String {@code ""} means that the
+	 * argument just doesn't fit and the usage message of the command should be displayed instead.
+	 *
+	 * @param arg the argument that couldn't be parsed
+	 * @return the error message
+	 */
+	default String getErrorMessage(String arg)
+	{
+		return "";
+	}
+
+	/**
+	 * Returns the tab completions for an argument of this type. This is called on every keypress, so the completions
+	 * should come from an index and not be copied for every call.
+	 *
+	 * @param prefix the part of the argument that has already been typed
+	 * @return a read-only list of the completions starting with the prefix
+	 */
+	default List<String> complete(String prefix)
+	{
+		return Collections.emptyList();
+	}
+
+
+	// CACHING
+
+	/**
+	 * Returns whether the values parsed by this type may be reused for later invocations with the same argument, see
+	 * {@link de.domisum.lib.mandatum.exe.InvocationCache}. Types whose values don't only depend on the argument itself
+	 * either have to return false here or change their {@link #getVersion() version} whenever parsing the same argument
+	 * could return something else.
+	 *
+	 * @return if the parsed values may be cached
+	 */
+	default boolean isCacheable()
+	{
+		return true;
+	}
+
+	/**
+	 * Returns the version of what this type parses the arguments against, like the online players. Cached invocations
+	 * are only reused while the versions of the types they have been resolved with are unchanged, so checking them costs
+	 * a comparison instead of parsing the arguments again. The version has to change after the state has changed, types
+	 * only depending on the argument itself always return 0.
+	 *
+	 * @return the current version
+	 */
+	default long getVersion()
+	{
+		return 0;
+	}
+
+}
@@ -0,0 +1,382 @@
+package de.domisum.lib.mandatum.cmd.arg;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage;
+import de.domisum.lib.mandatum.player.OnlinePlayerIndex;
+import de.domisum.lib.mandatum.util.PrefixIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link ArgumentType}s that can be used in ArgumentSequences.
+ * <p>
+ * The types {@code String}, {@code ArgumentMessage}, {@code Integer}, {@code Double}, {@code Float}, {@code Boolean},
+ * {@code Player}, {@code TargetPlayers} and {@code UUID} are registered by default. Plugins can register their own types using
+ * {@link #register(Class, ArgumentType)} before constructing the ArgumentSequences using them.
+ */
+public final class ArgumentTypes
+{
+
+	// REFERENCES
+	private static final Map<Class<?>, ArgumentType<?>> types = new ConcurrentHashMap<>();
+
+	static
+	{
+		register(String.class, arg->arg);
+		register(ArgumentMessage.class, arg->arg);
+		register(Integer.class, ArgumentTypes::parseInteger);
+		register(Double.class, ArgumentTypes::parseDouble);
+		register(Float.class, arg->
+		{
+			Double value = parseDouble(arg);
+			return value == null ? null : value.floatValue();
+		});
+		register(Boolean.class, new BooleanArgumentType());
+		register(Player.class, new PlayerArgumentType());
+		register(TargetPlayers.class, new TargetPlayersArgumentType());
+		register(UUID.class, new UUIDArgumentType());
+	}
+
+
+	// CONSTRUCTOR
+	private ArgumentTypes()
+	{
+
+	}
+
+
+	// REGISTRY
+
+	/**
+	 * Registers the ArgumentType used to parse arguments of the provided class, replacing the previously registered one.
+	 * The class is only used as a key, so marker classes like {@code ArgumentMessage} can have types parsing to other
+	 * classes.
+	 *
+	 * @param clazz        the class used in ArgumentSequences
+	 * @param argumentType the type parsing the arguments
+	 */
+	@API public static void register(Class<?> clazz, ArgumentType<?> argumentType)
+	{
+		types.put(clazz, argumentType);
+	}
+
+	/**
+	 * Returns the ArgumentType registered for the provided class.
+	 *
+	 * @param clazz the class used in an ArgumentSequence
+	 * @return the ArgumentType of the class
+	 * @throws IllegalArgumentException if no ArgumentType has been registered for the class
+	 */
+	public static ArgumentType<?> get(Class<?> clazz)
+	{
+		ArgumentType<?> argumentType = types.get(clazz);
+		if(argumentType == null)
+			throw new IllegalArgumentException("No argument type has been registered for the class '"+clazz.getName()+"'");
+
+		return argumentType;
+	}
+
+
+	// PARSERS
+	private static Integer parseInteger(String arg)
+	{
+		int length = arg.length();
+		boolean negative = length > 0 && arg.charAt(0) == '-';
+		int start = negative ? 1 : 0;
+		if(start == length)
+			return null;
+
+		// accumulate negatively so Integer.MIN_VALUE can be parsed as well
+		long value = 0;
+		for(int i = start; i < length; i++)
+		{
+			char c = arg.charAt(i);
+			if(c < '0' || c > '9')
+				return null;
+
+			value = value*10-(c-'0');
+			if(value < Integer.MIN_VALUE)
+				return null;
+		}
+
+		if(!negative)
+		{
+			if(value == Integer.MIN_VALUE)
+				return null;
+
+			value = -value;
+		}
+
+		return (int) value;
+	}
+
+	private static Double parseDouble(String arg)
+	{
+		int length = arg.length();
+		int i = length > 0 && arg.charAt(0) == '-' ? 1 : 0;
+
+		// digits before the point
+		int integerStart = i;
+		while(i < length && isDigit(arg.charAt(i)))
+			i++;
+		if(i == integerStart)
+			return null;
+
+		// optional point followed by digits
+		if(i < length)
+		{
+			if(arg.charAt(i) != '.')
+				return null;
+
+			int fractionStart = ++i;
+			while(i < length && isDigit(arg.charAt(i)))
+				i++;
+			if(i == fractionStart || i != length)
+				return null;
+		}
+
+		return Double.parseDouble(arg);
+	}
+
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	private static int hexValue(char c)
+	{
+		if(c >= '0' && c <= '9')
+			return c-'0';
+		else if(c >= 'a' && c <= 'f')
+			return c-'a'+10;
+		else if(c >= 'A' && c <= 'F')
+			return c-'A'+10;
+
+		return -1;
+	}
+
+
+	// TYPES
+	private static class BooleanArgumentType implements ArgumentType<Boolean>
+	{
+
+		private static final PrefixIndex LITERALS = PrefixIndex.of("true", "false");
+
+
+		@Override public Boolean parse(String arg)
+		{
+			if(arg.equalsIgnoreCase("true"))
+				return Boolean.TRUE;
+			else if(arg.equalsIgnoreCase("false"))
+				return Boolean.FALSE;
+
+			return null;
+		}
+
+		@Override public List<String> complete(String prefix)
+		{
+			return LITERALS.lookup(prefix);
+		}
+
+	}
+
+	private static class PlayerArgumentType implements ArgumentType<Player>
+	{
+
+		@Override public Player parse(String arg)
+		{
+			// the index of MandatumLib avoids scanning all online players
+			if(MandatumLib.getInstance() == null)
+				return Bukkit.getPlayer(arg);
+
+			return MandatumLib.getPlayerIndex().getPlayer(arg);
+		}
+
+		@Override public String getErrorMessage(String arg)
+		{
+			String errorMessage = "The player with the name '"+arg+"' isn't currenly online ";
+			if(MandatumLib.getInstance() == null || !MandatumLib.getCommandExecutor().isSuggestingCorrections())
+				return errorMessage;
+
+			String suggestion = MandatumLib.getPlayerIndex().suggestName(arg);
+			return suggestion == null ? errorMessage : errorMessage+"- did you mean '"+suggestion+"'?";
+		}
+
+		@Override public List<String> complete(String prefix)
+		{
+			if(MandatumLib.getInstance() == null)
+				return Collections.emptyList();
+
+			return MandatumLib.getPlayerIndex().completeName(prefix);
+		}
+
+		@Override public boolean isCacheable()
+		{
+			// without the index, there is no version telling when the online players have changed
+			return MandatumLib.getInstance() != null;
+		}
+
+		@Override public long getVersion()
+		{
+			// the argument can select another player after any change, for example when a player with exactly that name
+			// joined, the prefix has become ambiguous or the lookup mode has changed, and a rejoined player is a new object
+			return MandatumLib.getPlayerIndex().getVersion();
+		}
+
+	}
+
+	private static class TargetPlayersArgumentType implements ArgumentType<TargetPlayers>
+	{
+
+		private static final String ALL = "*";
+		private static final char WORLD_SEPARATOR = '@';
+		private static final char SELECTOR_SEPARATOR = ',';
+
+
+		@Override public TargetPlayers parse(String arg)
+		{
+			if(MandatumLib.getInstance() == null)
+				return null;
+			OnlinePlayerIndex index = MandatumLib.getPlayerIndex();
+
+			String selectors = arg;
+			World world = null;
+			int worldSeparatorIndex = arg.lastIndexOf(WORLD_SEPARATOR);
+			if(worldSeparatorIndex != -1)
+			{
+				world = Bukkit.getWorld(arg.substring(worldSeparatorIndex+1));
+				if(world == null)
+					return null;
+
+				selectors = arg.substring(0, worldSeparatorIndex);
+			}
+
+			// the same player can be selected by several selectors, but is only targeted once
+			Map<UUID, Player> players = new LinkedHashMap<>();
+			int start = 0;
+			while(start <= selectors.length())
+			{
+				int end = selectors.indexOf(SELECTOR_SEPARATOR, start);
+				if(end == -1)
+					end = selectors.length();
+
+				if(!select(index, world, selectors.substring(start, end), players))
+					return null;
+				start = end+1;
+			}
+
+			return players.isEmpty() ? null : new TargetPlayers(new ArrayList<>(players.values()));
+		}
+
+		private static boolean select(OnlinePlayerIndex index, World world, String selector, Map<UUID, Player> players)
+		{
+			if(selector.isEmpty())
+				return false;
+
+			Collection<Player> selected;
+			if(selector.equals(ALL))
+				selected = world != null ? world.getPlayers() : index.getPlayers();
+			else if(selector.endsWith(ALL))
+				selected = index.getPlayersByPrefix(selector.substring(0, selector.length()-1));
+			else
+			{
+				Player player = index.getPlayer(selector);
+				if(player == null)
+					return false;
+				selected = Collections.singletonList(player);
+			}
+
+			for(Player player : selected)
+				if(world == null || world.equals(player.getWorld()))
+					players.put(player.getUniqueId(), player);
+
+			return true;
+		}
+
+		@Override public String getErrorMessage(String arg)
+		{
+			return "No online player matches '"+arg+"'";
+		}
+
+		@Override public List<String> complete(String prefix)
+		{
+			if(MandatumLib.getInstance() == null || prefix.indexOf(WORLD_SEPARATOR) != -1)
+				return Collections.emptyList();
+
+			// only the last selector of a list is completed, the ones before are kept as they are
+			int lastSeparatorIndex = prefix.lastIndexOf(SELECTOR_SEPARATOR);
+			List<String> names = MandatumLib.getPlayerIndex().completeName(prefix.substring(lastSeparatorIndex+1));
+			if(lastSeparatorIndex == -1)
+				return names;
+
+			String previousSelectors = prefix.substring(0, lastSeparatorIndex+1);
+			List<String> completions = new ArrayList<>(names.size());
+			for(String name : names)
+				completions.add(previousSelectors+name);
+
+			return completions;
+		}
+
+		@Override public boolean isCacheable()
+		{
+			// the players matching the selectors change whenever a player joins, quits or changes worlds
+			return false;
+		}
+
+	}
+
+	private static class UUIDArgumentType implements ArgumentType<UUID>
+	{
+
+		@Override public UUID parse(String arg)
+		{
+			if(arg.length() != 36)
+				return null;
+
+			long mostSignificantBits = 0;
+			long leastSignificantBits = 0;
+			int nibbles = 0;
+			for(int i = 0; i < 36; i++)
+			{
+				char c = arg.charAt(i);
+				if(i == 8 || i == 13 || i == 18 || i == 23)
+				{
+					if(c != '-')
+						return null;
+
+					continue;
+				}
+
+				int nibble = hexValue(c);
+				if(nibble == -1)
+					return null;
+
+				if(nibbles < 16)
+					mostSignificantBits = (mostSignificantBits<<4)|nibble;
+				else
+					leastSignificantBits = (leastSignificantBits<<4)|nibble;
+				nibbles++;
+			}
+
+			return new UUID(mostSignificantBits, leastSignificantBits);
+		}
+
+		@Override public String getErrorMessage(String arg)
+		{
+			return "The uuid '"+arg+"' is invalid";
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+package de.domisum.lib.mandatum.cmd.arg;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The arguments of a command after they have been validated against an ArgumentSequence.
+ * <p>
+ * Each argument covered by the ArgumentSequence has already been parsed by its {@link ArgumentType}, so the command can
+ * read the typed values directly instead of parsing the Strings again. For an {@code ArgumentMessage} the value is the
+ * first word of the message.
+ */
+public class ParsedArguments
+{
+
+	// PROPERTIES
+	private final List<String> args;
+	private final Object[] values;
+
+
+	// CONSTRUCTOR
+	public ParsedArguments(List<String> args, Object[] values)
+	{
+		this.args = args;
+		this.values = values;
+	}
+
+
+	// GETTERS
+	@API public List<String> getArgs()
+	{
+		return this.args;
+	}
+
+	public Object[] getValues()
+	{
+		return this.values;
+	}
+
+	@API public int getNumberOfValues()
+	{
+		return this.values.length;
+	}
+
+	@API public Object get(int index)
+	{
+		return this.values[index];
+	}
+
+	@API public <T> T get(int index, Class<T> clazz)
+	{
+		return clazz.cast(this.values[index]);
+	}
+
+	@API public String getString(int index)
+	{
+		return this.args.get(index);
+	}
+
+	@API public int getInt(int index)
+	{
+		return (Integer) this.values[index];
+	}
+
+	@API public double getDouble(int index)
+	{
+		return ((Number) this.values[index]).doubleValue();
+	}
+
+	@API public float getFloat(int index)
+	{
+		return ((Number) this.values[index]).floatValue();
+	}
+
+	@API public boolean getBoolean(int index)
+	{
+		return (Boolean) this.values[index];
+	}
+
+	@API public Player getPlayer(int index)
+	{
+		return (Player) this.values[index];
+	}
+
+	@API public UUID getUUID(int index)
+	{
+		return (UUID) this.values[index];
+	}
+
+	@API public TargetPlayers getTargetPlayers(int index)
+	{
+		return (TargetPlayers) this.values[index];
+	}
+
+}
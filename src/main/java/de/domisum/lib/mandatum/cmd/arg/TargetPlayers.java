@@ -0,0 +1,130 @@
+package de.domisum.lib.mandatum.cmd.arg;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The players selected by one argument, so a command can act on many players in one invocation instead of being run
+ * once per player.
+ * <p>
+ * The argument is a comma separated list of selectors, optionally followed by {@code @<world>} to only keep the players
+ * in that world:
+ * <ul>
+ * <li>{@code *} selects all online players</li>
+ * <li>{@code <prefix>*} selects all players whose names start with the prefix</li>
+ * <li>{@code <name>} selects one player like a {@code Player} argument does</li>
+ * </ul>
+ * Example: {@code /heal *@world_nether} or {@code /heal Alex,Steve,mod_*}
+ * <p>
+ * The selection is resolved once against the index of the online players while validating the arguments, and the
+ * command checks, limits and parsing are done once for all players.
+ */
+public final class TargetPlayers implements Iterable<Player>
+{
+
+	// PROPERTIES
+	private final List<Player> players;
+
+
+	// CONSTRUCTOR
+	TargetPlayers(List<Player> players)
+	{
+		this.players = Collections.unmodifiableList(players);
+	}
+
+
+	// GETTERS
+	@API public List<Player> getPlayers()
+	{
+		return this.players;
+	}
+
+	@API public int size()
+	{
+		return this.players.size();
+	}
+
+	@Override public Iterator<Player> iterator()
+	{
+		return this.players.iterator();
+	}
+
+
+	// BATCHES
+
+	/**
+	 * Splits the players into batches, for example to hand them to several threads preparing data for them. The
+	 * players themselves may only be accessed on the main thread.
+	 *
+	 * @param batchSize the maximum number of players per batch
+	 * @return the batches, read-only views of the players
+	 */
+	@API public List<List<Player>> partition(int batchSize)
+	{
+		if(batchSize <= 0)
+			throw new IllegalArgumentException("The batch size has to be positive, not "+batchSize);
+
+		List<List<Player>> batches = new ArrayList<>((this.players.size()+batchSize-1)/batchSize);
+		for(int from = 0; from < this.players.size(); from += batchSize)
+			batches.add(this.players.subList(from, Math.min(from+batchSize, this.players.size())));
+
+		return batches;
+	}
+
+	/**
+	 * Runs the action for the players spread over several ticks, starting in the next tick, so actions that are
+	 * expensive per player don't stall a single tick. Players that have gone offline meanwhile are skipped.
+	 *
+	 * @param plugin         the plugin scheduling the action
+	 * @param playersPerTick the number of players handled per tick
+	 * @param action         the action run for every player on the main thread
+	 * @return the future completed once all players have been handled, or completed exceptionally if the action threw
+	 */
+	@API public CompletableFuture<Void> forEachSpread(Plugin plugin, int playersPerTick, Consumer<Player> action)
+	{
+		List<List<Player>> batches = partition(playersPerTick);
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		if(batches.isEmpty())
+		{
+			result.complete(null);
+			return result;
+		}
+
+		Iterator<List<Player>> batchIterator = batches.iterator();
+		BukkitTask[] task = new BukkitTask[1];
+		task[0] = Bukkit.getScheduler().runTaskTimer(plugin, ()->
+		{
+			try
+			{
+				for(Player player : batchIterator.next())
+					if(player.isOnline())
+						action.accept(player);
+			}
+			catch(RuntimeException e)
+			{
+				task[0].cancel();
+				result.completeExceptionally(e);
+				return;
+			}
+
+			if(!batchIterator.hasNext())
+			{
+				task[0].cancel();
+				result.complete(null);
+			}
+		}, 1, 1);
+
+		return result;
+	}
+
+}
@@ -0,0 +1,300 @@
+package de.domisum.lib.mandatum.cmd.method;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage;
+import de.domisum.lib.mandatum.cmd.CommandContext;
+import de.domisum.lib.mandatum.cmd.MandatumStatelessCommand;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * The command made up of the {@link CommandMethod}s of an object of a {@link MethodCommand} class.
+ * <p>
+ * The methods are resolved once when the command is created. Each method becomes an ArgumentSequence calling it, so
+ * dispatching goes straight to the selected method with the arguments parsed while matching, without comparing the
+ * names of the ArgumentSequences or parsing the arguments again. The methods are called by the generated
+ * {@link MethodCommandBinder} if there is one, otherwise through method handles.
+ */
+public final class AnnotatedCommand extends MandatumStatelessCommand
+{
+
+	// CONSTANTS
+	private static final String BINDER_SUFFIX = "_MandatumBinder";
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, CommandContext.class, Object[].class);
+
+	// PROPERTIES
+	private final String name;
+	private final String usage;
+	private final String requiredPermissionNode;
+	private final boolean canBeRunByConsole;
+	private final boolean async;
+	private final List<ArgumentSequence> argumentSequences;
+
+
+	// CONSTRUCTOR
+	private AnnotatedCommand(MethodCommand annotation, List<ArgumentSequence> argumentSequences)
+	{
+		this.name = annotation.name();
+		this.usage = annotation.usage().isEmpty() ? "/"+annotation.name() : annotation.usage();
+		this.requiredPermissionNode = annotation.permission().isEmpty() ? null : annotation.permission();
+		this.canBeRunByConsole = annotation.console();
+		this.async = annotation.async();
+		this.argumentSequences = Collections.unmodifiableList(argumentSequences);
+	}
+
+	/**
+	 * Creates the command made up of the {@link CommandMethod}s of the object.
+	 *
+	 * @param target the object of a class annotated with {@link MethodCommand}
+	 * @return the command
+	 * @throws IllegalArgumentException if the class isn't annotated, has no command methods or one of them is invalid
+	 */
+	@API public static AnnotatedCommand of(Object target)
+	{
+		Class<?> targetClass = target.getClass();
+		MethodCommand annotation = targetClass.getAnnotation(MethodCommand.class);
+		if(annotation == null)
+			throw new IllegalArgumentException("The class '"+targetClass.getName()+"' isn't annotated with @MethodCommand");
+
+		List<Method> methods = new ArrayList<>();
+		for(Method method : targetClass.getMethods())
+			if(method.isAnnotationPresent(CommandMethod.class))
+				methods.add(method);
+		if(methods.isEmpty())
+			throw new IllegalArgumentException("The class '"+targetClass.getName()+"' doesn't have any command methods");
+
+		// the order of the methods returned by reflection isn't defined, so they are sorted
+		methods.sort(Comparator.comparingInt((Method m)->-m.getAnnotation(CommandMethod.class).priority())
+				.thenComparingInt(m->-getNumberOfArguments(m))
+				.thenComparing(AnnotatedCommand::getSignature));
+
+		MethodCommandBinder<Object> binder = loadBinder(targetClass);
+		Map<String, Integer> binderIndices = new HashMap<>();
+		if(binder != null)
+		{
+			String[] signatures = binder.getMethodSignatures();
+			for(int i = 0; i < signatures.length; i++)
+				binderIndices.put(signatures[i], i);
+		}
+
+		List<ArgumentSequence> argumentSequences = new ArrayList<>();
+		for(Method method : methods)
+			argumentSequences.add(createSequence(target, method, binder, binderIndices));
+
+		return new AnnotatedCommand(annotation, argumentSequences);
+	}
+
+	private static CommandMethodSequence createSequence(Object target, Method method, MethodCommandBinder<Object> binder,
+			Map<String, Integer> binderIndices)
+	{
+		String signature = getSignature(method);
+		if(Modifier.isStatic(method.getModifiers()))
+			throw new IllegalArgumentException("The command method '"+signature+"' can't be static");
+
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+		int offset = hasContextParameter(method) ? 1 : 0;
+
+		Class<?>[] argumentClasses = new Class<?>[parameterTypes.length-offset];
+		int messageIndex = -1;
+		for(int i = 0; i < argumentClasses.length; i++)
+		{
+			Class<?> parameterType = parameterTypes[i+offset];
+			if(isMessage(parameterAnnotations[i+offset]))
+			{
+				if(parameterType != String.class || i != argumentClasses.length-1)
+					throw new IllegalArgumentException(
+							"Only the last parameter of the command method '"+signature+"' can be a @Message String");
+
+				argumentClasses[i] = ArgumentMessage.class;
+				messageIndex = i;
+			}
+			else
+				argumentClasses[i] = wrap(parameterType);
+		}
+
+		Integer binderIndex = binderIndices.get(signature);
+		MethodHandle handle = binderIndex == null ? createHandle(target, method, offset, argumentClasses.length) : null;
+
+		CommandMethodSequence sequence = new CommandMethodSequence(method.getName(), argumentClasses, target, signature,
+				binderIndex != null ? binder : null, binderIndex != null ? binderIndex : -1, handle, messageIndex);
+		if(method.getAnnotation(CommandMethod.class).async())
+			sequence.async();
+
+		return sequence;
+	}
+
+	private static MethodHandle createHandle(Object target, Method method, int offset, int numberOfArguments)
+	{
+		MethodHandle handle;
+		try
+		{
+			handle = MethodHandles.publicLookup().unreflect(method).bindTo(target);
+		}
+		catch(IllegalAccessException e)
+		{
+			throw new IllegalArgumentException("The command method '"+getSignature(method)+"' isn't accessible", e);
+		}
+
+		// every method is adapted to (CommandContext, Object[]), unboxing the arguments and dropping the return value
+		if(offset == 0)
+			handle = MethodHandles.dropArguments(handle, 0, CommandContext.class);
+		handle = handle.asType(MethodType.genericMethodType(numberOfArguments)
+				.insertParameterTypes(0, CommandContext.class)
+				.changeReturnType(void.class));
+		return handle.asSpreader(Object[].class, numberOfArguments).asType(INVOKER_TYPE);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static MethodCommandBinder<Object> loadBinder(Class<?> targetClass)
+	{
+		// nested classes are named after all of their enclosing classes
+		String packageName = targetClass.getPackage() != null ? targetClass.getPackage().getName() : "";
+		String simpleBinaryName = packageName.isEmpty() ?
+				targetClass.getName() :
+				targetClass.getName().substring(packageName.length()+1);
+		String binderName = (packageName.isEmpty() ? "" : packageName+".")+simpleBinaryName.replace('$', '_')+BINDER_SUFFIX;
+
+		Class<?> binderClass;
+		try
+		{
+			binderClass = Class.forName(binderName, true, targetClass.getClassLoader());
+		}
+		catch(ClassNotFoundException e)
+		{
+			return null;
+		}
+
+		try
+		{
+			return (MethodCommandBinder<Object>) binderClass.getConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException|ClassCastException e)
+		{
+			throw new IllegalStateException("The command binder '"+binderName+"' couldn't be instantiated", e);
+		}
+	}
+
+
+	// UTIL
+	private static boolean hasContextParameter(Method method)
+	{
+		return method.getParameterCount() > 0 && method.getParameterTypes()[0] == CommandContext.class;
+	}
+
+	private static int getNumberOfArguments(Method method)
+	{
+		return method.getParameterCount()-(hasContextParameter(method) ? 1 : 0);
+	}
+
+	private static boolean isMessage(Annotation[] annotations)
+	{
+		for(Annotation annotation : annotations)
+			if(annotation instanceof Message)
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * @return the signature of the method in the format used by {@link MethodCommandBinder#getMethodSignatures()}
+	 */
+	private static String getSignature(Method method)
+	{
+		StringJoiner parameters = new StringJoiner(",", method.getName()+"(", ")");
+		for(Class<?> parameterType : method.getParameterTypes())
+			parameters.add(parameterType.getCanonicalName());
+
+		return parameters.toString();
+	}
+
+	private static Class<?> wrap(Class<?> type)
+	{
+		if(!type.isPrimitive())
+			return type;
+
+		return MethodType.methodType(type).wrap().returnType();
+	}
+
+
+	// GETTERS
+	@Override public String getName()
+	{
+		return this.name;
+	}
+
+	@Override public boolean canBeRunByConsole()
+	{
+		return this.canBeRunByConsole;
+	}
+
+	@Override public String getRequiredPermissionNode()
+	{
+		return this.requiredPermissionNode;
+	}
+
+	@Override public String getUsage()
+	{
+		return this.usage;
+	}
+
+	@Override public List<ArgumentSequence> getArgumentSequences()
+	{
+		return this.argumentSequences;
+	}
+
+	@Override public boolean isAsync()
+	{
+		return this.async;
+	}
+
+	/**
+	 * @return if all methods are called by a generated binder
+	 */
+	@API public boolean isBound()
+	{
+		for(ArgumentSequence argumentSequence : this.argumentSequences)
+			if(!((CommandMethodSequence) argumentSequence).isBound())
+				return false;
+
+		return true;
+	}
+
+
+	// COMMUNICATION
+	@Override public void sendUsageMessage(CommandContext context)
+	{
+		// all annotated commands share this class, so the command is looked up by its name instead
+		RegisteredCommand registeredCommand = MandatumLib.getCommandExecutor().getRegisteredCommand(this.name);
+		if(registeredCommand == null || registeredCommand.getStatelessCommand() != this)
+		{
+			super.sendUsageMessage(context);
+			return;
+		}
+
+		context.sendMessage(registeredCommand.getHelp().getUsageMessage(context.getSender(), context.getArgs()));
+	}
+
+
+	// EXECUTION
+	@Override public void execute(CommandContext context)
+	{
+		((CommandMethodSequence) context.getArgumentSequence()).invoke(context);
+	}
+
+}
@@ -0,0 +1,36 @@
+package de.domisum.lib.mandatum.cmd.method;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a public method of a {@link MethodCommand} class as one ArgumentSequence of the command.
+ * <p>
+ * The first parameter can be a {@link de.domisum.lib.mandatum.cmd.CommandContext}, the other parameters are the
+ * arguments of the sequence. Every parameter type needs an ArgumentType registered in
+ * {@link de.domisum.lib.mandatum.cmd.arg.ArgumentTypes}, primitive types use the type of their wrapper class. The last
+ * parameter can be a String annotated with {@link Message}, receiving all remaining words.
+ * <p>
+ * The methods are matched in the order of their priority, then the ones with more arguments first.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CommandMethod
+{
+
+	/**
+	 * @return the priority of the method, methods with a higher priority are matched first
+	 */
+	int priority() default 0;
+
+	/**
+	 * @return if the method is executed asynchronously
+	 * @see de.domisum.lib.mandatum.cmd.ArgumentSequence#async()
+	 */
+	boolean async() default false;
+
+}
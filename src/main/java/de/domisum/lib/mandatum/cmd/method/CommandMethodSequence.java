@@ -0,0 +1,82 @@
+package de.domisum.lib.mandatum.cmd.method;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.CommandContext;
+import de.domisum.lib.mandatum.util.ArgumentList;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * The ArgumentSequence of one {@link CommandMethod}, which calls the method once it has been selected.
+ */
+final class CommandMethodSequence extends ArgumentSequence
+{
+
+	// REFERENCES
+	private final Object target;
+	private final String signature;
+
+	// either the generated binder or the method handle is used
+	private final MethodCommandBinder<Object> binder;
+	private final int binderIndex;
+	private final MethodHandle handle;
+
+	// PROPERTIES
+	private final int messageIndex;
+
+
+	// CONSTRUCTOR
+	CommandMethodSequence(String name, Class<?>[] argumentClasses, Object target, String signature,
+			MethodCommandBinder<Object> binder, int binderIndex, MethodHandle handle, int messageIndex)
+	{
+		super(name, argumentClasses);
+
+		this.target = target;
+		this.signature = signature;
+		this.binder = binder;
+		this.binderIndex = binderIndex;
+		this.handle = handle;
+		this.messageIndex = messageIndex;
+	}
+
+
+	// GETTERS
+	boolean isBound()
+	{
+		return this.binder != null;
+	}
+
+
+	// EXECUTION
+	void invoke(CommandContext context)
+	{
+		Object[] values = context.getParsedArguments().getValues();
+
+		// the parsed value of a message is only its first word
+		if(this.messageIndex != -1)
+		{
+			values = values.clone();
+			values[this.messageIndex] = ArgumentList.join(context.getArgs(), this.messageIndex);
+		}
+
+		if(this.binder != null)
+		{
+			this.binder.invoke(this.target, this.binderIndex, context, values);
+			return;
+		}
+
+		try
+		{
+			this.handle.invokeExact(context, values);
+		}
+		catch(RuntimeException|Error e)
+		{
+			throw e;
+		}
+		catch(Throwable t)
+		{
+			throw new IllegalStateException("The command method '"+this.signature+"' failed", t);
+		}
+	}
+
+}
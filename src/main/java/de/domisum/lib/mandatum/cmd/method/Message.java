@@ -0,0 +1,19 @@
+package de.domisum.lib.mandatum.cmd.method;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the last String parameter of a {@link CommandMethod} as an
+ * {@link de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage}, receiving all remaining words joined by spaces.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Message
+{
+
+}
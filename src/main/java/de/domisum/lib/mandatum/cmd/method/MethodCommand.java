@@ -0,0 +1,55 @@
+package de.domisum.lib.mandatum.cmd.method;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose methods annotated with {@link CommandMethod} make up a command, as an alternative to subclassing
+ * {@link de.domisum.lib.mandatum.cmd.MandatumCommand}.
+ * <p>
+ * Example: {@code /heal [player] <health>}
+ * <pre>
+ * &#64;MethodCommand(name = "heal", usage = "/heal [player] &lt;health&gt;", permission = "example.heal")
+ * public class HealCommands
+ * {
+ *     &#64;CommandMethod public void heal(CommandContext context, Player player, double health) { ... }
+ *     &#64;CommandMethod public void heal(CommandContext context, double health) { ... }
+ * }
+ * </pre>
+ * Objects of the class are registered using {@link de.domisum.lib.mandatum.MandatumLib#registerMethodCommand(Object)}.
+ * If the annotation processor of the {@code MandatumLib-processor} artifact is on the annotation processor path, it
+ * generates a binder calling the methods directly, otherwise they are called through method handles.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface MethodCommand
+{
+
+	/**
+	 * @return the name of the command, which has to be listed in the plugin.yml
+	 */
+	String name();
+
+	/**
+	 * @return the usage of the command, {@code /name} if empty
+	 */
+	String usage() default "";
+
+	/**
+	 * @return the permission node required to use the command, none if empty
+	 */
+	String permission() default "";
+
+	boolean console() default true;
+
+	/**
+	 * @return if the methods are executed asynchronously
+	 * @see de.domisum.lib.mandatum.cmd.MandatumBaseCommand#isAsync()
+	 */
+	boolean async() default false;
+
+}
@@ -0,0 +1,31 @@
+package de.domisum.lib.mandatum.cmd.method;
+
+import de.domisum.lib.mandatum.cmd.CommandContext;
+
+/**
+ * Calls the {@link CommandMethod}s of one {@link MethodCommand} class directly. Binders are generated at build time by
+ * the annotation processor of the {@code MandatumLib-processor} artifact, in the package of the class and named
+ * {@code <class name>_MandatumBinder}, with the names of enclosing classes joined by underscores.
+ *
+ * @param <T> the class containing the methods
+ */
+public interface MethodCommandBinder<T>
+{
+
+	/**
+	 * @return the signatures of the methods in the order of their indexes, formatted like
+	 * {@code name(canonical parameter types separated by commas)}
+	 */
+	String[] getMethodSignatures();
+
+	/**
+	 * Calls the method with the index.
+	 *
+	 * @param target      the object the method is called on
+	 * @param methodIndex the index of the method, see {@link #getMethodSignatures()}
+	 * @param context     the invocation
+	 * @param values      the parsed arguments, without the context
+	 */
+	void invoke(T target, int methodIndex, CommandContext context, Object[] values);
+
+}
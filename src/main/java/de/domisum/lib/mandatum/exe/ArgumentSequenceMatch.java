@@ -0,0 +1,35 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+
+/**
+ * The ArgumentSequence selected for the arguments of a command, together with the values parsed while matching.
+ */
+public class ArgumentSequenceMatch
+{
+
+	// PROPERTIES
+	private final ArgumentSequence argumentSequence;
+	private final Object[] values;
+
+
+	// CONSTRUCTOR
+	ArgumentSequenceMatch(ArgumentSequence argumentSequence, Object[] values)
+	{
+		this.argumentSequence = argumentSequence;
+		this.values = values;
+	}
+
+
+	// GETTERS
+	public ArgumentSequence getArgumentSequence()
+	{
+		return this.argumentSequence;
+	}
+
+	public Object[] getValues()
+	{
+		return this.values;
+	}
+
+}
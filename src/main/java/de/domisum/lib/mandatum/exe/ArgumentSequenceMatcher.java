@@ -0,0 +1,295 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentType;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentTypes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ArgumentSequences of a command compiled into a prefix tree.
+ * <p>
+ * Sequences sharing the same argument types at the start share the same path in the tree, and every node knows the
+ * range of argument counts and the highest priority of the sequences below it. Matching walks the tree once, parses each
+ * argument at most once per distinct ArgumentType at its position and skips every subtree that can't contain a sequence
+ * fitting the number of arguments or beating the best match found so far.
+ * <p>
+ * Like before, the sequence that comes first in the list returned by the command wins if several sequences fit.
+ */
+public class ArgumentSequenceMatcher
+{
+
+	// CONSTANTS
+	private static final byte UNPARSED = 0;
+	private static final byte VALID = 1;
+	private static final byte INVALID = 2;
+	private static final ArgumentType<?>[] NO_ARGUMENT_TYPES = new ArgumentType<?>[0];
+
+	// PROPERTIES
+	private final List<ArgumentSequence> argumentSequences;
+	private final int numberOfSlots;
+	private final ArgumentType<?>[][] argumentTypesByPosition;
+	private final ArgumentType<?>[] distinctArgumentTypes;
+
+	// REFERENCES
+	private final Node root = new Node();
+
+
+	// CONSTRUCTOR
+	ArgumentSequenceMatcher(List<ArgumentSequence> argumentSequences)
+	{
+		// copy once, so the matcher doesn't change if the list of the command is modified later on
+		this.argumentSequences = Collections.unmodifiableList(new ArrayList<>(argumentSequences));
+
+		// every distinct ArgumentType at a position gets a slot, so each argument is only parsed once per type
+		List<Map<ArgumentType<?>, Integer>> slotsByDepth = new ArrayList<>();
+		int slotCount = 0;
+
+		for(int priority = 0; priority < this.argumentSequences.size(); priority++)
+		{
+			ArgumentSequence as = this.argumentSequences.get(priority);
+			int length = as.getNumberOfArguments();
+			boolean openEnded = length > 0 && as.getArgumentType(length-1) == ArgumentTypes.get(ArgumentMessage.class);
+			int maxArgs = openEnded ? Integer.MAX_VALUE : length;
+
+			int[] slots = new int[length];
+			Node node = this.root;
+			node.include(priority, length, maxArgs);
+			for(int depth = 0; depth < length; depth++)
+			{
+				if(slotsByDepth.size() == depth)
+					slotsByDepth.add(new IdentityHashMap<>());
+
+				ArgumentType<?> type = as.getArgumentType(depth);
+				Integer slot = slotsByDepth.get(depth).get(type);
+				if(slot == null)
+				{
+					slot = slotCount++;
+					slotsByDepth.get(depth).put(type, slot);
+				}
+				slots[depth] = slot;
+
+				node = node.getOrCreateChild(type, slot);
+				node.include(priority, length, maxArgs);
+			}
+
+			node.terminals.add(new Terminal(priority, as, slots, openEnded));
+		}
+
+		this.numberOfSlots = slotCount;
+
+		this.argumentTypesByPosition = new ArgumentType<?>[slotsByDepth.size()][];
+		for(int depth = 0; depth < slotsByDepth.size(); depth++)
+			this.argumentTypesByPosition[depth] = slotsByDepth.get(depth).keySet().toArray(new ArgumentType<?>[0]);
+
+		Map<ArgumentType<?>, Boolean> distinctArgumentTypes = new IdentityHashMap<>();
+		for(Map<ArgumentType<?>, Integer> slots : slotsByDepth)
+			for(ArgumentType<?> type : slots.keySet())
+				distinctArgumentTypes.put(type, Boolean.TRUE);
+		this.distinctArgumentTypes = distinctArgumentTypes.keySet().toArray(new ArgumentType<?>[0]);
+	}
+
+
+	// GETTERS
+	public List<ArgumentSequence> getArgumentSequences()
+	{
+		return this.argumentSequences;
+	}
+
+	/**
+	 * @param position the index of the argument
+	 * @return the distinct ArgumentTypes that the sequences of the command have at the provided position
+	 */
+	public ArgumentType<?>[] getArgumentTypes(int position)
+	{
+		if(position >= this.argumentTypesByPosition.length)
+			return NO_ARGUMENT_TYPES;
+
+		return this.argumentTypesByPosition[position];
+	}
+
+	/**
+	 * @return every ArgumentType used by the sequences of the command once, in no particular order
+	 */
+	ArgumentType<?>[] getDistinctArgumentTypes()
+	{
+		return this.distinctArgumentTypes;
+	}
+
+
+	// MATCHING
+
+	/**
+	 * Selects the ArgumentSequence with the highest priority that fits the provided arguments.
+	 *
+	 * @param args the arguments of the command
+	 * @return the match, or null if no ArgumentSequence fits
+	 */
+	public ArgumentSequenceMatch match(List<String> args)
+	{
+		MatchState state = new MatchState(args, this.numberOfSlots);
+		walk(this.root, 0, state);
+
+		Terminal best = state.best;
+		if(best == null)
+			return null;
+
+		Object[] values = new Object[best.slots.length];
+		for(int i = 0; i < values.length; i++)
+			values[i] = state.values[best.slots[i]];
+
+		return new ArgumentSequenceMatch(best.argumentSequence, values);
+	}
+
+	/**
+	 * Returns the error message of the highest priority ArgumentSequence fitting the number of arguments. This is only
+	 * used after {@link #match(List)} didn't find a fitting sequence, so it doesn't matter that the arguments are parsed
+	 * again.
+	 *
+	 * @param args the arguments of the command
+	 * @return the error message, or {@code ""} if the usage message should be sent instead
+	 */
+	public String getErrorMessage(List<String> args)
+	{
+		for(ArgumentSequence as : this.argumentSequences)
+			if(as.doesArgumentLengthFit(args))
+			{
+				String errorMessage = as.validateArguments(args);
+				return errorMessage == null ? "" : errorMessage;
+			}
+
+		return "";
+	}
+
+	private void walk(Node node, int depth, MatchState state)
+	{
+		int numberOfArgs = state.args.size();
+		if(numberOfArgs < node.minArgs || numberOfArgs > node.maxArgs)
+			return;
+
+		if(state.best != null && node.highestPriority >= state.best.priority)
+			return;
+
+		for(Terminal terminal : node.terminals)
+			if(depth == numberOfArgs || terminal.openEnded)
+			{
+				// terminals are ordered by priority, so the first fitting one is the best in this node
+				if(state.best == null || terminal.priority < state.best.priority)
+					state.best = terminal;
+				break;
+			}
+
+		if(depth >= numberOfArgs)
+			return;
+
+		for(Edge edge : node.edges)
+			if(state.parse(depth, edge))
+				walk(edge.child, depth+1, state);
+	}
+
+
+	// TREE
+	private static class Node
+	{
+
+		private final List<Edge> edges = new ArrayList<>();
+		private final List<Terminal> terminals = new ArrayList<>();
+
+		private int highestPriority = Integer.MAX_VALUE;
+		private int minArgs = Integer.MAX_VALUE;
+		private int maxArgs = 0;
+
+
+		private void include(int priority, int minArgs, int maxArgs)
+		{
+			this.highestPriority = Math.min(this.highestPriority, priority);
+			this.minArgs = Math.min(this.minArgs, minArgs);
+			this.maxArgs = Math.max(this.maxArgs, maxArgs);
+		}
+
+		private Node getOrCreateChild(ArgumentType<?> type, int slot)
+		{
+			for(Edge edge : this.edges)
+				if(edge.type == type)
+					return edge.child;
+
+			Edge edge = new Edge(type, slot, new Node());
+			this.edges.add(edge);
+			return edge.child;
+		}
+
+	}
+
+	private static class Edge
+	{
+
+		private final ArgumentType<?> type;
+		private final int slot;
+		private final Node child;
+
+
+		private Edge(ArgumentType<?> type, int slot, Node child)
+		{
+			this.type = type;
+			this.slot = slot;
+			this.child = child;
+		}
+
+	}
+
+	private static class Terminal
+	{
+
+		private final int priority;
+		private final ArgumentSequence argumentSequence;
+		private final int[] slots;
+		private final boolean openEnded;
+
+
+		private Terminal(int priority, ArgumentSequence argumentSequence, int[] slots, boolean openEnded)
+		{
+			this.priority = priority;
+			this.argumentSequence = argumentSequence;
+			this.slots = slots;
+			this.openEnded = openEnded;
+		}
+
+	}
+
+	private static class MatchState
+	{
+
+		private final List<String> args;
+		private final Object[] values;
+		private final byte[] states;
+
+		private Terminal best;
+
+
+		private MatchState(List<String> args, int numberOfSlots)
+		{
+			this.args = args;
+			this.values = new Object[numberOfSlots];
+			this.states = new byte[numberOfSlots];
+		}
+
+		private boolean parse(int depth, Edge edge)
+		{
+			if(this.states[edge.slot] == UNPARSED)
+			{
+				Object value = edge.type.parse(this.args.get(depth));
+				this.values[edge.slot] = value;
+				this.states[edge.slot] = value == null ? INVALID : VALID;
+			}
+
+			return this.states[edge.slot] == VALID;
+		}
+
+	}
+
+}
@@ -0,0 +1,179 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.cmd.MandatumStatelessCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSuperCommand;
+import de.domisum.lib.mandatum.limit.CommandLimiter;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything resolved from a command class itself, independent of where the command is placed in a command tree.
+ * <p>
+ * A definition is resolved once per class and shared by all {@link RegisteredCommand}s of that class, so registering a
+ * command again or rebuilding its tree neither resolves the constructor and ArgumentSequences again nor resets the
+ * limits of the players. It can't be changed after it has been created.
+ */
+class CommandDefinition
+{
+
+	// PROPERTIES
+	private final Class<? extends MandatumBaseCommand> commandClass;
+	private final String name;
+	private final String superCommandName;
+	private final boolean canBeRunByConsole;
+	private final String requiredPermissionNode;
+	private final String usage;
+	private final String subCommandsClassPath;
+	private final boolean checksShouldExecute;
+
+	// REFERENCES
+	private final CommandFactory factory;
+	private final MandatumStatelessCommand statelessCommand;
+	private final ArgumentSequenceMatcher matcher;
+	private final CommandLimiter limiter;
+	private final Map<ArgumentSequence, CommandLimiter> argumentSequenceLimiters;
+
+
+	// CONSTRUCTOR
+	CommandDefinition(Class<? extends MandatumBaseCommand> commandClass, CommandFactory factory)
+	{
+		this.commandClass = commandClass;
+		this.factory = factory;
+
+		// stateless commands only have this one object, for other commands it is only used to read their properties
+		MandatumBaseCommand prototype = factory.create(null, null);
+		this.statelessCommand = prototype instanceof MandatumStatelessCommand ? (MandatumStatelessCommand) prototype : null;
+		this.name = prototype.getName();
+
+		// these are checked before the command object is created
+		this.canBeRunByConsole = prototype.canBeRunByConsole();
+		this.requiredPermissionNode = prototype.getRequiredPermissionNode();
+		this.usage = prototype.getUsage();
+		this.limiter = prototype.getLimit() != null ? new CommandLimiter(prototype.getLimit()) : null;
+
+		this.superCommandName = prototype instanceof MandatumSubCommand ?
+				((MandatumSubCommand) prototype).getSuperCommandName() :
+				null;
+		this.subCommandsClassPath = prototype instanceof MandatumSubCommand ?
+				((MandatumSubCommand) prototype).getSubCommandsClassPath() :
+				null;
+		this.checksShouldExecute = prototype instanceof MandatumSuperCommand && overridesShouldExecute(commandClass);
+
+		// commands with subcommands pass their arguments through to the subcommands, so they don't have ArgumentSequences
+		if(prototype instanceof MandatumSuperCommand || this.subCommandsClassPath != null)
+		{
+			this.matcher = null;
+			this.argumentSequenceLimiters = Collections.emptyMap();
+		}
+		else
+		{
+			List<ArgumentSequence> argumentSequences = prototype.getArgumentSequences();
+			if(argumentSequences == null)
+				throw new IllegalArgumentException(
+						"The command class '"+commandClass.getName()+"' doesn't return any argument sequences");
+
+			this.matcher = new ArgumentSequenceMatcher(argumentSequences);
+			Map<ArgumentSequence, CommandLimiter> argumentSequenceLimiters = new IdentityHashMap<>();
+			for(ArgumentSequence argumentSequence : argumentSequences)
+				if(argumentSequence.getLimit() != null)
+					argumentSequenceLimiters.put(argumentSequence, new CommandLimiter(argumentSequence.getLimit()));
+			this.argumentSequenceLimiters = argumentSequenceLimiters;
+		}
+	}
+
+	private static boolean overridesShouldExecute(Class<?> commandClass)
+	{
+		for(Class<?> clazz = commandClass; clazz != MandatumSuperCommand.class; clazz = clazz.getSuperclass())
+			try
+			{
+				clazz.getDeclaredMethod("shouldExecute");
+				return true;
+			}
+			catch(NoSuchMethodException ignored)
+			{
+				// check the superclass
+			}
+
+		return false;
+	}
+
+
+	// GETTERS
+	Class<? extends MandatumBaseCommand> getCommandClass()
+	{
+		return this.commandClass;
+	}
+
+	String getName()
+	{
+		return this.name;
+	}
+
+	/**
+	 * @return the name of the supercommand of a subcommand, null for other commands
+	 */
+	String getSuperCommandName()
+	{
+		return this.superCommandName;
+	}
+
+	boolean canBeRunByConsole()
+	{
+		return this.canBeRunByConsole;
+	}
+
+	String getRequiredPermissionNode()
+	{
+		return this.requiredPermissionNode;
+	}
+
+	String getUsage()
+	{
+		return this.usage;
+	}
+
+	String getSubCommandsClassPath()
+	{
+		return this.subCommandsClassPath;
+	}
+
+	boolean checksShouldExecute()
+	{
+		return this.checksShouldExecute;
+	}
+
+	MandatumStatelessCommand getStatelessCommand()
+	{
+		return this.statelessCommand;
+	}
+
+	ArgumentSequenceMatcher getMatcher()
+	{
+		return this.matcher;
+	}
+
+	CommandLimiter getLimiter()
+	{
+		return this.limiter;
+	}
+
+	CommandLimiter getLimiter(ArgumentSequence argumentSequence)
+	{
+		return this.argumentSequenceLimiters.get(argumentSequence);
+	}
+
+
+	// CREATION
+	MandatumBaseCommand createCommand(CommandSender sender, List<String> args)
+	{
+		return this.factory.create(sender, args);
+	}
+
+}
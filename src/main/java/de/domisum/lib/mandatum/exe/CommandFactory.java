@@ -0,0 +1,140 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.cmd.MandatumStatelessCommand;
+import org.bukkit.command.CommandSender;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Creates the command objects for one command class.
+ * <p>
+ * The factory is resolved once when the command is registered, so dispatching a command doesn't have to look up and
+ * reflectively call the constructor every time. Plugins can supply their own factory (for example a constructor
+ * reference like {@code HealCommand::new}) using {@link MandatumCommandExecutor#setCommandFactory(Class, CommandFactory)}.
+ */
+@FunctionalInterface
+public interface CommandFactory
+{
+
+	// CONSTANTS
+	MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, CommandSender.class, List.class);
+	MethodType FACTORY_TYPE = MethodType.methodType(MandatumBaseCommand.class, CommandSender.class, List.class);
+
+
+	// CREATION
+
+	/**
+	 * Creates a new command object.
+	 *
+	 * @param sender the sender of the command, null if the command was sent by the console or is only created to read its
+	 *               properties
+	 * @param args   the arguments of the command
+	 * @return the new command object
+	 */
+	MandatumBaseCommand create(CommandSender sender, List<String> args);
+
+
+	// RESOLVING
+
+	/**
+	 * Returns a factory always returning the provided command object. This is used for
+	 * {@link MandatumStatelessCommand}s, which are shared by all invocations.
+	 *
+	 * @param command the command object
+	 * @return the factory returning the command object
+	 */
+	@API static CommandFactory singleton(MandatumStatelessCommand command)
+	{
+		return (sender, args)->command;
+	}
+
+	/**
+	 * Resolves the {@code (CommandSender, List)} constructor of the provided command class and returns a factory invoking it
+	 * through a {@link MethodHandle}.
+	 * <p>
+	 * For {@link MandatumStatelessCommand}s, the constructor without parameters is called once and the factory always
+	 * returns the resulting object.
+	 *
+	 * @param commandClazz the class of the command
+	 * @return the factory creating objects of the command class
+	 * @throws IllegalArgumentException if the class can't be instantiated or doesn't have a public constructor with the
+	 *                                  parameters {@code (CommandSender, List)}
+	 */
+	@API static CommandFactory forClass(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		if(Modifier.isAbstract(commandClazz.getModifiers()))
+			throw new IllegalArgumentException("The command class '"+commandClazz.getName()+"' is abstract");
+
+		if(MandatumStatelessCommand.class.isAssignableFrom(commandClazz))
+			return singleton(createStatelessCommand(commandClazz.asSubclass(MandatumStatelessCommand.class)));
+
+		MethodHandle constructor;
+		try
+		{
+			constructor = MethodHandles.publicLookup().findConstructor(commandClazz, CONSTRUCTOR_TYPE).asType(FACTORY_TYPE);
+		}
+		catch(NoSuchMethodException|IllegalAccessException e)
+		{
+			throw new IllegalArgumentException("The command class '"+commandClazz.getName()
+					+"' doesn't have a public constructor with the parameters (CommandSender, List)", e);
+		}
+
+		return (sender, args)->
+		{
+			try
+			{
+				return (MandatumBaseCommand) constructor.invokeExact(sender, args);
+			}
+			catch(RuntimeException|Error e)
+			{
+				throw e;
+			}
+			catch(Throwable t)
+			{
+				throw new IllegalStateException("The constructor of the command class '"+commandClazz.getName()+"' failed", t);
+			}
+		};
+	}
+
+	/**
+	 * Creates the single object of a stateless command class using its constructor without parameters.
+	 *
+	 * @param commandClazz the class of the command
+	 * @return the command object
+	 * @throws IllegalArgumentException if the class doesn't have a public constructor without parameters
+	 */
+	static MandatumStatelessCommand createStatelessCommand(Class<? extends MandatumStatelessCommand> commandClazz)
+	{
+		MethodHandle constructor;
+		try
+		{
+			constructor = MethodHandles.publicLookup().findConstructor(commandClazz, MethodType.methodType(void.class));
+		}
+		catch(NoSuchMethodException|IllegalAccessException e)
+		{
+			throw new IllegalArgumentException(
+					"The stateless command class '"+commandClazz.getName()+"' doesn't have a public constructor without parameters",
+					e);
+		}
+
+		try
+		{
+			return (MandatumStatelessCommand) constructor.invoke();
+		}
+		catch(RuntimeException|Error e)
+		{
+			throw e;
+		}
+		catch(Throwable t)
+		{
+			throw new IllegalStateException("The constructor of the command class '"+commandClazz.getName()+"' failed", t);
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence.ArgumentMessage;
+import de.domisum.lib.mandatum.util.MultiLineMessage;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The usage and help messages of a command, rendered once from its usage, its ArgumentSequences and its subcommands.
+ * <p>
+ * Commands with subcommands list them sorted by name, split into pages of {@value #SUBCOMMANDS_PER_PAGE}. The pages
+ * listing all subcommands are cached, only for senders who can't use some of the subcommands the pages are rendered
+ * again. Every page is sent as one message, see {@link MultiLineMessage}.
+ */
+public class CommandHelp
+{
+
+	// CONSTANTS
+	@API public static final int SUBCOMMANDS_PER_PAGE = 8;
+	private static final int MAX_PAGE_DIGITS = 4;
+
+	// REFERENCES
+	private final RegisteredCommand registeredCommand;
+
+	// PROPERTIES
+	private final String usageLine;
+	private final MultiLineMessage usageMessage;
+	private final List<RegisteredCommand> subCommands;
+	private final MultiLineMessage[] subCommandPages;
+
+
+	// CONSTRUCTOR
+	CommandHelp(RegisteredCommand registeredCommand)
+	{
+		this.registeredCommand = registeredCommand;
+		this.usageLine = "The command format is wrong. Please use: "+registeredCommand.getUsage();
+
+		List<String> usageLines = new ArrayList<>();
+		usageLines.add(this.usageLine);
+		if(registeredCommand.getMatcher() != null)
+			for(ArgumentSequence argumentSequence : registeredCommand.getMatcher().getArgumentSequences())
+				usageLines.add(" /"+registeredCommand.getCommandPath()+renderArguments(argumentSequence));
+		this.usageMessage = new MultiLineMessage(usageLines);
+
+		List<RegisteredCommand> subCommands = new ArrayList<>(registeredCommand.getSubCommands());
+		subCommands.sort(Comparator.comparing(RegisteredCommand::getName, String.CASE_INSENSITIVE_ORDER));
+		this.subCommands = Collections.unmodifiableList(subCommands);
+
+		this.subCommandPages = new MultiLineMessage[getNumberOfPages(subCommands.size())];
+		for(int page = 0; page < this.subCommandPages.length; page++)
+			this.subCommandPages[page] = renderPage(subCommands, page);
+	}
+
+	private static String renderArguments(ArgumentSequence argumentSequence)
+	{
+		StringBuilder arguments = new StringBuilder();
+		for(int i = 0; i < argumentSequence.getNumberOfArguments(); i++)
+		{
+			Class<?> argumentClass = argumentSequence.getArgumentClass(i);
+			String argumentName = argumentClass == ArgumentMessage.class ?
+					"message..." :
+					argumentClass.getSimpleName().toLowerCase(Locale.ROOT);
+			arguments.append(" <").append(argumentName).append(">");
+		}
+
+		return arguments.toString();
+	}
+
+	private MultiLineMessage renderPage(List<RegisteredCommand> subCommands, int page)
+	{
+		int numberOfPages = getNumberOfPages(subCommands.size());
+
+		List<String> lines = new ArrayList<>(SUBCOMMANDS_PER_PAGE+3);
+		lines.add(this.usageLine);
+		lines.add(numberOfPages > 1 ?
+				"These subcommands exist (page "+(page+1)+"/"+numberOfPages+"):" :
+				"These subcommands exist:");
+
+		int end = Math.min(subCommands.size(), (page+1)*SUBCOMMANDS_PER_PAGE);
+		for(int i = page*SUBCOMMANDS_PER_PAGE; i < end; i++)
+			lines.add(" - "+subCommands.get(i).getName());
+
+		if(page+1 < numberOfPages)
+			lines.add("Use '/"+this.registeredCommand.getCommandPath()+" "+(page+2)+"' to see the next page.");
+
+		return new MultiLineMessage(lines);
+	}
+
+	private static int getNumberOfPages(int numberOfSubCommands)
+	{
+		return Math.max(1, (numberOfSubCommands+SUBCOMMANDS_PER_PAGE-1)/SUBCOMMANDS_PER_PAGE);
+	}
+
+
+	// GETTERS
+
+	/**
+	 * Returns the message telling the sender how to use the command. For commands with subcommands, this is the page of
+	 * the subcommands the sender can use selected by the first argument, if it is a page number.
+	 *
+	 * @param sender the sender of the command, null for the console
+	 * @param args   the arguments of the command, starting after the name of the command
+	 * @return the usage message
+	 */
+	@API public MultiLineMessage getUsageMessage(Player sender, List<String> args)
+	{
+		if(!this.registeredCommand.isSuperCommand())
+			return this.usageMessage;
+
+		List<RegisteredCommand> visibleSubCommands = getVisibleSubCommands(sender);
+		int page = Math.min(parsePage(args), getNumberOfPages(visibleSubCommands.size()))-1;
+
+		// the cached pages can only be used if the sender sees all subcommands
+		if(visibleSubCommands == this.subCommands)
+			return this.subCommandPages[page];
+
+		return renderPage(visibleSubCommands, page);
+	}
+
+	private List<RegisteredCommand> getVisibleSubCommands(Player sender)
+	{
+		MandatumCommandExecutor commandExecutor = MandatumLib.getCommandExecutor();
+
+		// the list is only copied if the sender can't see one of the subcommands
+		List<RegisteredCommand> visibleSubCommands = null;
+		for(int i = 0; i < this.subCommands.size(); i++)
+		{
+			RegisteredCommand subCommand = this.subCommands.get(i);
+			boolean visible = commandExecutor.hasPermission(sender, subCommand);
+
+			if(!visible && visibleSubCommands == null)
+				visibleSubCommands = new ArrayList<>(this.subCommands.subList(0, i));
+			else if(visible && visibleSubCommands != null)
+				visibleSubCommands.add(subCommand);
+		}
+
+		return visibleSubCommands == null ? this.subCommands : visibleSubCommands;
+	}
+
+	/**
+	 * @param args the arguments of a command with subcommands, starting after the name of the command
+	 * @return if the arguments only consist of the number of a page of the subcommands, which isn't a usage error
+	 */
+	static boolean isPageRequest(List<String> args)
+	{
+		return args.size() == 1 && parsePageNumber(args.get(0)) > 0;
+	}
+
+	private static int parsePage(List<String> args)
+	{
+		if(args == null || args.isEmpty())
+			return 1;
+
+		return Math.max(1, parsePageNumber(args.get(0)));
+	}
+
+	/**
+	 * @param arg the argument
+	 * @return the page number, -1 if the argument isn't a number
+	 */
+	private static int parsePageNumber(String arg)
+	{
+		if(arg.isEmpty() || arg.length() > MAX_PAGE_DIGITS)
+			return -1;
+
+		int page = 0;
+		for(int i = 0; i < arg.length(); i++)
+		{
+			char character = arg.charAt(i);
+			if(character < '0' || character > '9')
+				return -1;
+
+			page = page*10+(character-'0');
+		}
+
+		return page;
+	}
+
+}
@@ -0,0 +1,190 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.util.BKTree;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * The top level commands of the executor by their lowercase names.
+ * <p>
+ * The commands are held in an immutable snapshot, which is copied and swapped atomically on every change. Dispatching
+ * reads the current snapshot without any locking and always sees a consistent state, while commands can be
+ * registered, replaced and unregistered from any thread, for example when a module is loaded or reloaded at runtime.
+ * Changes are rare compared to lookups, so copying the whole map on every change is cheap enough.
+ */
+public class CommandRegistry
+{
+
+	// STATUS
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Collections.emptyMap(), 0));
+
+
+	// GETTERS
+
+	/**
+	 * @param commandName the name of the command, in any case
+	 * @return the command, null if no command with this name is registered
+	 */
+	@API public RegisteredCommand get(String commandName)
+	{
+		return this.snapshot.get().commands.get(commandName.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * @return a read-only view of all registered commands at this moment, which isn't affected by later changes
+	 */
+	@API public Map<String, RegisteredCommand> getCommands()
+	{
+		return this.snapshot.get().commands;
+	}
+
+	/**
+	 * Returns the number of changes made to the registry so far, which can be used to notice changes.
+	 *
+	 * @return the version of the registry
+	 */
+	@API public long getVersion()
+	{
+		return this.snapshot.get().version;
+	}
+
+
+	/**
+	 * @return the names of the commands at this moment, searchable for the names closest to a misspelled name
+	 */
+	@API public BKTree getCommandNames()
+	{
+		return this.snapshot.get().names;
+	}
+
+
+	// CHANGERS
+
+	/**
+	 * Registers the commands, replacing any commands previously registered with the same names.
+	 *
+	 * @param commands the commands by their names
+	 */
+	@API public void registerAll(Map<String, RegisteredCommand> commands)
+	{
+		update(current->
+		{
+			Map<String, RegisteredCommand> updated = new HashMap<>(current);
+			for(Entry<String, RegisteredCommand> entry : commands.entrySet())
+				updated.put(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue());
+
+			return updated;
+		});
+	}
+
+	/**
+	 * Registers the command under the name.
+	 *
+	 * @param commandName the name of the command
+	 * @param command     the command
+	 * @throws IllegalStateException if another command is already registered under the name
+	 */
+	@API public void register(String commandName, RegisteredCommand command)
+	{
+		String key = commandName.toLowerCase(Locale.ROOT);
+		update(current->
+		{
+			RegisteredCommand registered = current.get(key);
+			if(registered != null && registered != command)
+				throw new IllegalStateException(
+						"The command '"+key+"' is already registered to '"+registered.getCommandClass().getName()+"'");
+
+			return with(current, key, command);
+		});
+	}
+
+	/**
+	 * Replaces the command registered under the name. Invocations dispatched before the change are completed by the
+	 * old command.
+	 *
+	 * @param commandName the name of the command
+	 * @param command     the new command
+	 * @return the command that has been replaced, null if no command was registered under the name
+	 */
+	@API public RegisteredCommand replace(String commandName, RegisteredCommand command)
+	{
+		String key = commandName.toLowerCase(Locale.ROOT);
+		return update(current->with(current, key, command)).commands.get(key);
+	}
+
+	/**
+	 * @param commandName the name of the command
+	 * @return the command that has been unregistered, null if no command was registered under the name
+	 */
+	@API public RegisteredCommand unregister(String commandName)
+	{
+		String key = commandName.toLowerCase(Locale.ROOT);
+		return update(current->
+		{
+			if(!current.containsKey(key))
+				return current;
+
+			Map<String, RegisteredCommand> updated = new HashMap<>(current);
+			updated.remove(key);
+			return updated;
+		}).commands.get(key);
+	}
+
+	private static Map<String, RegisteredCommand> with(Map<String, RegisteredCommand> commands, String key,
+			RegisteredCommand command)
+	{
+		Map<String, RegisteredCommand> updated = new HashMap<>(commands);
+		updated.put(key, command);
+		return updated;
+	}
+
+	/**
+	 * Applies the change to the current snapshot and swaps in the result, retrying if another thread changed the
+	 * registry meanwhile.
+	 *
+	 * @param change creates the changed copy of the commands, or returns its argument if nothing changes
+	 * @return the snapshot the change has been applied to
+	 */
+	private Snapshot update(Function<Map<String, RegisteredCommand>, Map<String, RegisteredCommand>> change)
+	{
+		while(true)
+		{
+			Snapshot current = this.snapshot.get();
+			Map<String, RegisteredCommand> changed = change.apply(current.commands);
+			if(changed == current.commands)
+				return current;
+
+			Snapshot updated = new Snapshot(Collections.unmodifiableMap(changed), current.version+1);
+			if(this.snapshot.compareAndSet(current, updated))
+				return current;
+		}
+	}
+
+
+	private static class Snapshot
+	{
+
+		private final Map<String, RegisteredCommand> commands;
+		private final long version;
+
+		// built along with the snapshot, changes are rare enough to not update it incrementally
+		private final BKTree names;
+
+
+		private Snapshot(Map<String, RegisteredCommand> commands, long version)
+		{
+			this.commands = commands;
+			this.version = version;
+			this.names = BKTree.of(commands.keySet());
+		}
+
+	}
+
+}
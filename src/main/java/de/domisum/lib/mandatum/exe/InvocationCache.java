@@ -0,0 +1,305 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentType;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers how the most recently dispatched command lines have been resolved, so repeating the same line skips
+ * walking the command tree and matching the arguments against the ArgumentSequences.
+ * <p>
+ * The lines are identified by their top level command and their exact arguments. For each line, the selected
+ * subcommand, the fitting ArgumentSequence and the parsed values are stored together with the
+ * {@link ArgumentType#getVersion() versions} of the ArgumentTypes of the command, which are read before the arguments
+ * are matched. A line is only reused while these versions are unchanged, so for example a player argument never selects
+ * another player than matching the line again would select now, and a sequence that failed for a player who was offline
+ * isn't skipped anymore once the player is online. Lines are only stored if the selected ArgumentSequence and the
+ * sequences of the same length before it only contain {@link ArgumentType#isCacheable() cacheable} types, since a
+ * sequence before the selected one could fit once its arguments are parsed again. Only the resolution is reused: the
+ * console and permission checks, the limits and the execution happen for every invocation.
+ * <p>
+ * The least recently used line is dropped once the capacity is reached. All lines are dropped when the
+ * {@link CommandRegistry} changes. Plugins changing the ArgumentTypes or subcommands at runtime have to call
+ * {@link #invalidateAll()} themselves.
+ */
+public class InvocationCache
+{
+
+	// PROPERTIES
+	private final int capacity;
+
+	// STATUS
+	private final Map<Key, CachedInvocation> invocations;
+	private long registryVersion = -1;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param capacity the maximum number of command lines remembered
+	 */
+	@API public InvocationCache(int capacity)
+	{
+		if(capacity <= 0)
+			throw new IllegalArgumentException("The capacity has to be positive, not "+capacity);
+
+		this.capacity = capacity;
+		this.invocations = new LinkedHashMap<Key, CachedInvocation>(16, 0.75f, true)
+		{
+			@Override protected boolean removeEldestEntry(Map.Entry<Key, CachedInvocation> eldest)
+			{
+				return size() > InvocationCache.this.capacity;
+			}
+		};
+	}
+
+
+	// GETTERS
+	@API public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	@API public synchronized int size()
+	{
+		return this.invocations.size();
+	}
+
+	/**
+	 * @return the number of invocations resolved from the cache
+	 */
+	@API public long getHits()
+	{
+		return this.hits.sum();
+	}
+
+	/**
+	 * @return the number of invocations that had to be resolved, including the ones that can't be cached
+	 */
+	@API public long getMisses()
+	{
+		return this.misses.sum();
+	}
+
+
+	// INVALIDATION
+	@API public synchronized void invalidateAll()
+	{
+		this.invocations.clear();
+	}
+
+
+	// CACHE
+
+	/**
+	 * @param registryVersion the current version of the registry, all lines are dropped if it has changed
+	 * @param command         the top level command
+	 * @param args            the arguments of the command, including the names of the subcommands
+	 * @return the resolution of the line, null if it isn't cached or one of its ArgumentTypes has changed since
+	 */
+	CachedInvocation get(long registryVersion, RegisteredCommand command, List<String> args)
+	{
+		Key key = new Key(command, args);
+		CachedInvocation cachedInvocation;
+		synchronized(this)
+		{
+			if(registryVersion != this.registryVersion)
+			{
+				this.invocations.clear();
+				this.registryVersion = registryVersion;
+			}
+
+			cachedInvocation = this.invocations.get(key);
+		}
+
+		if(cachedInvocation != null && !cachedInvocation.isCurrent())
+		{
+			synchronized(this)
+			{
+				this.invocations.remove(key, cachedInvocation);
+			}
+			cachedInvocation = null;
+		}
+
+		if(cachedInvocation == null)
+			this.misses.increment();
+		else
+			this.hits.increment();
+
+		return cachedInvocation;
+	}
+
+	/**
+	 * Reads the versions of the ArgumentTypes of the command. This has to be done before its arguments are matched, so a
+	 * type changing while they are matched makes the stored line outdated instead of wrong.
+	 *
+	 * @param matcher the matcher of the command
+	 * @return the versions of the {@link ArgumentSequenceMatcher#getDistinctArgumentTypes() types} of the matcher
+	 */
+	static long[] readVersions(ArgumentSequenceMatcher matcher)
+	{
+		ArgumentType<?>[] argumentTypes = matcher.getDistinctArgumentTypes();
+		long[] versions = new long[argumentTypes.length];
+		for(int i = 0; i < argumentTypes.length; i++)
+			versions[i] = argumentTypes[i].getVersion();
+
+		return versions;
+	}
+
+	/**
+	 * Stores the resolution of the line, unless it could be resolved differently without any ArgumentType changing its
+	 * version.
+	 *
+	 * @param command           the top level command
+	 * @param args              the arguments of the command, including the names of the subcommands
+	 * @param registeredCommand the selected command or subcommand
+	 * @param depth             the number of arguments naming subcommands
+	 * @param match             the match of the remaining arguments
+	 * @param versions          the versions read by {@link #readVersions(ArgumentSequenceMatcher)} before matching
+	 */
+	void put(RegisteredCommand command, List<String> args, RegisteredCommand registeredCommand, int depth,
+			ArgumentSequenceMatch match, long[] versions)
+	{
+		ArgumentSequenceMatcher matcher = registeredCommand.getMatcher();
+		if(!isCacheable(matcher, args.subList(depth, args.size()), match.getArgumentSequence()))
+			return;
+
+		// the arguments passed in can be a view of an array owned by the caller, so the key gets its own copy
+		Key key = new Key(command, Arrays.asList(args.toArray(new String[0])));
+		CachedInvocation cachedInvocation = new CachedInvocation(registeredCommand, depth, match.getArgumentSequence(),
+				match.getValues().clone(), matcher.getDistinctArgumentTypes(), versions);
+		synchronized(this)
+		{
+			this.invocations.put(key, cachedInvocation);
+		}
+	}
+
+	private static boolean isCacheable(ArgumentSequenceMatcher matcher, List<String> args, ArgumentSequence selected)
+	{
+		// the sequences before the selected one didn't fit, which has to stay that way as long as the versions don't change
+		for(ArgumentSequence argumentSequence : matcher.getArgumentSequences())
+		{
+			if(argumentSequence == selected || argumentSequence.doesArgumentLengthFit(args))
+				for(int i = 0; i < argumentSequence.getNumberOfArguments(); i++)
+					if(!argumentSequence.getArgumentType(i).isCacheable())
+						return false;
+
+			if(argumentSequence == selected)
+				return true;
+		}
+
+		return true;
+	}
+
+
+	// ENTRIES
+	static class CachedInvocation
+	{
+
+		private final RegisteredCommand registeredCommand;
+		private final int depth;
+		private final ArgumentSequence argumentSequence;
+		private final Object[] values;
+		private final ArgumentType<?>[] argumentTypes;
+		private final long[] versions;
+
+
+		private CachedInvocation(RegisteredCommand registeredCommand, int depth, ArgumentSequence argumentSequence,
+				Object[] values, ArgumentType<?>[] argumentTypes, long[] versions)
+		{
+			this.registeredCommand = registeredCommand;
+			this.depth = depth;
+			this.argumentSequence = argumentSequence;
+			this.values = values;
+			this.argumentTypes = argumentTypes;
+			this.versions = versions;
+		}
+
+
+		RegisteredCommand getRegisteredCommand()
+		{
+			return this.registeredCommand;
+		}
+
+		int getDepth()
+		{
+			return this.depth;
+		}
+
+		/**
+		 * @return a match with its own copy of the values, since the commands can access the array
+		 */
+		ArgumentSequenceMatch createMatch()
+		{
+			return new ArgumentSequenceMatch(this.argumentSequence, this.values.clone());
+		}
+
+		/**
+		 * @return if none of the ArgumentTypes of the command has changed since the line has been resolved
+		 */
+		private boolean isCurrent()
+		{
+			for(int i = 0; i < this.argumentTypes.length; i++)
+				if(this.argumentTypes[i].getVersion() != this.versions[i])
+					return false;
+
+			return true;
+		}
+
+	}
+
+	private static class Key
+	{
+
+		private final RegisteredCommand command;
+		private final List<String> args;
+		private final int hashCode;
+
+
+		private Key(RegisteredCommand command, List<String> args)
+		{
+			this.command = command;
+			this.args = args;
+
+			int hash = System.identityHashCode(command);
+			for(int i = 0; i < args.size(); i++)
+				hash = hash*31+args.get(i).hashCode();
+			this.hashCode = hash;
+		}
+
+
+		@Override public boolean equals(Object o)
+		{
+			if(this == o)
+				return true;
+			if(!(o instanceof Key))
+				return false;
+
+			Key other = (Key) o;
+			if(this.command != other.command || this.hashCode != other.hashCode || this.args.size() != other.args.size())
+				return false;
+
+			for(int i = 0; i < this.args.size(); i++)
+				if(!this.args.get(i).equals(other.args.get(i)))
+					return false;
+
+			return true;
+		}
+
+		@Override public int hashCode()
+		{
+			return this.hashCode;
+		}
+
+	}
+
+}
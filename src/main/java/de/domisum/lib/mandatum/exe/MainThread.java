@@ -0,0 +1,79 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Hands work from asynchronous commands back to the server main thread, where the Bukkit API may be used safely.
+ */
+public final class MainThread
+{
+
+	// CONSTRUCTOR
+	private MainThread()
+	{
+
+	}
+
+
+	// EXECUTION
+
+	/**
+	 * Runs the provided task on the main thread. If this is already the main thread, the task is run immediately,
+	 * otherwise it is scheduled for the next tick.
+	 *
+	 * @param task the task to run
+	 */
+	@API public static void run(Runnable task)
+	{
+		if(Bukkit.isPrimaryThread())
+		{
+			task.run();
+			return;
+		}
+
+		Bukkit.getScheduler().runTask(MandatumLib.getInstance().getPlugin(), ()->
+		{
+			try
+			{
+				task.run();
+			}
+			catch(RuntimeException e)
+			{
+				MandatumLib.getLogger().log(Level.SEVERE, "A task handed to the main thread failed", e);
+			}
+		});
+	}
+
+	/**
+	 * Computes a value on the main thread. If this is already the main thread, the value is computed immediately,
+	 * otherwise it is computed in the next tick.
+	 *
+	 * @param supplier the supplier computing the value
+	 * @param <T>      the type of the value
+	 * @return the future completed with the value on the main thread
+	 */
+	@API public static <T> CompletableFuture<T> call(Supplier<T> supplier)
+	{
+		CompletableFuture<T> future = new CompletableFuture<>();
+		run(()->
+		{
+			try
+			{
+				future.complete(supplier.get());
+			}
+			catch(RuntimeException e)
+			{
+				future.completeExceptionally(e);
+			}
+		});
+
+		return future;
+	}
+
+}
@@ -1,168 +1,913 @@
 package de.domisum.lib.mandatum.exe;
 
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.audit.AuditLog;
+import de.domisum.lib.mandatum.audit.AuditRecord;
+import de.domisum.lib.mandatum.batch.BatchReport;
+import de.domisum.lib.mandatum.batch.BatchRunner;
+import de.domisum.lib.mandatum.batch.BatchSettings;
 import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.CommandContext;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
 import de.domisum.lib.mandatum.cmd.MandatumCommand;
+import de.domisum.lib.mandatum.cmd.MandatumStatelessCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
 import de.domisum.lib.mandatum.cmd.MandatumSuperCommand;
+import de.domisum.lib.mandatum.cmd.arg.ParsedArguments;
+import de.domisum.lib.mandatum.exe.InvocationCache.CachedInvocation;
+import de.domisum.lib.mandatum.limit.CommandLimiter;
+import de.domisum.lib.mandatum.metrics.CommandMetrics;
+import de.domisum.lib.mandatum.metrics.CommandOutcome;
+import de.domisum.lib.mandatum.metrics.MandatumMetrics;
+import de.domisum.lib.mandatum.permission.PermissionCache;
+import de.domisum.lib.mandatum.util.ArgumentList;
+import de.domisum.lib.mandatum.watchdog.CommandWatchdog;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.Arrays;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 public class MandatumCommandExecutor implements CommandExecutor
 {
 
+	// CONSTANTS
+	// batches collect the console messages of their commands instead of logging them
+	private static final ThreadLocal<Consumer<String>> consoleMessageSink = new ThreadLocal<>();
+
 	// REFERENCES
-	private Map<String, Class<? extends MandatumCommand>> commandClasses = new HashMap<>();
+	private final CommandRegistry registry = new CommandRegistry();
+	// commands are resolved in parallel when registering several packages at once
+	private final Map<Class<? extends MandatumBaseCommand>, CommandDefinition> definitions = new ConcurrentHashMap<>();
+	// the node of each class in the tree built last, only used to look the nodes up by their class
+	private final Map<Class<? extends MandatumBaseCommand>, RegisteredCommand> registeredCommands = new ConcurrentHashMap<>();
+	private MandatumMetrics metrics = new MandatumMetrics();
+	private PermissionCache permissionCache = new PermissionCache();
+	private volatile AuditLog auditLog;
+	private volatile InvocationCache invocationCache;
+	private volatile CommandWatchdog watchdog;
+
+	// async commands run on the Bukkit scheduler unless another executor is set
+	private Executor asyncExecutor = task->Bukkit.getScheduler()
+			.runTaskAsynchronously(MandatumLib.getInstance().getPlugin(), task);
+
+	// SETTINGS
+	private volatile boolean suggestingCorrections = true;
 
 
 	// CHANGERS
-	public void addCommandClasses(Map<String, Class<? extends MandatumCommand>> newCommandClasses)
+	public void addCommandClasses(Map<String, Class<? extends MandatumBaseCommand>> newCommandClasses)
 	{
-		// to lowercase so the the map can be searched by the lowercase commandname
-		for(Entry<String, Class<? extends MandatumCommand>> entry : newCommandClasses.entrySet())
-			this.commandClasses.put(entry.getKey().toLowerCase(), entry.getValue());
+		// the registerers have resolved the command trees already, all commands become visible to dispatching at once
+		Map<String, RegisteredCommand> newCommands = new HashMap<>();
+		for(Entry<String, Class<? extends MandatumBaseCommand>> entry : newCommandClasses.entrySet())
+			newCommands.put(entry.getKey(), registerCommandClass(entry.getValue()));
+
+		this.registry.registerAll(newCommands);
 	}
 
+	/**
+	 * Registers the command class under the name. This can be called from any thread, but the command has to be bound
+	 * to its plugin command on the main thread to be usable.
+	 *
+	 * @param commandName  the name of the command
+	 * @param commandClazz the class of the command
+	 * @throws IllegalStateException if another command is already registered under the name
+	 */
+	@API public void registerCommand(String commandName, Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		this.registry.register(commandName, registerCommandTree(commandClazz));
+	}
 
-	// COMMAND
-	@Override public boolean onCommand(CommandSender sender, Command command, String label, String[] args)
+	/**
+	 * Registers the command object under its name. This is used for commands sharing one class, like the
+	 * {@link de.domisum.lib.mandatum.cmd.method.AnnotatedCommand}s, which are only known by their names.
+	 *
+	 * @param command the command
+	 * @return the registered command
+	 * @throws IllegalStateException if another command is already registered under the name
+	 */
+	@API public RegisteredCommand registerCommand(MandatumStatelessCommand command)
 	{
-		Class<? extends MandatumCommand> commandClazz = this.commandClasses.get(command.getName().toLowerCase());
-		runCommand(commandClazz, sender, args);
+		CommandDefinition definition = new CommandDefinition(command.getClass(), CommandFactory.singleton(command));
+		RegisteredCommand registeredCommand = new RegisteredCommand(definition, null, this.metrics, this::resolveSubCommands);
+		this.registry.register(registeredCommand.getName(), registeredCommand);
 
-		return true;
+		return registeredCommand;
 	}
 
+	/**
+	 * Replaces the command registered under the name with the command class, for example when the module providing it
+	 * has been reloaded. A new command tree is built and swapped in as a whole, and the nodes of the old tree are never
+	 * changed, so concurrent invocations either use the old or the new command, never a partially registered one.
+	 *
+	 * @param commandName  the name of the command
+	 * @param commandClazz the class of the new command
+	 * @return the command that has been replaced, null if no command was registered under the name
+	 */
+	@API public RegisteredCommand replaceCommand(String commandName, Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		RegisteredCommand replaced = this.registry.replace(commandName, registerCommandTree(commandClazz));
+		if(replaced != null)
+			forgetCommandTree(replaced);
+
+		return replaced;
+	}
 
-	private void runCommand(Class<? extends MandatumCommand> commandClazz, CommandSender sender, String[] args)
+	/**
+	 * Unregisters the command with the name. The command stays bound to its plugin command, but invoking it only tells
+	 * the sender that it isn't available.
+	 *
+	 * @param commandName the name of the command
+	 * @return the command that has been unregistered, null if no command was registered under the name
+	 */
+	@API public RegisteredCommand unregisterCommand(String commandName)
 	{
-		runCommand(commandClazz, sender, new ArrayList<>(Arrays.asList(args)));
+		RegisteredCommand unregistered = this.registry.unregister(commandName);
+		if(unregistered != null)
+			forgetCommandTree(unregistered);
+
+		return unregistered;
 	}
 
-	public void runCommand(Class<? extends MandatumCommand> commandClazz, CommandSender sender, List<String> args)
+	private void forgetCommandTree(RegisteredCommand registeredCommand)
 	{
-		MandatumCommand command = getCommand(commandClazz, sender, args);
+		// this releases the classes of unloaded modules, unless the class is part of a tree built meanwhile
+		Class<? extends MandatumBaseCommand> commandClazz = registeredCommand.getCommandClass();
+		if(this.registeredCommands.remove(commandClazz, registeredCommand))
+			this.definitions.remove(commandClazz);
 
-		if(!command.canBeRunByConsole() && command.getSender() == null)
+		CommandWatchdog watchdog = this.watchdog;
+		if(watchdog != null)
+			watchdog.commandRemoved(registeredCommand.getCommandPath());
+
+		for(RegisteredCommand subCommand : registeredCommand.getSubCommands())
+			forgetCommandTree(subCommand);
+	}
+
+	/**
+	 * Returns the command registered for the class. If the class hasn't been registered yet, its command tree is built
+	 * like in {@link #registerCommandTree(Class)}.
+	 *
+	 * @param commandClazz the class of the command
+	 * @return the registered command
+	 * @throws IllegalArgumentException if the class doesn't have a suitable constructor or valid ArgumentSequences
+	 */
+	public RegisteredCommand registerCommandClass(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		RegisteredCommand registeredCommand = this.registeredCommands.get(commandClazz);
+		if(registeredCommand != null)
+			return registeredCommand;
+
+		return registerCommandTree(commandClazz);
+	}
+
+	/**
+	 * Builds a new command tree for the provided command class. If it is a supercommand, its subcommands are resolved as
+	 * well, including the subcommands of subcommands, so the whole command tree is resolved once and dispatching only has
+	 * to walk it. The factory and ArgumentSequences of each class are only resolved the first time, so rebuilding a tree
+	 * keeps the limits of the players.
+	 * <p>
+	 * The tree can't be changed after it has been built, it only becomes visible to dispatching once it is registered.
+	 *
+	 * @param commandClazz the class of the command
+	 * @return the registered command
+	 * @throws IllegalArgumentException if a class doesn't have a suitable constructor or valid ArgumentSequences
+	 */
+	@API public RegisteredCommand registerCommandTree(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		RegisteredCommand registeredCommand = new RegisteredCommand(getDefinition(commandClazz), null, this.metrics,
+				this::resolveSubCommands);
+		indexCommandTree(registeredCommand);
+
+		return registeredCommand;
+	}
+
+	private Map<String, RegisteredCommand> resolveSubCommands(RegisteredCommand registeredCommand)
+	{
+		Map<String, Class<? extends MandatumSubCommand>> subCommandClasses;
+		if(registeredCommand.getSubCommandsClassPath() != null)
+			subCommandClasses = SubCommandScanner.find(registeredCommand.getName(), registeredCommand.getSubCommandsClassPath(),
+					registeredCommand.getCommandClass().getClassLoader());
+		else if(registeredCommand.isSuperCommand())
 		{
-			command.sendMessage("This command cannot be used by the console.");
-			return;
+			MandatumSuperCommand superCommand = (MandatumSuperCommand) registeredCommand.createCommand(null, null);
+			superCommand.registerSubCommands();
+			subCommandClasses = superCommand.getSubCommands();
 		}
+		else
+			return Collections.emptyMap();
 
-		boolean hasPermission = checkCommandPermission(command);
-		if(!hasPermission)
+		Map<String, RegisteredCommand> subCommands = new HashMap<>();
+		for(Entry<String, Class<? extends MandatumSubCommand>> entry : subCommandClasses.entrySet())
+		{
+			Class<? extends MandatumSubCommand> subCommandClazz = entry.getValue();
+			if(isOnPath(registeredCommand, subCommandClazz))
+			{
+				MandatumLib.getLogger().severe("The subcommand '"+subCommandClazz.getName()+"' is its own subcommand");
+				continue;
+			}
+
+			RegisteredCommand subCommand = new RegisteredCommand(getDefinition(subCommandClazz), registeredCommand,
+					this.metrics, this::resolveSubCommands);
+			subCommands.put(entry.getKey().toLowerCase(), subCommand);
+		}
+
+		return subCommands;
+	}
+
+	private static boolean isOnPath(RegisteredCommand registeredCommand, Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		for(RegisteredCommand command = registeredCommand; command != null; command = command.getParent())
+			if(command.getCommandClass() == commandClazz)
+				return true;
+
+		return false;
+	}
+
+	private void indexCommandTree(RegisteredCommand registeredCommand)
+	{
+		this.registeredCommands.put(registeredCommand.getCommandClass(), registeredCommand);
+		for(RegisteredCommand subCommand : registeredCommand.getSubCommands())
+			indexCommandTree(subCommand);
+	}
+
+	/**
+	 * Resolves the factory of the command class, unless a factory has already been set for it, and compiles its
+	 * ArgumentSequences.
+	 *
+	 * @param commandClazz the class of the command
+	 * @return the definition of the command class
+	 * @throws IllegalArgumentException if the class doesn't have a suitable constructor or valid ArgumentSequences
+	 */
+	CommandDefinition getDefinition(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		CommandDefinition definition = this.definitions.get(commandClazz);
+		if(definition != null)
+			return definition;
+
+		// if another thread resolved the class meanwhile, its result is used
+		definition = new CommandDefinition(commandClazz, CommandFactory.forClass(commandClazz));
+		CommandDefinition existing = this.definitions.putIfAbsent(commandClazz, definition);
+		return existing != null ? existing : definition;
+	}
+
+	/**
+	 * Sets the factory used to create the objects of the command class, replacing the one resolved from its constructor.
+	 * This has to be called before the command is registered, trees built before keep using the old factory. The
+	 * ArgumentSequences are compiled again and the limits of the players start over.
+	 *
+	 * @param commandClazz the class of the command
+	 * @param factory      the factory creating objects of the command class
+	 */
+	@API public void setCommandFactory(Class<? extends MandatumBaseCommand> commandClazz, CommandFactory factory)
+	{
+		this.definitions.put(commandClazz, new CommandDefinition(commandClazz, factory));
+		this.registeredCommands.remove(commandClazz);
+	}
+
+	/**
+	 * Sets the factory listed for the command class in a command index, unless the class has been resolved already. The
+	 * index is read again every time its package is registered, so this keeps the compiled ArgumentSequences and the
+	 * limits of the players instead of starting over like {@link #setCommandFactory(Class, CommandFactory)}.
+	 *
+	 * @param commandClazz the class of the command
+	 * @param factory      the factory from the command index
+	 */
+	void setIndexedCommandFactory(Class<? extends MandatumBaseCommand> commandClazz, CommandFactory factory)
+	{
+		if(this.definitions.containsKey(commandClazz))
 			return;
 
-		// don't check argument validity for supercommands, just pass them through
-		if(command instanceof MandatumSuperCommand)
+		this.definitions.putIfAbsent(commandClazz, new CommandDefinition(commandClazz, factory));
+	}
+
+	// GETTERS
+	public RegisteredCommand getRegisteredCommand(String commandName)
+	{
+		return this.registry.get(commandName);
+	}
+
+	public RegisteredCommand getRegisteredCommand(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		return this.registeredCommands.get(commandClazz);
+	}
+
+	public Class<? extends MandatumBaseCommand> getCommandClass(String commandName)
+	{
+		RegisteredCommand registeredCommand = this.registry.get(commandName);
+		return registeredCommand != null ? registeredCommand.getCommandClass() : null;
+	}
+
+	/**
+	 * @return the registry of the top level commands
+	 */
+	@API public CommandRegistry getRegistry()
+	{
+		return this.registry;
+	}
+
+	/**
+	 * @return the invocation counts, outcomes and latencies of the commands dispatched by this executor
+	 */
+	@API public MandatumMetrics getMetrics()
+	{
+		return this.metrics;
+	}
+
+	/**
+	 * @return the cache of the permission decisions used to check the permissions of the commands
+	 */
+	@API public PermissionCache getPermissionCache()
+	{
+		return this.permissionCache;
+	}
+
+	/**
+	 * Checks if the sender has the permissions required by the command and all of its supercommands, without sending
+	 * any messages. This is used to hide commands from senders who can't use them.
+	 *
+	 * @param sender            the sender
+	 * @param registeredCommand the command
+	 * @return whether the sender is allowed to use the command
+	 */
+	public boolean hasPermission(CommandSender sender, RegisteredCommand registeredCommand)
+	{
+		// console
+		if(!(sender instanceof Player))
+			return true;
+
+		Player player = (Player) sender;
+		if(player.isOp())
+			return true;
+
+		return this.permissionCache.hasPermissions(player, registeredCommand.getPathPermissionNodes());
+	}
+
+
+	// SETTINGS
+
+	/**
+	 * Sets the executor running the asynchronous commands.
+	 *
+	 * @param asyncExecutor the executor
+	 * @see MandatumBaseCommand#isAsync()
+	 */
+	@API public void setAsyncExecutor(Executor asyncExecutor)
+	{
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * Sets if misspelled command names, subcommand names and player names are answered with the closest existing name.
+	 * This is enabled by default.
+	 *
+	 * @param suggestingCorrections if corrections should be suggested
+	 */
+	@API public void setSuggestingCorrections(boolean suggestingCorrections)
+	{
+		this.suggestingCorrections = suggestingCorrections;
+	}
+
+	@API public boolean isSuggestingCorrections()
+	{
+		return this.suggestingCorrections;
+	}
+
+	/**
+	 * Sets the log recording the commands selected for auditing, null to stop recording.
+	 *
+	 * @param auditLog the started audit log
+	 */
+	@API public void setAuditLog(AuditLog auditLog)
+	{
+		this.auditLog = auditLog;
+	}
+
+	@API public AuditLog getAuditLog()
+	{
+		return this.auditLog;
+	}
+
+	/**
+	 * Sets the cache reusing the resolution of repeated command lines, null to resolve every line again. No cache is
+	 * used by default.
+	 *
+	 * @param invocationCache the cache
+	 */
+	@API public void setInvocationCache(InvocationCache invocationCache)
+	{
+		this.invocationCache = invocationCache;
+	}
+
+	@API public InvocationCache getInvocationCache()
+	{
+		return this.invocationCache;
+	}
+
+	/**
+	 * Sets the watchdog reporting synchronous executions stalling the server, null to stop watching them.
+	 *
+	 * @param watchdog the started watchdog
+	 */
+	@API public void setWatchdog(CommandWatchdog watchdog)
+	{
+		this.watchdog = watchdog;
+	}
+
+	@API public CommandWatchdog getWatchdog()
+	{
+		return this.watchdog;
+	}
+
+
+	// COMMAND
+	@Override public boolean onCommand(CommandSender sender, Command command, String label, String[] args)
+	{
+		// the command can have been unregistered while still being bound to its plugin command
+		RegisteredCommand registeredCommand = this.registry.get(command.getName());
+		if(registeredCommand == null)
 		{
-			if(args.size() == 0)
+			sendMessage(sender instanceof Player ? (Player) sender : null, "This command is currently not available.");
+			return true;
+		}
+
+		// Bukkit creates a new array for every command, so it can be used without copying it
+		runCommand(registeredCommand, sender, ArgumentList.of(args));
+
+		return true;
+	}
+
+	/**
+	 * Runs the command with the arguments as if the sender had entered it.
+	 *
+	 * @param commandClazz the class of the command
+	 * @param sender       the sender of the command
+	 * @param args         the arguments of the command, including the names of the subcommands
+	 * @return the outcome of the command, asynchronous commands count as executed once they have been handed off
+	 */
+	public CommandOutcome runCommand(Class<? extends MandatumBaseCommand> commandClazz, CommandSender sender,
+			List<String> args)
+	{
+		// classes that haven't been registered beforehand are resolved on their first use
+		return runCommand(registerCommandClass(commandClazz), sender, args);
+	}
+
+	/**
+	 * @see #runCommand(Class, CommandSender, List)
+	 */
+	public CommandOutcome runCommand(RegisteredCommand command, CommandSender sender, List<String> args)
+	{
+		long startNanos = System.nanoTime();
+		ArgumentList argumentList = ArgumentList.of(args);
+
+		// a repeated command line has already been resolved to its subcommand and ArgumentSequence
+		InvocationCache invocationCache = this.invocationCache;
+		CachedInvocation cachedInvocation = invocationCache != null ?
+				invocationCache.get(this.registry.getVersion(), command, argumentList) :
+				null;
+
+		RegisteredCommand registeredCommand = command;
+		int depth = 0;
+		if(cachedInvocation != null)
+		{
+			registeredCommand = cachedInvocation.getRegisteredCommand();
+			depth = cachedInvocation.getDepth();
+		}
+		else
+		{
+			// walk down the command tree to the selected subcommand, its arguments are a view of the remaining arguments
+			while(registeredCommand.isSuperCommand() && depth < argumentList.size())
 			{
-				command.sendUsageMessage();
-				return;
+				RegisteredCommand subCommand = registeredCommand.getSubCommand(argumentList.get(depth));
+				if(subCommand == null)
+					break;
+
+				registeredCommand = subCommand;
+				depth++;
 			}
+		}
 
-			command.execute();
-			return;
+		CommandOutcome outcome = dispatch(command, registeredCommand, sender, argumentList, depth, cachedInvocation,
+				startNanos);
+
+		// executed commands are audited by dispatch, since only it knows the selected ArgumentSequence
+		if(outcome != CommandOutcome.EXECUTED)
+			audit(registeredCommand, sender, argumentList.slice(depth), null, outcome, startNanos);
+
+		// the validation time of executed commands has been recorded before executing them
+		CommandMetrics metrics = registeredCommand.getMetrics();
+		metrics.recordOutcome(outcome);
+		if(outcome != CommandOutcome.EXECUTED)
+			metrics.recordValidation(System.nanoTime()-startNanos);
+
+		return outcome;
+	}
+
+	private CommandOutcome dispatch(RegisteredCommand rootCommand, RegisteredCommand registeredCommand,
+			CommandSender sender, ArgumentList allArgs, int depth, CachedInvocation cachedInvocation, long startNanos)
+	{
+		ArgumentList args = allArgs.slice(depth);
+
+		// everything up to the limits is checked using the data cached in the RegisteredCommand,
+		// so the command object is only created once it is known that the command will be used
+		// the requirements of the supercommands on the path have been merged into the selected command
+		Player player = sender instanceof Player ? (Player) sender : null;
+		if(!registeredCommand.canPathBeRunByConsole() && player == null)
+		{
+			sendMessage(null, "This command cannot be used by the console.");
+			return CommandOutcome.CONSOLE_REJECTED;
 		}
 
+		boolean hasPermission = checkCommandPermission(registeredCommand, player);
+		if(!hasPermission)
+			return CommandOutcome.PERMISSION_DENIED;
 
-		// check if number of args fit the command
-		List<ArgumentSequence> fittingLengthArgumentSequences = getFittingLengthArgumentSequences(command, args);
-		if(fittingLengthArgumentSequences.size() == 0)
+		CommandWatchdog watchdog = this.watchdog;
+		if(watchdog != null && watchdog.isDisabled(registeredCommand))
 		{
-			command.sendUsageMessage();
-			return;
+			sendMessage(player, "This command has been disabled because it stalled the server.");
+			return CommandOutcome.DISABLED;
+		}
+
+		// the error handling is done in the shouldExecute method itself
+		if(!checkShouldExecute(registeredCommand, allArgs, depth, player))
+			return CommandOutcome.CANCELLED;
+
+		// no subcommand has been selected, either because there are no arguments left or the subcommand doesn't exist
+		if(registeredCommand.isSuperCommand())
+		{
+			sendUsageMessage(registeredCommand, player, args);
+			if(CommandHelp.isPageRequest(args))
+				return CommandOutcome.HELP;
+
+			if(!args.isEmpty())
+				suggestSubCommand(registeredCommand, player, args.get(0));
+
+			return CommandOutcome.USAGE_ERROR;
 		}
 
-		// now check if the args validation gives some errors
-		String highestPriorityArgumentSequenceError = null;
-		for(ArgumentSequence as : fittingLengthArgumentSequences)
+
+		// select the highest priority argumentsequence fitting the args
+		ArgumentSequenceMatcher matcher = registeredCommand.getMatcher();
+		InvocationCache invocationCache = cachedInvocation == null ? this.invocationCache : null;
+		long[] argumentTypeVersions = invocationCache != null ? InvocationCache.readVersions(matcher) : null;
+		ArgumentSequenceMatch match = cachedInvocation != null ? cachedInvocation.createMatch() : matcher.match(args);
+		if(match != null)
 		{
-			String validationError = as.validateArguments(args);
-			if(highestPriorityArgumentSequenceError == null)
-				highestPriorityArgumentSequenceError = validationError;
+			if(invocationCache != null)
+				invocationCache.put(rootCommand, allArgs, registeredCommand, depth, match, argumentTypeVersions);
 
-			// no errors
-			if(validationError == null)
+			ArgumentSequence argumentSequence = match.getArgumentSequence();
+			if(!checkLimits(registeredCommand, argumentSequence, depth, player))
+				return CommandOutcome.RATE_LIMITED;
+
+			if(registeredCommand.isStateless())
+			{
+				// stateless commands are shared, so the invocation is passed to them in a context instead
+				// the context can't be changed, so it doesn't have to be copied when executing asynchronously
+				MandatumStatelessCommand statelessCommand = registeredCommand.getStatelessCommand();
+				CommandContext context = new CommandContext(statelessCommand, player, args, argumentSequence,
+						new ParsedArguments(args, match.getValues()));
+
+				boolean async = statelessCommand.isAsync() || argumentSequence.isAsync();
+				try
+				{
+					execute(registeredCommand, statelessCommand, context, sender, args, async, startNanos);
+				}
+				finally
+				{
+					audit(registeredCommand, sender, args, argumentSequence, CommandOutcome.EXECUTED, startNanos);
+				}
+				return CommandOutcome.EXECUTED;
+			}
+
+			MandatumCommand command = (MandatumCommand) registeredCommand.createCommand(player, args);
+			command.setArgumentSequenceName(argumentSequence.getName());
+			command.setParsedArguments(new ParsedArguments(args, match.getValues()));
+
+			boolean async = command.isAsync() || argumentSequence.isAsync();
+			try
+			{
+				execute(registeredCommand, command, null, sender, args, async, startNanos);
+			}
+			finally
 			{
-				command.setArgumentSequenceName(as.getName());
-				command.execute();
-				return;
+				audit(registeredCommand, sender, args, argumentSequence, CommandOutcome.EXECUTED, startNanos);
 			}
+			return CommandOutcome.EXECUTED;
 		}
 
 		// this is only called if none of the argumentsequences fit
-		// this sends the error the highest priority argumentsequence gave to the user
+		// this sends the error the highest priority argumentsequence of fitting length gave to the user
 
 		// the validator returns "" if the argument just doesn't fit, like a string instead of integer
 		// so this means just return the standard error message
+		String highestPriorityArgumentSequenceError = matcher.getErrorMessage(args);
 		if(Objects.equals(highestPriorityArgumentSequenceError, ""))
-			command.sendUsageMessage();
-		else
-			command.sendMessage(highestPriorityArgumentSequenceError);
+		{
+			sendUsageMessage(registeredCommand, player, args);
+			return CommandOutcome.USAGE_ERROR;
+		}
+
+		sendMessage(player, highestPriorityArgumentSequenceError);
+		return CommandOutcome.VALIDATION_ERROR;
 	}
 
-	private static boolean checkCommandPermission(MandatumCommand command)
+	private void suggestSubCommand(RegisteredCommand registeredCommand, Player player, String subCommandName)
 	{
-		// console
-		if(command.getSender() == null)
-			return true;
+		if(!this.suggestingCorrections)
+			return;
+
+		String suggestion = registeredCommand.getSubCommandSuggestions().findClosest(subCommandName);
+		if(suggestion == null)
+			return;
+
+		// subcommands the sender can't use aren't revealed
+		RegisteredCommand subCommand = registeredCommand.getSubCommand(suggestion);
+		if(!hasPermission(player, subCommand))
+			return;
+
+		sendMessage(player, "Did you mean '/"+subCommand.getCommandPath()+"'?");
+	}
 
-		if(command.getSender().isOp())
+	private boolean checkCommandPermission(RegisteredCommand registeredCommand, Player player)
+	{
+		if(hasPermission(player, registeredCommand))
 			return true;
 
-		String permissionNode = command.getRequiredPermissionNode();
-		if(permissionNode == null)
+		sendMessage(player, "You don't have permission to use this command.");
+		return false;
+	}
+
+	private static boolean checkShouldExecute(RegisteredCommand registeredCommand, ArgumentList allArgs, int depth,
+			Player player)
+	{
+		if(depth == 0)
 			return true;
 
-		if(command.getSender().hasPermission(permissionNode))
+		// the supercommands are asked from the top, the arguments of each one start with the name of its subcommand
+		RegisteredCommand superCommand = registeredCommand.getParent();
+		if(!checkShouldExecute(superCommand, allArgs, depth-1, player))
+			return false;
+
+		if(!superCommand.checksShouldExecute())
 			return true;
 
-		command.sendMessage("You don't have permission to use this command.");
-		return false;
+		return ((MandatumSuperCommand) superCommand.createCommand(player, allArgs.slice(depth-1))).checkShouldExecute();
 	}
 
-	private static List<ArgumentSequence> getFittingLengthArgumentSequences(MandatumCommand command, List<String> args)
+	/**
+	 * Acquires the limits of the ArgumentSequence, the command and the supercommands on its path. If one of them
+	 * rejects the use, the ones acquired before it are released again, so a command that isn't executed doesn't use up
+	 * any of its limits.
+	 */
+	private static boolean checkLimits(RegisteredCommand registeredCommand, ArgumentSequence argumentSequence, int depth,
+			Player player)
 	{
-		// clone argumentSequences so the ArrayList in the command class doesn't get changed
-		List<ArgumentSequence> fittingArgumentSequences = new ArrayList<>(command.getArgumentSequences());
-		fittingArgumentSequences.removeIf((as)->
+		// the console is never limited
+		if(player == null)
+			return true;
+
+		UUID playerId = player.getUniqueId();
+		int numberOfLimiters = depth+2;
+		for(int i = 0; i < numberOfLimiters; i++)
 		{
-			// this takes messages in arguments into account
-			return !as.doesArgumentLengthFit(args);
-		});
+			CommandLimiter limiter = getLimiter(registeredCommand, argumentSequence, i);
+			if(limiter == null)
+				continue;
+
+			long waitNanos = limiter.tryAcquire(playerId);
+			if(waitNanos == 0)
+				continue;
 
-		return fittingArgumentSequences;
+			for(int acquired = 0; acquired < i; acquired++)
+			{
+				CommandLimiter acquiredLimiter = getLimiter(registeredCommand, argumentSequence, acquired);
+				if(acquiredLimiter != null)
+					acquiredLimiter.release(playerId);
+			}
+
+			sendWaitMessage(player, waitNanos);
+			return false;
+		}
+
+		return true;
 	}
 
+	/**
+	 * @param index 0 for the limiter of the ArgumentSequence, 1 for the one of the command and the following ones for
+	 *              the supercommands from the bottom up
+	 */
+	private static CommandLimiter getLimiter(RegisteredCommand registeredCommand, ArgumentSequence argumentSequence,
+			int index)
+	{
+		if(index == 0)
+			return registeredCommand.getLimiter(argumentSequence);
 
-	// EXECUTION
-	private MandatumCommand getCommand(Class<? extends MandatumCommand> commandClazz, CommandSender sender, List<String> args)
+		RegisteredCommand command = registeredCommand;
+		for(int i = 1; i < index; i++)
+			command = command.getParent();
+
+		return command.getLimiter();
+	}
+
+	private static void sendWaitMessage(Player player, long waitNanos)
+	{
+		// round up, so the player isn't told to wait 0 seconds
+		long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+		long waitSeconds = (waitNanos+nanosPerSecond-1)/nanosPerSecond;
+		sendMessage(player, "Please wait "+waitSeconds+" second"+(waitSeconds == 1 ? "" : "s")
+				+" before using this command again.");
+	}
+
+	private void execute(RegisteredCommand registeredCommand, MandatumBaseCommand command, CommandContext context,
+			CommandSender sender, List<String> args, boolean async, long startNanos)
 	{
-		Constructor<? extends MandatumCommand> constructor;
-		MandatumCommand command = null;
+		CommandMetrics metrics = registeredCommand.getMetrics();
+		long executionStartNanos = System.nanoTime();
+		metrics.recordValidation(executionStartNanos-startNanos);
+
+		if(async)
+		{
+			executeAsync(command, context, metrics);
+			return;
+		}
 
+		CommandWatchdog watchdog = this.watchdog;
+		if(watchdog != null)
+			watchdog.executionStarted(registeredCommand, sender, args);
 		try
 		{
-			constructor = commandClazz.getConstructor(CommandSender.class, List.class);
-			command = constructor.newInstance(sender, args);
+			execute(command, context);
 		}
-		catch(NoSuchMethodException|SecurityException|InstantiationException|IllegalAccessException|IllegalArgumentException|InvocationTargetException e)
+		finally
 		{
-			e.printStackTrace();
+			metrics.recordExecution(System.nanoTime()-executionStartNanos);
+			if(watchdog != null)
+				watchdog.executionFinished();
 		}
+	}
+
+	private void executeAsync(MandatumBaseCommand command, CommandContext context, CommandMetrics metrics)
+	{
+		// the args list is shared with the dispatching code, so the async command gets its own copy
+		if(context == null)
+			((MandatumCommand) command).snapshotArguments();
+
+		this.asyncExecutor.execute(()->
+		{
+			long executionStartNanos = System.nanoTime();
+			try
+			{
+				execute(command, context);
+			}
+			catch(RuntimeException e)
+			{
+				MandatumLib.getLogger()
+						.log(Level.SEVERE, "The async execution of the command '"+command.getName()+"' failed", e);
+			}
+			finally
+			{
+				metrics.recordExecution(System.nanoTime()-executionStartNanos);
+			}
+		});
+	}
+
+	private static void execute(MandatumBaseCommand command, CommandContext context)
+	{
+		// only stateless commands get a context
+		if(context != null)
+			((MandatumStatelessCommand) command).execute(context);
+		else
+			((MandatumCommand) command).execute();
+	}
+
+
+	// AUDIT
+	private void audit(RegisteredCommand registeredCommand, CommandSender sender, List<String> args,
+			ArgumentSequence argumentSequence, CommandOutcome outcome, long startNanos)
+	{
+		AuditLog auditLog = this.auditLog;
+		if(auditLog == null || !auditLog.isAudited(registeredCommand))
+			return;
 
-		return command;
+		// only the raw values are captured here, the record is formatted by the writer thread
+		String senderName = sender != null ? sender.getName() : "CONSOLE";
+		UUID senderId = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+		auditLog.record(new AuditRecord(System.currentTimeMillis(), senderName, senderId,
+				registeredCommand.getCommandPath(), argumentSequence != null ? argumentSequence.getName() : null,
+				args.toArray(new String[0]), outcome, System.nanoTime()-startNanos));
+	}
+
+
+	// BATCH
+
+	/**
+	 * Runs the command lines on the main thread, spread over as many ticks as the time budget requires. Lines
+	 * starting with '#' and empty lines are skipped.
+	 *
+	 * @param lines    the command lines, without or with a leading '/'
+	 * @param sender   the sender the commands are run as
+	 * @param settings the settings of the batch
+	 * @return the future completed with the report once all lines have been run
+	 */
+	@API public CompletableFuture<BatchReport> runBatch(Iterator<String> lines, CommandSender sender,
+			BatchSettings settings)
+	{
+		return new BatchRunner(this, lines, sender, settings, null).start(MandatumLib.getInstance().getPlugin());
+	}
+
+	@API public CompletableFuture<BatchReport> runBatch(List<String> lines)
+	{
+		return runBatch(lines.iterator(), Bukkit.getConsoleSender(), new BatchSettings());
+	}
+
+	/**
+	 * Runs the lines of the file as a batch. The file is read while the batch runs and closed once it is done.
+	 *
+	 * @param file     the UTF-8 encoded file containing one command per line
+	 * @param sender   the sender the commands are run as
+	 * @param settings the settings of the batch
+	 * @return the future completed with the report once all lines have been run
+	 * @throws IOException if the file cannot be opened
+	 * @see #runBatch(Iterator, CommandSender, BatchSettings)
+	 */
+	@API public CompletableFuture<BatchReport> runBatch(Path file, CommandSender sender, BatchSettings settings)
+			throws IOException
+	{
+		BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+		return new BatchRunner(this, reader.lines().iterator(), sender, settings, reader)
+				.start(MandatumLib.getInstance().getPlugin());
+	}
+
+
+	// CONSOLE
+
+	/**
+	 * Sets the sink receiving the console messages sent on the current thread instead of the logger.
+	 *
+	 * @param sink the sink, null to log the messages again
+	 */
+	public static void setConsoleMessageSink(Consumer<String> sink)
+	{
+		if(sink == null)
+			consoleMessageSink.remove();
+		else
+			consoleMessageSink.set(sink);
+	}
+
+	/**
+	 * Sends the message to the console, or to the sink collecting the console messages of the current thread.
+	 *
+	 * @param message the message
+	 */
+	public static void sendConsoleMessage(String message)
+	{
+		Consumer<String> sink = consoleMessageSink.get();
+		if(sink != null)
+			sink.accept(message);
+		else
+			MandatumLib.getLogger().info(message);
+	}
+
+
+	// UTIL
+	private static void sendUsageMessage(RegisteredCommand registeredCommand, Player player, List<String> args)
+	{
+		if(registeredCommand.isStateless())
+			new CommandContext(registeredCommand.getStatelessCommand(), player, args, null, null).sendUsageMessage();
+		else
+			((MandatumCommand) registeredCommand.createCommand(player, args)).sendUsageMessage();
+	}
+
+	private static void sendMessage(Player player, String message)
+	{
+		if(player != null)
+			player.sendMessage(message);
+		else
+			sendConsoleMessage(message);
 	}
 
 }
@@ -2,18 +2,20 @@ package de.domisum.lib.mandatum.exe;
 
 import de.domisum.lib.auxilium.util.java.ClassUtil;
 import de.domisum.lib.mandatum.MandatumLib;
-import de.domisum.lib.mandatum.cmd.MandatumCommand;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
 import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
-import de.domisum.lib.mandatum.cmd.MandatumSuperCommand;
-import org.bukkit.command.CommandSender;
+import de.domisum.lib.mandatum.index.CommandIndex;
+import de.domisum.lib.mandatum.index.CommandIndexEntry;
+import de.domisum.lib.mandatum.index.CommandIndexes;
+import org.bukkit.command.PluginCommand;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 public class MandatumCommandRegisterer
@@ -21,10 +23,11 @@ public class MandatumCommandRegisterer
 
 	// PROPERTIES
 	private String classPath;
+	private Class<? extends MandatumBaseCommand> commandClazz;
 
 	// REFERENCES
-	private List<Class<? extends MandatumCommand>> commandClasses = new ArrayList<>();
-	private Map<String, Class<? extends MandatumCommand>> commandsWithClasses = new HashMap<>();
+	private List<Class<? extends MandatumBaseCommand>> commandClasses = new ArrayList<>();
+	private Map<String, Class<? extends MandatumBaseCommand>> commandsWithClasses = new HashMap<>();
 
 
 	// -------
@@ -37,11 +40,18 @@ public class MandatumCommandRegisterer
 		register();
 	}
 
+	public MandatumCommandRegisterer(Class<? extends MandatumBaseCommand> commandClazz)
+	{
+		this.commandClazz = commandClazz;
+
+		registerSingle();
+	}
+
 
 	// -------
 	// GETTER
 	// -------
-	public Map<String, Class<? extends MandatumCommand>> getCommandClasses()
+	public Map<String, Class<? extends MandatumBaseCommand>> getCommandClasses()
 	{
 		return this.commandsWithClasses;
 	}
@@ -63,29 +73,20 @@ public class MandatumCommandRegisterer
 		// the returned set is immutable, so just copy it
 		pluginCommands = new HashSet<>(pluginCommands);
 
-		// scan for the classes representing commands
-		List<Class<?>> classes = ClassUtil.getClasses(this.classPath);
-		if(classes == null)
+		// use the index generated at build time if there is one, otherwise scan for the classes representing commands
+		ClassLoader classLoader = MandatumLib.getInstance().getPlugin().getClass().getClassLoader();
+		CommandIndex index = CommandIndexes.load(this.classPath, classLoader);
+		Map<Class<? extends MandatumBaseCommand>, String> commandNames = index != null ?
+				readCommandIndex(index) :
+				scanCommands();
+		if(commandNames == null)
 			return;
 
-		for(Class<?> clazz : classes)
-			if(MandatumCommand.class.isAssignableFrom(clazz))
-			{
-				if(MandatumSubCommand.class.isAssignableFrom(clazz))
-					continue;
-
-				@SuppressWarnings("unchecked")
-				Class<? extends MandatumCommand> commandClazz = (Class<? extends MandatumCommand>) clazz;
-				this.commandClasses.add(commandClazz);
-			}
-			else
-				MandatumLib.getLogger().warning(
-						"Found class '"+clazz.getName()+"' in command package that isn't a command. It has been skipped");
-
 		// loop through found classes and register each command
-		for(Class<? extends MandatumCommand> cmdClazz : this.commandClasses)
+		for(Entry<Class<? extends MandatumBaseCommand>, String> entry : commandNames.entrySet())
 		{
-			String commandName = getCommandName(cmdClazz);
+			Class<? extends MandatumBaseCommand> cmdClazz = entry.getKey();
+			String commandName = entry.getValue();
 
 			// check if the command is also in the plugin.yml and remove it from the list, marking it as found
 			if(!pluginCommands.contains(commandName))
@@ -108,41 +109,91 @@ public class MandatumCommandRegisterer
 		MandatumLib.getLogger().info("Registering commands at '"+this.classPath+"' done");
 	}
 
-	private void registerCommand(Class<? extends MandatumCommand> commandClazz, String commandName)
+	private void registerSingle()
 	{
-		// register command executor
-		MandatumLib.getInstance().getPlugin().getCommand(commandName).setExecutor(MandatumLib.getCommandExecutor());
+		String commandName = getCommandName(this.commandClazz);
+
+		Map<String, Map<String, Object>> commandsMap = MandatumLib.getInstance().getPlugin().getDescription().getCommands();
+		if(commandsMap == null || !commandsMap.containsKey(commandName))
+		{
+			MandatumLib.getLogger()
+					.severe("The command '"+commandName+"' is represented by a class but not listed in the plugin.yml");
+			return;
+		}
+
+		this.commandClasses.add(this.commandClazz);
+		registerCommand(this.commandClazz, commandName);
+	}
 
-		if(MandatumSuperCommand.class.isAssignableFrom(commandClazz))
+	private Map<Class<? extends MandatumBaseCommand>, String> readCommandIndex(CommandIndex index)
+	{
+		Map<Class<? extends MandatumBaseCommand>, String> commandNames = new LinkedHashMap<>();
+		for(CommandIndexEntry entry : index.getEntries())
 		{
-			MandatumSuperCommand superCommand = (MandatumSuperCommand) getCommand(commandClazz);
-			superCommand.registerSubCommands();
+			// subcommands are registered by their supercommands
+			if(entry.getSuperCommandName() != null)
+				continue;
+
+			// the generated factory calls the constructor directly, so no reflection is needed at all
+			MandatumLib.getCommandExecutor().setIndexedCommandFactory(entry.getCommandClass(), entry.getFactory());
+			this.commandClasses.add(entry.getCommandClass());
+			commandNames.put(entry.getCommandClass(), entry.getName());
 		}
 
+		return commandNames;
+	}
+
+	private Map<Class<? extends MandatumBaseCommand>, String> scanCommands()
+	{
+		List<Class<?>> classes = ClassUtil.getClasses(this.classPath);
+		if(classes == null)
+			return null;
+
+		for(Class<?> clazz : classes)
+			if(MandatumBaseCommand.class.isAssignableFrom(clazz))
+			{
+				if(MandatumSubCommand.class.isAssignableFrom(clazz))
+					continue;
+
+				@SuppressWarnings("unchecked")
+				Class<? extends MandatumBaseCommand> commandClazz = (Class<? extends MandatumBaseCommand>) clazz;
+				this.commandClasses.add(commandClazz);
+			}
+			else
+				MandatumLib.getLogger().warning(
+						"Found class '"+clazz.getName()+"' in command package that isn't a command. It has been skipped");
+
+		Map<Class<? extends MandatumBaseCommand>, String> commandNames = new LinkedHashMap<>();
+		for(Class<? extends MandatumBaseCommand> cmdClazz : this.commandClasses)
+			commandNames.put(cmdClazz, getCommandName(cmdClazz));
+
+		return commandNames;
+	}
+
+	private void registerCommand(Class<? extends MandatumBaseCommand> commandClazz, String commandName)
+	{
+		// register command executor and tab completer
+		PluginCommand pluginCommand = MandatumLib.getInstance().getPlugin().getCommand(commandName);
+		pluginCommand.setExecutor(MandatumLib.getCommandExecutor());
+		pluginCommand.setTabCompleter(MandatumLib.getTabCompleter());
+
+		// this resolves the factory and ArgumentSequences of the command and the whole tree of its subcommands,
+		// so broken commands fail here instead of when the command is used
+		MandatumLib.getCommandExecutor().registerCommandTree(commandClazz);
+
 		this.commandsWithClasses.put(commandName, commandClazz);
 		MandatumLib.getLogger().info("The command '"+commandName+"' has been registered");
 	}
 
 
-	private static String getCommandName(Class<? extends MandatumCommand> commandClazz)
+	private static String getCommandName(Class<? extends MandatumBaseCommand> commandClazz)
 	{
 		return getCommand(commandClazz).getName();
 	}
 
-	private static MandatumCommand getCommand(Class<? extends MandatumCommand> commandClazz)
+	private static MandatumBaseCommand getCommand(Class<? extends MandatumBaseCommand> commandClazz)
 	{
-		MandatumCommand command = null;
-		try
-		{
-			Constructor<?> constructor = commandClazz.getConstructor(CommandSender.class, List.class);
-			command = (MandatumCommand) constructor.newInstance(null, null);
-		}
-		catch(InstantiationException|IllegalAccessException|IllegalArgumentException|InvocationTargetException|NoSuchMethodException|SecurityException e)
-		{
-			e.printStackTrace();
-		}
-
-		return command;
+		return MandatumLib.getCommandExecutor().getDefinition(commandClazz).createCommand(null, null);
 	}
 
 }
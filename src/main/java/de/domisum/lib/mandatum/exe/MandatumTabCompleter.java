@@ -0,0 +1,114 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.mandatum.cmd.arg.ArgumentType;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Completes the arguments of the registered commands using the subcommand names of supercommands and the ArgumentTypes
+ * of the ArgumentSequences.
+ * <p>
+ * Completions are served from prefix indexes, so in the common case of a single ArgumentType at the position being
+ * completed, the returned list is a read-only view of the index and nothing is copied.
+ */
+public class MandatumTabCompleter implements TabCompleter
+{
+
+	// REFERENCES
+	private final MandatumCommandExecutor commandExecutor;
+
+
+	// CONSTRUCTOR
+	public MandatumTabCompleter(MandatumCommandExecutor commandExecutor)
+	{
+		this.commandExecutor = commandExecutor;
+	}
+
+
+	// COMPLETION
+	@Override public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args)
+	{
+		RegisteredCommand registeredCommand = this.commandExecutor.getRegisteredCommand(command.getName());
+		if(registeredCommand == null || args.length == 0)
+			return Collections.emptyList();
+
+		// walk down the supercommands until the command whose arguments are completed
+		int offset = 0;
+		while(registeredCommand.isSuperCommand())
+		{
+			if(offset == args.length-1)
+				return filterVisibleSubCommands(sender, registeredCommand,
+						registeredCommand.getSubCommandNames().lookup(args[offset]));
+
+			registeredCommand = registeredCommand.getSubCommand(args[offset]);
+			if(registeredCommand == null)
+				return Collections.emptyList();
+
+			offset++;
+		}
+
+		// the arguments of commands the sender can't use aren't completed
+		if(!this.commandExecutor.hasPermission(sender, registeredCommand))
+			return Collections.emptyList();
+
+		int position = args.length-1-offset;
+		String prefix = args[args.length-1];
+		return complete(registeredCommand.getMatcher().getArgumentTypes(position), prefix);
+	}
+
+	private List<String> filterVisibleSubCommands(CommandSender sender, RegisteredCommand superCommand,
+			List<String> subCommandNames)
+	{
+		// the index view is only copied if the sender can't see one of the subcommands
+		List<String> visibleSubCommandNames = null;
+		for(int i = 0; i < subCommandNames.size(); i++)
+		{
+			String subCommandName = subCommandNames.get(i);
+			boolean visible = this.commandExecutor.hasPermission(sender, superCommand.getSubCommand(subCommandName));
+
+			if(!visible && visibleSubCommandNames == null)
+				visibleSubCommandNames = new ArrayList<>(subCommandNames.subList(0, i));
+			else if(visible && visibleSubCommandNames != null)
+				visibleSubCommandNames.add(subCommandName);
+		}
+
+		return visibleSubCommandNames == null ? subCommandNames : visibleSubCommandNames;
+	}
+
+	private static List<String> complete(ArgumentType<?>[] argumentTypes, String prefix)
+	{
+		if(argumentTypes.length == 0)
+			return Collections.emptyList();
+		if(argumentTypes.length == 1)
+			return argumentTypes[0].complete(prefix);
+
+		// different ArgumentSequences have different types at this position, so their completions have to be combined
+		List<String> completions = null;
+		for(ArgumentType<?> argumentType : argumentTypes)
+		{
+			List<String> typeCompletions = argumentType.complete(prefix);
+			if(typeCompletions.isEmpty())
+				continue;
+
+			if(completions == null)
+				completions = typeCompletions;
+			else
+			{
+				List<String> combined = new ArrayList<>(completions.size()+typeCompletions.size());
+				combined.addAll(completions);
+				for(String completion : typeCompletions)
+					if(!combined.contains(completion))
+						combined.add(completion);
+				completions = combined;
+			}
+		}
+
+		return completions == null ? Collections.emptyList() : completions;
+	}
+
+}
@@ -0,0 +1,277 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.ClassUtil;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
+import de.domisum.lib.mandatum.index.CommandIndex;
+import de.domisum.lib.mandatum.index.CommandIndexEntry;
+import de.domisum.lib.mandatum.index.CommandIndexes;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registers the commands of several packages at once. The packages are scanned and the command trees are resolved in
+ * parallel on a fork/join pool, while only binding the commands to their plugin commands is done on the calling
+ * thread, which has to be the main thread. The plugin.yml is read once for all packages.
+ * <p>
+ * The constructors and getters of the commands are called on the threads of the pool, so they must not use anything
+ * requiring the main thread.
+ */
+public class ParallelCommandRegisterer
+{
+
+	// REFERENCES
+	private final MandatumCommandExecutor commandExecutor;
+	private final Collection<String> classPaths;
+	private final int parallelism;
+
+	// STATUS
+	private final Map<String, String> failedPackages = new ConcurrentHashMap<>();
+	private final LongAdder scanNanos = new LongAdder();
+	private final LongAdder instantiationNanos = new LongAdder();
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * @param commandExecutor the executor the commands are registered with
+	 * @param classPaths      the packages containing the commands
+	 * @param parallelism     the number of threads used to scan the packages and resolve the commands
+	 */
+	public ParallelCommandRegisterer(MandatumCommandExecutor commandExecutor, Collection<String> classPaths,
+			int parallelism)
+	{
+		if(parallelism < 1)
+			throw new IllegalArgumentException("The parallelism has to be at least 1, but was "+parallelism);
+
+		this.commandExecutor = commandExecutor;
+		this.classPaths = classPaths;
+		this.parallelism = parallelism;
+	}
+
+
+	// REGISTERING
+
+	/**
+	 * Registers the commands of all packages. A package failing to be scanned or containing a broken command doesn't
+	 * stop the other packages from being registered, the failure is part of the report instead.
+	 *
+	 * @return the report of the registration
+	 */
+	public RegistrationReport register()
+	{
+		long startNanos = System.nanoTime();
+		MandatumLib.getLogger().info("Registering commands of "+this.classPaths.size()+" packages ...");
+
+		JavaPlugin plugin = MandatumLib.getInstance().getPlugin();
+		Map<String, Map<String, Object>> commandsMap = plugin.getDescription().getCommands();
+		if(commandsMap == null)
+			throw new IllegalArgumentException("The plugin does not have any commands specified in the plugin.yml file");
+		ClassLoader classLoader = plugin.getClass().getClassLoader();
+
+		List<FoundCommand> foundCommands;
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try
+		{
+			foundCommands = resolve(findCommands(pool, classLoader), pool);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		// binding the commands to the plugin commands has to be done on the main thread
+		long bindingStartNanos = System.nanoTime();
+		Set<String> pluginCommands = new HashSet<>(commandsMap.keySet());
+		Map<String, Class<? extends MandatumBaseCommand>> commandClasses = new HashMap<>();
+		List<String> commandsNotInPluginYml = new ArrayList<>();
+		for(FoundCommand foundCommand : foundCommands)
+		{
+			if(!pluginCommands.remove(foundCommand.name))
+			{
+				MandatumLib.getLogger()
+						.severe("The command '"+foundCommand.name+"' is represented by a class but not listed in the plugin.yml");
+				commandsNotInPluginYml.add(foundCommand.name);
+				continue;
+			}
+
+			PluginCommand pluginCommand = plugin.getCommand(foundCommand.name);
+			pluginCommand.setExecutor(this.commandExecutor);
+			pluginCommand.setTabCompleter(MandatumLib.getTabCompleter());
+			commandClasses.put(foundCommand.name, foundCommand.commandClass);
+		}
+		this.commandExecutor.addCommandClasses(commandClasses);
+		long bindingNanos = System.nanoTime()-bindingStartNanos;
+
+		// commands registered before aren't missing
+		List<String> pluginYmlCommandsWithoutClass = new ArrayList<>();
+		for(String commandName : pluginCommands)
+			if(this.commandExecutor.getCommandClass(commandName) == null)
+			{
+				MandatumLib.getLogger()
+						.severe("The command '"+commandName+"' is present in the plugin.yml but wasn't represented as a class");
+				pluginYmlCommandsWithoutClass.add(commandName);
+			}
+		Collections.sort(pluginYmlCommandsWithoutClass);
+
+		RegistrationReport report = new RegistrationReport(this.classPaths.size(), commandClasses.size(),
+				Collections.unmodifiableList(commandsNotInPluginYml), Collections.unmodifiableList(pluginYmlCommandsWithoutClass),
+				Collections.unmodifiableMap(new TreeMap<>(this.failedPackages)), this.scanNanos.sum(),
+				this.instantiationNanos.sum(), bindingNanos, System.nanoTime()-startNanos);
+		MandatumLib.getLogger().info("Registering commands done: "+report);
+
+		return report;
+	}
+
+
+	// SCANNING
+	private List<FoundCommand> findCommands(ForkJoinPool pool, ClassLoader classLoader)
+	{
+		List<ForkJoinTask<List<FoundCommand>>> scanTasks = new ArrayList<>();
+		for(String classPath : this.classPaths)
+			scanTasks.add(pool.submit(()->findCommands(classPath, classLoader)));
+
+		List<FoundCommand> foundCommands = new ArrayList<>();
+		for(ForkJoinTask<List<FoundCommand>> scanTask : scanTasks)
+			foundCommands.addAll(scanTask.join());
+
+		return foundCommands;
+	}
+
+	private List<FoundCommand> findCommands(String classPath, ClassLoader classLoader)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			// use the index generated at build time if there is one, otherwise scan for the classes representing commands
+			CommandIndex index = CommandIndexes.load(classPath, classLoader);
+			return index != null ? readCommandIndex(classPath, index) : scanCommands(classPath);
+		}
+		catch(RuntimeException e)
+		{
+			MandatumLib.getLogger().severe("Scanning the commands at '"+classPath+"' failed: "+e);
+			this.failedPackages.put(classPath, e.toString());
+			return Collections.emptyList();
+		}
+		finally
+		{
+			this.scanNanos.add(System.nanoTime()-startNanos);
+		}
+	}
+
+	private List<FoundCommand> readCommandIndex(String classPath, CommandIndex index)
+	{
+		List<FoundCommand> foundCommands = new ArrayList<>();
+		for(CommandIndexEntry entry : index.getEntries())
+		{
+			// subcommands are registered by their supercommands
+			if(entry.getSuperCommandName() != null)
+				continue;
+
+			// the generated factory calls the constructor directly, so no reflection is needed at all
+			this.commandExecutor.setIndexedCommandFactory(entry.getCommandClass(), entry.getFactory());
+			foundCommands.add(new FoundCommand(classPath, entry.getCommandClass()));
+		}
+
+		return foundCommands;
+	}
+
+	private static List<FoundCommand> scanCommands(String classPath)
+	{
+		List<Class<?>> classes = ClassUtil.getClasses(classPath);
+		if(classes == null)
+			return Collections.emptyList();
+
+		List<FoundCommand> foundCommands = new ArrayList<>();
+		for(Class<?> clazz : classes)
+			if(MandatumBaseCommand.class.isAssignableFrom(clazz))
+			{
+				if(MandatumSubCommand.class.isAssignableFrom(clazz))
+					continue;
+
+				@SuppressWarnings("unchecked")
+				Class<? extends MandatumBaseCommand> commandClazz = (Class<? extends MandatumBaseCommand>) clazz;
+				foundCommands.add(new FoundCommand(classPath, commandClazz));
+			}
+			else
+				MandatumLib.getLogger().warning(
+						"Found class '"+clazz.getName()+"' in command package that isn't a command. It has been skipped");
+
+		return foundCommands;
+	}
+
+
+	// RESOLVING
+	private List<FoundCommand> resolve(List<FoundCommand> foundCommands, ForkJoinPool pool)
+	{
+		List<ForkJoinTask<FoundCommand>> resolveTasks = new ArrayList<>();
+		for(FoundCommand foundCommand : foundCommands)
+			resolveTasks.add(pool.submit(()->resolve(foundCommand)));
+
+		List<FoundCommand> resolvedCommands = new ArrayList<>();
+		for(ForkJoinTask<FoundCommand> resolveTask : resolveTasks)
+		{
+			FoundCommand resolvedCommand = resolveTask.join();
+			if(resolvedCommand != null)
+				resolvedCommands.add(resolvedCommand);
+		}
+
+		return resolvedCommands;
+	}
+
+	private FoundCommand resolve(FoundCommand foundCommand)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			// this resolves the factory and ArgumentSequences of the command and the whole tree of its subcommands,
+			// so broken commands fail here instead of when the command is used
+			RegisteredCommand registeredCommand = this.commandExecutor.registerCommandTree(foundCommand.commandClass);
+			foundCommand.name = registeredCommand.getName();
+			return foundCommand;
+		}
+		catch(RuntimeException e)
+		{
+			MandatumLib.getLogger().severe("Registering the command '"+foundCommand.commandClass.getName()+"' failed: "+e);
+			this.failedPackages.merge(foundCommand.classPath, e.toString(), (a, b)->a+"; "+b);
+			return null;
+		}
+		finally
+		{
+			this.instantiationNanos.add(System.nanoTime()-startNanos);
+		}
+	}
+
+
+	private static class FoundCommand
+	{
+
+		private final String classPath;
+		private final Class<? extends MandatumBaseCommand> commandClass;
+		private String name;
+
+
+		private FoundCommand(String classPath, Class<? extends MandatumBaseCommand> commandClass)
+		{
+			this.classPath = classPath;
+			this.commandClass = commandClass;
+		}
+
+	}
+
+}
@@ -0,0 +1,291 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.cmd.MandatumStatelessCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
+import de.domisum.lib.mandatum.cmd.MandatumSuperCommand;
+import de.domisum.lib.mandatum.limit.CommandLimiter;
+import de.domisum.lib.mandatum.metrics.CommandMetrics;
+import de.domisum.lib.mandatum.metrics.MandatumMetrics;
+import de.domisum.lib.mandatum.util.BKTree;
+import de.domisum.lib.mandatum.util.PrefixIndex;
+import org.bukkit.command.CommandSender;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Everything the executor resolves once when a command class is registered, so it doesn't have to be done again every
+ * time the command is dispatched.
+ * <p>
+ * Supercommands and subcommands with their own subcommands are nodes of a command tree, which is built when the
+ * commands are registered. Each node knows its children by name and the merged console and permission requirements of
+ * the path leading to it, so the executor can walk the tree to the selected subcommand and check everything once.
+ * <p>
+ * The nodes can't be changed after they have been created. Registering or replacing a command builds a new tree, which
+ * becomes visible to dispatching as a whole once it is swapped into the {@link CommandRegistry}.
+ */
+public class RegisteredCommand
+{
+
+	// REFERENCES
+	private final CommandDefinition definition;
+	private final CommandMetrics metrics;
+
+	// TREE
+	private final RegisteredCommand parent;
+	private final String commandPath;
+	private final boolean pathCanBeRunByConsole;
+	private final String[] pathPermissionNodes;
+
+	// only filled for commands with subcommands
+	private final Map<String, RegisteredCommand> subCommands;
+	private final PrefixIndex subCommandNames;
+	private final BKTree subCommandSuggestions;
+
+	// rendered on first use
+	private volatile CommandHelp help;
+
+
+	// CONSTRUCTOR
+
+	/**
+	 * Creates the node and the whole tree of its subcommands.
+	 *
+	 * @param definition         the definition of the command class
+	 * @param parent             the supercommand of the command, null for top level commands
+	 * @param metricsRegistry    the registry providing the metrics of the command path
+	 * @param subCommandResolver resolves the subcommands of a node, called once the node knows its path
+	 */
+	RegisteredCommand(CommandDefinition definition, RegisteredCommand parent, MandatumMetrics metricsRegistry,
+			Function<RegisteredCommand, Map<String, RegisteredCommand>> subCommandResolver)
+	{
+		this.definition = definition;
+		this.parent = parent;
+
+		if(parent == null)
+		{
+			// a subcommand registered on its own is treated like a top level command below its supercommand
+			this.commandPath = definition.getSuperCommandName() != null ?
+					definition.getSuperCommandName()+" "+definition.getName() :
+					definition.getName();
+			this.pathCanBeRunByConsole = definition.canBeRunByConsole();
+			this.pathPermissionNodes = definition.getRequiredPermissionNode() != null ?
+					new String[] {definition.getRequiredPermissionNode()} :
+					new String[0];
+		}
+		else
+		{
+			this.commandPath = parent.commandPath+" "+definition.getName();
+
+			// the requirements of the supercommands are merged into this command, so they are checked in one go
+			this.pathCanBeRunByConsole = parent.pathCanBeRunByConsole && definition.canBeRunByConsole();
+			Set<String> permissionNodes = new LinkedHashSet<>(Arrays.asList(parent.pathPermissionNodes));
+			if(definition.getRequiredPermissionNode() != null)
+				permissionNodes.add(definition.getRequiredPermissionNode());
+			this.pathPermissionNodes = permissionNodes.toArray(new String[0]);
+		}
+
+		// the metrics are kept per path, so a rebuilt tree continues counting where the old one stopped
+		this.metrics = metricsRegistry.getMetrics(this.commandPath);
+
+		// the subcommands are created last, since they read the path of this command
+		Map<String, RegisteredCommand> subCommands = subCommandResolver.apply(this);
+		this.subCommands = subCommands.isEmpty() ?
+				Collections.<String, RegisteredCommand>emptyMap() :
+				Collections.unmodifiableMap(new HashMap<>(subCommands));
+		this.subCommandNames = PrefixIndex.of(subCommands.keySet());
+		this.subCommandSuggestions = BKTree.of(subCommands.keySet());
+	}
+
+
+	// GETTERS
+	public Class<? extends MandatumBaseCommand> getCommandClass()
+	{
+		return this.definition.getCommandClass();
+	}
+
+	public String getName()
+	{
+		return this.definition.getName();
+	}
+
+	/**
+	 * @return the name of the command, preceded by the names of its supercommands separated by spaces
+	 */
+	public String getCommandPath()
+	{
+		return this.commandPath;
+	}
+
+	public boolean canBeRunByConsole()
+	{
+		return this.definition.canBeRunByConsole();
+	}
+
+	public String getRequiredPermissionNode()
+	{
+		return this.definition.getRequiredPermissionNode();
+	}
+
+	public String getUsage()
+	{
+		return this.definition.getUsage();
+	}
+
+	public CommandMetrics getMetrics()
+	{
+		return this.metrics;
+	}
+
+	/**
+	 * @return the limiter of the command, null if the command isn't limited
+	 */
+	public CommandLimiter getLimiter()
+	{
+		return this.definition.getLimiter();
+	}
+
+	/**
+	 * @param argumentSequence one of the ArgumentSequences of the command
+	 * @return the limiter of the ArgumentSequence, null if it isn't limited
+	 */
+	public CommandLimiter getLimiter(ArgumentSequence argumentSequence)
+	{
+		return this.definition.getLimiter(argumentSequence);
+	}
+
+	public ArgumentSequenceMatcher getMatcher()
+	{
+		return this.definition.getMatcher();
+	}
+
+	/**
+	 * @return if the command has subcommands, either because it is a {@link MandatumSuperCommand} or because it is a
+	 * {@link MandatumSubCommand} with its own subcommands
+	 */
+	public boolean isSuperCommand()
+	{
+		return this.definition.getMatcher() == null;
+	}
+
+	public boolean isStateless()
+	{
+		return this.definition.getStatelessCommand() != null;
+	}
+
+	/**
+	 * @return the object shared by all invocations of the command, null if the command isn't stateless
+	 */
+	public MandatumStatelessCommand getStatelessCommand()
+	{
+		return this.definition.getStatelessCommand();
+	}
+
+	/**
+	 * @return the class path of the subcommands of a subcommand, null if it doesn't have subcommands or is a supercommand
+	 */
+	public String getSubCommandsClassPath()
+	{
+		return this.definition.getSubCommandsClassPath();
+	}
+
+	/**
+	 * @return if {@link MandatumSuperCommand#shouldExecute()} has to be called before executing a subcommand
+	 */
+	public boolean checksShouldExecute()
+	{
+		return this.definition.checksShouldExecute();
+	}
+
+
+	// TREE
+	public RegisteredCommand getParent()
+	{
+		return this.parent;
+	}
+
+	public RegisteredCommand getSubCommand(String subCommandName)
+	{
+		return this.subCommands.get(subCommandName.toLowerCase());
+	}
+
+	public Class<? extends MandatumSubCommand> getSubCommandClass(String subCommandName)
+	{
+		RegisteredCommand subCommand = getSubCommand(subCommandName);
+		return subCommand != null ? subCommand.getCommandClass().asSubclass(MandatumSubCommand.class) : null;
+	}
+
+	public PrefixIndex getSubCommandNames()
+	{
+		return this.subCommandNames;
+	}
+
+	/**
+	 * @return the names of the subcommands, searchable for the names closest to a misspelled name
+	 */
+	public BKTree getSubCommandSuggestions()
+	{
+		return this.subCommandSuggestions;
+	}
+
+	Collection<RegisteredCommand> getSubCommands()
+	{
+		return this.subCommands.values();
+	}
+
+	/**
+	 * @return the cached usage and help messages of the command
+	 */
+	public CommandHelp getHelp()
+	{
+		CommandHelp help = this.help;
+		if(help == null)
+		{
+			help = new CommandHelp(this);
+			this.help = help;
+		}
+
+		return help;
+	}
+
+	/**
+	 * @return if the command and all of its supercommands can be run by the console
+	 */
+	public boolean canPathBeRunByConsole()
+	{
+		return this.pathCanBeRunByConsole;
+	}
+
+	/**
+	 * @return the permission nodes required by the command and all of its supercommands, without duplicates
+	 */
+	public String[] getPathPermissionNodes()
+	{
+		return this.pathPermissionNodes;
+	}
+
+
+	// CREATION
+
+	/**
+	 * Creates a command object for one invocation. For stateless commands, this always returns the shared object.
+	 *
+	 * @param sender the sender of the command
+	 * @param args   the arguments of the command
+	 * @return the command object
+	 */
+	public MandatumBaseCommand createCommand(CommandSender sender, List<String> args)
+	{
+		return this.definition.createCommand(sender, args);
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of registering the commands of several packages at once, see {@link ParallelCommandRegisterer}.
+ * <p>
+ * The scan and instantiation times are summed up over all threads, so with several threads they can be longer than
+ * the whole registration.
+ */
+public class RegistrationReport
+{
+
+	// PROPERTIES
+	private final int packages;
+	private final int registeredCommands;
+	private final List<String> commandsNotInPluginYml;
+	private final List<String> pluginYmlCommandsWithoutClass;
+	private final Map<String, String> failedPackages;
+
+	private final long scanNanos;
+	private final long instantiationNanos;
+	private final long bindingNanos;
+	private final long durationNanos;
+
+
+	// CONSTRUCTOR
+	RegistrationReport(int packages, int registeredCommands, List<String> commandsNotInPluginYml,
+			List<String> pluginYmlCommandsWithoutClass, Map<String, String> failedPackages, long scanNanos,
+			long instantiationNanos, long bindingNanos, long durationNanos)
+	{
+		this.packages = packages;
+		this.registeredCommands = registeredCommands;
+		this.commandsNotInPluginYml = commandsNotInPluginYml;
+		this.pluginYmlCommandsWithoutClass = pluginYmlCommandsWithoutClass;
+		this.failedPackages = failedPackages;
+
+		this.scanNanos = scanNanos;
+		this.instantiationNanos = instantiationNanos;
+		this.bindingNanos = bindingNanos;
+		this.durationNanos = durationNanos;
+	}
+
+
+	// GETTERS
+	@API public int getPackages()
+	{
+		return this.packages;
+	}
+
+	@API public int getRegisteredCommands()
+	{
+		return this.registeredCommands;
+	}
+
+	/**
+	 * @return the names of the commands represented by a class but not listed in the plugin.yml
+	 */
+	@API public List<String> getCommandsNotInPluginYml()
+	{
+		return this.commandsNotInPluginYml;
+	}
+
+	/**
+	 * @return the names of the commands listed in the plugin.yml but not represented by a class in any of the packages
+	 */
+	@API public List<String> getPluginYmlCommandsWithoutClass()
+	{
+		return this.pluginYmlCommandsWithoutClass;
+	}
+
+	/**
+	 * @return the error messages of the packages whose commands couldn't be registered, by package
+	 */
+	@API public Map<String, String> getFailedPackages()
+	{
+		return this.failedPackages;
+	}
+
+	/**
+	 * @return the time spent finding the command classes, summed up over all threads
+	 */
+	@API public long getScanNanos()
+	{
+		return this.scanNanos;
+	}
+
+	/**
+	 * @return the time spent instantiating the commands and resolving their subcommands and ArgumentSequences, summed
+	 * up over all threads
+	 */
+	@API public long getInstantiationNanos()
+	{
+		return this.instantiationNanos;
+	}
+
+	/**
+	 * @return the time spent on the main thread binding the commands to their plugin commands
+	 */
+	@API public long getBindingNanos()
+	{
+		return this.bindingNanos;
+	}
+
+	@API public long getDurationNanos()
+	{
+		return this.durationNanos;
+	}
+
+
+	// OBJECT
+	@Override public String toString()
+	{
+		return "RegistrationReport{"+this.registeredCommands+" commands in "+this.packages+" packages in "+toMillis(
+				this.durationNanos)+"ms (scan "+toMillis(this.scanNanos)+"ms, instantiation "+toMillis(this.instantiationNanos)
+				+"ms, binding "+toMillis(this.bindingNanos)+"ms), "+this.commandsNotInPluginYml.size()
+				+" not in plugin.yml, "+this.pluginYmlCommandsWithoutClass.size()+" without class, "+this.failedPackages.size()
+				+" failed packages}";
+	}
+
+	private static long toMillis(long nanos)
+	{
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+}
@@ -0,0 +1,119 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.auxilium.util.java.ClassUtil;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.MandatumSubCommand;
+import de.domisum.lib.mandatum.index.CommandIndex;
+import de.domisum.lib.mandatum.index.CommandIndexEntry;
+import de.domisum.lib.mandatum.index.CommandIndexes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the subcommands of a command in a package, using the index generated at build time if there is one.
+ */
+public final class SubCommandScanner
+{
+
+	// CONSTRUCTOR
+	private SubCommandScanner()
+	{
+
+	}
+
+
+	// SCANNING
+
+	/**
+	 * Finds the subcommands in the provided package belonging to the command with the provided name. Every subcommand
+	 * found is registered with the executor.
+	 *
+	 * @param commandName the name of the command the subcommands belong to
+	 * @param classPath   the package containing the subcommands
+	 * @param classLoader the class loader of the package
+	 * @return the classes of the subcommands, by their lowercase names
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Class<? extends MandatumSubCommand>> find(String commandName, String classPath,
+			ClassLoader classLoader)
+	{
+		MandatumLib.getLogger().info("Registering subcommands of '"+commandName+"' ...");
+
+		// use the index generated at build time if there is one, otherwise scan for the classes representing subcommands
+		CommandIndex index = CommandIndexes.load(classPath, classLoader);
+		if(index != null)
+			return readIndex(commandName, index);
+
+		Map<String, Class<? extends MandatumSubCommand>> subCommandClasses = new HashMap<>();
+		List<Class<?>> classes = ClassUtil.getClasses(classPath);
+		if(classes == null)
+			return subCommandClasses;
+
+		for(Class<?> c : classes)
+		{
+			if(!MandatumSubCommand.class.isAssignableFrom(c))
+			{
+				MandatumLib.getLogger().warning(
+						"Found class '"+c.getName()+"' in subcommand package that isn't a subcommand. It has been skipped");
+				continue;
+			}
+
+			// this resolves the factory and ArgumentSequences of the subcommand,
+			// so broken subcommands fail here instead of when the command is used
+			Class<? extends MandatumSubCommand> subCommandClazz = (Class<? extends MandatumSubCommand>) c;
+			MandatumSubCommand subCommand = (MandatumSubCommand) MandatumLib.getCommandExecutor()
+					.getDefinition(subCommandClazz).createCommand(null, null);
+
+			if(!subCommand.getSuperCommandName().equalsIgnoreCase(commandName))
+			{
+				MandatumLib.getLogger()
+						.severe("The subcommand '"+c.getName()+"' belongs to the command '"+subCommand.getSuperCommandName()
+								+"', not '"+commandName+"'");
+				continue;
+			}
+
+			subCommandClasses.put(subCommand.getName().toLowerCase(), subCommandClazz);
+			MandatumLib.getLogger().info("Registered subcommands '"+subCommand.getName()+"'");
+		}
+
+		MandatumLib.getLogger().info("Registering subcommands of '"+commandName+"' done");
+
+		return subCommandClasses;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Class<? extends MandatumSubCommand>> readIndex(String commandName, CommandIndex index)
+	{
+		Map<String, Class<? extends MandatumSubCommand>> subCommandClasses = new HashMap<>();
+		for(CommandIndexEntry entry : index.getEntries())
+		{
+			if(entry.getSuperCommandName() == null)
+			{
+				MandatumLib.getLogger().warning("Found class '"+entry.getCommandClass().getName()
+						+"' in subcommand package that isn't a subcommand. It has been skipped");
+				continue;
+			}
+
+			if(!entry.getSuperCommandName().equalsIgnoreCase(commandName))
+			{
+				MandatumLib.getLogger().severe("The subcommand '"+entry.getCommandClass().getName()+"' belongs to the command '"
+						+entry.getSuperCommandName()+"', not '"+commandName+"'");
+				continue;
+			}
+
+			// the generated factory calls the constructor directly, so no reflection is needed at all
+			Class<? extends MandatumSubCommand> subCommandClazz = (Class<? extends MandatumSubCommand>) entry.getCommandClass();
+			MandatumLib.getCommandExecutor().setIndexedCommandFactory(subCommandClazz, entry.getFactory());
+
+			subCommandClasses.put(entry.getName().toLowerCase(), subCommandClazz);
+			MandatumLib.getLogger().info("Registered subcommands '"+entry.getName()+"'");
+		}
+
+		MandatumLib.getLogger().info("Registering subcommands of '"+commandName+"' done");
+
+		return subCommandClasses;
+	}
+
+}
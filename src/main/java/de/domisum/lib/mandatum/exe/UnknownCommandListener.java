@@ -0,0 +1,64 @@
+package de.domisum.lib.mandatum.exe;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+
+import java.util.Locale;
+
+/**
+ * Suggests the closest command of MandatumLib when a player enters a command that doesn't exist on the server. Bukkit
+ * still answers with its unknown command message afterwards.
+ */
+public class UnknownCommandListener implements Listener
+{
+
+	// REFERENCES
+	private final MandatumCommandExecutor executor;
+
+
+	// CONSTRUCTOR
+	public UnknownCommandListener(MandatumCommandExecutor executor)
+	{
+		this.executor = executor;
+	}
+
+
+	// EVENTS
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void playerCommandPreprocess(PlayerCommandPreprocessEvent event)
+	{
+		if(!this.executor.isSuggestingCorrections())
+			return;
+
+		String message = event.getMessage();
+		int labelEnd = message.indexOf(' ');
+		if(labelEnd == -1)
+			labelEnd = message.length();
+		if(labelEnd <= 1)
+			return;
+
+		// namespaced labels like 'plugin:command' are left to Bukkit
+		String label = message.substring(1, labelEnd).toLowerCase(Locale.ROOT);
+		if(label.indexOf(':') != -1)
+			return;
+
+		// the help map contains every command and alias known to the server, so this is a map lookup instead of a scan
+		if(Bukkit.getHelpMap().getHelpTopic("/"+label) != null || Bukkit.getPluginCommand(label) != null)
+			return;
+
+		String suggestion = this.executor.getRegistry().getCommandNames().findClosest(label);
+		if(suggestion == null)
+			return;
+
+		// commands the player can't use aren't revealed
+		RegisteredCommand registeredCommand = this.executor.getRegistry().get(suggestion);
+		if(registeredCommand == null || !this.executor.hasPermission(event.getPlayer(), registeredCommand))
+			return;
+
+		event.getPlayer().sendMessage("Did you mean '/"+suggestion+"'?");
+	}
+
+}
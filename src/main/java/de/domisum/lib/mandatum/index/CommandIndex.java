@@ -0,0 +1,20 @@
+package de.domisum.lib.mandatum.index;
+
+import java.util.List;
+
+/**
+ * The commands of one package, generated at build time by the annotation processor from the classes annotated with
+ * {@link IndexedCommand}.
+ */
+public interface CommandIndex
+{
+
+	/**
+	 * The simple name of the generated index class in each indexed package.
+	 */
+	String CLASS_NAME = "MandatumCommandIndex";
+
+
+	List<CommandIndexEntry> getEntries();
+
+}
@@ -0,0 +1,56 @@
+package de.domisum.lib.mandatum.index;
+
+import de.domisum.lib.mandatum.cmd.MandatumBaseCommand;
+import de.domisum.lib.mandatum.exe.CommandFactory;
+
+/**
+ * A command listed in a generated {@link CommandIndex}.
+ */
+public class CommandIndexEntry
+{
+
+	// PROPERTIES
+	private final Class<? extends MandatumBaseCommand> commandClass;
+	private final String name;
+	private final String superCommandName;
+
+	// REFERENCES
+	private final CommandFactory factory;
+
+
+	// CONSTRUCTOR
+	public CommandIndexEntry(Class<? extends MandatumBaseCommand> commandClass, String name, String superCommandName,
+			CommandFactory factory)
+	{
+		this.commandClass = commandClass;
+		this.name = name;
+		this.superCommandName = superCommandName;
+		this.factory = factory;
+	}
+
+
+	// GETTERS
+	public Class<? extends MandatumBaseCommand> getCommandClass()
+	{
+		return this.commandClass;
+	}
+
+	public String getName()
+	{
+		return this.name;
+	}
+
+	/**
+	 * @return the name of the supercommand, or null if the command isn't a subcommand
+	 */
+	public String getSuperCommandName()
+	{
+		return this.superCommandName;
+	}
+
+	public CommandFactory getFactory()
+	{
+		return this.factory;
+	}
+
+}
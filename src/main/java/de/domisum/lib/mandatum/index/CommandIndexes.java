@@ -0,0 +1,55 @@
+package de.domisum.lib.mandatum.index;
+
+import de.domisum.lib.mandatum.MandatumLib;
+
+/**
+ * Loads the {@link CommandIndex} classes generated at build time.
+ */
+public final class CommandIndexes
+{
+
+	// CONSTRUCTOR
+	private CommandIndexes()
+	{
+
+	}
+
+
+	// LOADING
+
+	/**
+	 * Loads the index of the provided package.
+	 *
+	 * @param packageName the package containing the commands
+	 * @param classLoader the class loader of the plugin containing the package
+	 * @return the index, or null if no index has been generated for the package
+	 */
+	public static CommandIndex load(String packageName, ClassLoader classLoader)
+	{
+		Class<?> indexClass;
+		try
+		{
+			indexClass = Class.forName(packageName+"."+CommandIndex.CLASS_NAME, true, classLoader);
+		}
+		catch(ClassNotFoundException e)
+		{
+			return null;
+		}
+
+		if(!CommandIndex.class.isAssignableFrom(indexClass))
+		{
+			MandatumLib.getLogger().warning("The class '"+indexClass.getName()+"' isn't a command index. It has been skipped");
+			return null;
+		}
+
+		try
+		{
+			return (CommandIndex) indexClass.getConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("The command index '"+indexClass.getName()+"' couldn't be instantiated", e);
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package de.domisum.lib.mandatum.index;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a command class to be included in the command index generated at build time.
+ * <p>
+ * If the annotation processor of the {@code MandatumLib-processor} artifact is on the annotation processor path, it
+ * generates a {@code MandatumCommandIndex} class in every package containing annotated commands. When the commands of
+ * such a package are registered, MandatumLib reads the index instead of scanning the package and instantiating every
+ * class to find out its name.
+ * <p>
+ * The name in the annotation has to be the same as the one returned by {@code getName()}. The classes of a package are
+ * either all read from the index or all scanned, so once a package has an index, every command in it has to be
+ * annotated.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface IndexedCommand
+{
+
+	/**
+	 * @return the name of the command, the same as returned by {@code getName()}
+	 */
+	String name();
+
+	/**
+	 * @return the name of the supercommand if the annotated class is a subcommand, the same as returned by
+	 * {@code getSuperCommandName()}
+	 */
+	String superCommand() default "";
+
+}
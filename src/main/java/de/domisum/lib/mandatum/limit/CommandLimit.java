@@ -0,0 +1,100 @@
+package de.domisum.lib.mandatum.limit;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a single player can use a command or an ArgumentSequence. Limits are declared by overriding
+ * {@link de.domisum.lib.mandatum.cmd.MandatumBaseCommand#getLimit()} or by using
+ * {@link de.domisum.lib.mandatum.cmd.ArgumentSequence#limit(CommandLimit)}.
+ * <p>
+ * Example: {@code CommandLimit.rate(3, 10, TimeUnit.SECONDS)} allows a burst of 3 uses, after which one more use is
+ * allowed every 3.33 seconds. {@code CommandLimit.cooldown(5, TimeUnit.SECONDS)} allows one use every 5 seconds.
+ * <p>
+ * The console is never limited.
+ */
+public class CommandLimit
+{
+
+	// PROPERTIES
+	private final int permits;
+	private final long periodNanos;
+
+	// the interval after which another use is allowed, and how many uses can be made at once beyond that
+	private final long emissionIntervalNanos;
+	private final long burstToleranceNanos;
+
+
+	// CONSTRUCTOR
+	private CommandLimit(int permits, long periodNanos)
+	{
+		if(permits < 1)
+			throw new IllegalArgumentException("A limit has to allow at least one use, not "+permits);
+		if(periodNanos < permits)
+			throw new IllegalArgumentException("The period of a limit has to be positive");
+
+		this.permits = permits;
+		this.periodNanos = periodNanos;
+
+		this.emissionIntervalNanos = periodNanos/permits;
+		this.burstToleranceNanos = this.emissionIntervalNanos*(permits-1);
+	}
+
+	/**
+	 * Creates a limit that allows one use per duration.
+	 *
+	 * @param duration the time that has to pass between two uses
+	 * @param unit     the unit of the duration
+	 * @return the limit
+	 */
+	@API public static CommandLimit cooldown(long duration, TimeUnit unit)
+	{
+		return new CommandLimit(1, unit.toNanos(duration));
+	}
+
+	/**
+	 * Creates a token bucket limit. The bucket holds up to {@code permits} uses and is refilled at a rate of
+	 * {@code permits} per period, so a player can use the command {@code permits} times at once, but not more often than
+	 * that on average.
+	 *
+	 * @param permits the number of uses per period
+	 * @param period  the duration of the period
+	 * @param unit    the unit of the period
+	 * @return the limit
+	 */
+	@API public static CommandLimit rate(int permits, long period, TimeUnit unit)
+	{
+		return new CommandLimit(permits, unit.toNanos(period));
+	}
+
+
+	// GETTERS
+	@API public int getPermits()
+	{
+		return this.permits;
+	}
+
+	@API public long getPeriodNanos()
+	{
+		return this.periodNanos;
+	}
+
+	long getEmissionIntervalNanos()
+	{
+		return this.emissionIntervalNanos;
+	}
+
+	long getBurstToleranceNanos()
+	{
+		return this.burstToleranceNanos;
+	}
+
+
+	// OBJECT
+	@Override public String toString()
+	{
+		return "CommandLimit{"+this.permits+" per "+this.periodNanos+"ns}";
+	}
+
+}
@@ -0,0 +1,157 @@
+package de.domisum.lib.mandatum.limit;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces a {@link CommandLimit} for every player separately.
+ * <p>
+ * This uses the generic cell rate algorithm, which behaves like a token bucket but only needs a single number per
+ * player: the time at which the bucket will be full again. The numbers are updated using compare-and-set, so no locks
+ * are held while checking a limit. Players whose bucket is full again don't need to be remembered, so they are
+ * removed periodically. This keeps the memory bounded by the number of players that used the command recently.
+ */
+public class CommandLimiter
+{
+
+	// CONSTANTS
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	// PROPERTIES
+	private final CommandLimit limit;
+
+	// REFERENCES
+	private final LongSupplier nanoClock;
+	private final Map<UUID, Long> fullAt = new ConcurrentHashMap<>();
+	private final AtomicLong nextSweepNanos;
+
+
+	// CONSTRUCTOR
+	public CommandLimiter(CommandLimit limit)
+	{
+		this(limit, System::nanoTime);
+	}
+
+	/**
+	 * @param limit     the limit
+	 * @param nanoClock the source of the current time in nanoseconds, like {@link System#nanoTime()}
+	 */
+	CommandLimiter(CommandLimit limit, LongSupplier nanoClock)
+	{
+		this.limit = limit;
+		this.nanoClock = nanoClock;
+		this.nextSweepNanos = new AtomicLong(nanoClock.getAsLong()+SWEEP_INTERVAL_NANOS);
+	}
+
+
+	// GETTERS
+	@API public CommandLimit getLimit()
+	{
+		return this.limit;
+	}
+
+	/**
+	 * @return the number of players that are currently remembered by this limiter
+	 */
+	@API public int getNumberOfTrackedPlayers()
+	{
+		return this.fullAt.size();
+	}
+
+
+	// LIMITING
+
+	/**
+	 * Tries to use the limit for the provided player.
+	 *
+	 * @param playerId the uuid of the player
+	 * @return 0 if the player is allowed to use the command, otherwise the time in nanoseconds until the player will be
+	 * allowed to use it again
+	 */
+	public long tryAcquire(UUID playerId)
+	{
+		long now = this.nanoClock.getAsLong();
+		sweepIfDue(now);
+
+		long emissionInterval = this.limit.getEmissionIntervalNanos();
+		long burstTolerance = this.limit.getBurstToleranceNanos();
+		while(true)
+		{
+			Long previous = this.fullAt.get(playerId);
+			long theoreticalArrival = previous == null || previous-now < 0 ? now : previous;
+
+			long waitNanos = theoreticalArrival-burstTolerance-now;
+			if(waitNanos > 0)
+				return waitNanos;
+
+			Long next = theoreticalArrival+emissionInterval;
+			boolean updated = previous == null ?
+					this.fullAt.putIfAbsent(playerId, next) == null :
+					this.fullAt.replace(playerId, previous, next);
+			if(updated)
+				return 0;
+		}
+	}
+
+	/**
+	 * Gives back a use acquired by {@link #tryAcquire(UUID)} that hasn't been made, for example because another limit
+	 * rejected the command afterwards.
+	 *
+	 * @param playerId the uuid of the player
+	 */
+	public void release(UUID playerId)
+	{
+		long emissionInterval = this.limit.getEmissionIntervalNanos();
+		while(true)
+		{
+			Long previous = this.fullAt.get(playerId);
+			if(previous == null)
+				return;
+
+			// a time before now just means a full bucket, tryAcquire treats it like now
+			if(this.fullAt.replace(playerId, previous, previous-emissionInterval))
+				return;
+		}
+	}
+
+	/**
+	 * Forgets the uses of the provided player, for example when a cooldown is reset by an admin.
+	 *
+	 * @param playerId the uuid of the player
+	 */
+	@API public void reset(UUID playerId)
+	{
+		this.fullAt.remove(playerId);
+	}
+
+	@API public void resetAll()
+	{
+		this.fullAt.clear();
+	}
+
+
+	// EXPIRY
+	private void sweepIfDue(long now)
+	{
+		long nextSweep = this.nextSweepNanos.get();
+		if(now-nextSweep < 0)
+			return;
+
+		// only one thread sweeps, the others just continue
+		if(!this.nextSweepNanos.compareAndSet(nextSweep, now+SWEEP_INTERVAL_NANOS))
+			return;
+
+		for(Entry<UUID, Long> entry : this.fullAt.entrySet())
+			if(entry.getValue()-now <= 0)
+				// only removes the entry if it hasn't been updated in the meantime
+				this.fullAt.remove(entry.getKey(), entry.getValue());
+	}
+
+}
@@ -0,0 +1,83 @@
+package de.domisum.lib.mandatum.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded for one command or subcommand.
+ * <p>
+ * The validation histogram covers everything from receiving the command until {@code execute()} is called (or until
+ * the dispatch is rejected), the execution histogram covers {@code execute()} itself. The dispatch walks the command
+ * tree down to the selected subcommand and only records the invocation there, so the supercommands on the path don't
+ * record anything for it. A supercommand only records invocations that didn't select one of its subcommands, which
+ * end with the usage message.
+ */
+public class CommandMetrics
+{
+
+	// PROPERTIES
+	private final String commandPath;
+
+	// STATUS
+	private final LongAdder invocations = new LongAdder();
+	private final LongAdder[] outcomes = new LongAdder[CommandOutcome.values().length];
+	private final LatencyHistogram validationLatency = new LatencyHistogram();
+	private final LatencyHistogram executionLatency = new LatencyHistogram();
+
+
+	// CONSTRUCTOR
+	CommandMetrics(String commandPath)
+	{
+		this.commandPath = commandPath;
+
+		for(int i = 0; i < this.outcomes.length; i++)
+			this.outcomes[i] = new LongAdder();
+	}
+
+
+	// GETTERS
+	public String getCommandPath()
+	{
+		return this.commandPath;
+	}
+
+
+	// RECORDING
+	public void recordOutcome(CommandOutcome outcome)
+	{
+		this.invocations.increment();
+		this.outcomes[outcome.ordinal()].increment();
+	}
+
+	public void recordValidation(long nanos)
+	{
+		this.validationLatency.record(nanos);
+	}
+
+	public void recordExecution(long nanos)
+	{
+		this.executionLatency.record(nanos);
+	}
+
+
+	// SNAPSHOT
+	public CommandMetricsSnapshot snapshot()
+	{
+		long[] outcomeCounts = new long[this.outcomes.length];
+		for(int i = 0; i < outcomeCounts.length; i++)
+			outcomeCounts[i] = this.outcomes[i].sum();
+
+		return new CommandMetricsSnapshot(this.commandPath, this.invocations.sum(), outcomeCounts,
+				this.validationLatency.snapshot(), this.executionLatency.snapshot());
+	}
+
+	public void reset()
+	{
+		this.invocations.reset();
+		for(LongAdder outcome : this.outcomes)
+			outcome.reset();
+
+		this.validationLatency.reset();
+		this.executionLatency.reset();
+	}
+
+}
@@ -0,0 +1,82 @@
+package de.domisum.lib.mandatum.metrics;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+/**
+ * The metrics of one command or subcommand at one point in time.
+ */
+public class CommandMetricsSnapshot
+{
+
+	// PROPERTIES
+	private final String commandPath;
+	private final long invocations;
+	private final long[] outcomeCounts;
+	private final LatencyHistogramSnapshot validationLatency;
+	private final LatencyHistogramSnapshot executionLatency;
+
+
+	// CONSTRUCTOR
+	CommandMetricsSnapshot(String commandPath, long invocations, long[] outcomeCounts,
+			LatencyHistogramSnapshot validationLatency, LatencyHistogramSnapshot executionLatency)
+	{
+		this.commandPath = commandPath;
+		this.invocations = invocations;
+		this.outcomeCounts = outcomeCounts;
+		this.validationLatency = validationLatency;
+		this.executionLatency = executionLatency;
+	}
+
+
+	// GETTERS
+
+	/**
+	 * @return the name of the command, preceded by the names of its supercommands separated by spaces
+	 */
+	@API public String getCommandPath()
+	{
+		return this.commandPath;
+	}
+
+	@API public long getInvocations()
+	{
+		return this.invocations;
+	}
+
+	@API public long getOutcomeCount(CommandOutcome outcome)
+	{
+		return this.outcomeCounts[outcome.ordinal()];
+	}
+
+	/**
+	 * @return the number of invocations with an outcome counting as failure, see {@link CommandOutcome#isFailure()}
+	 */
+	@API public long getFailures()
+	{
+		long failures = 0;
+		for(CommandOutcome outcome : CommandOutcome.values())
+			if(outcome.isFailure())
+				failures += getOutcomeCount(outcome);
+
+		return failures;
+	}
+
+	@API public LatencyHistogramSnapshot getValidationLatency()
+	{
+		return this.validationLatency;
+	}
+
+	@API public LatencyHistogramSnapshot getExecutionLatency()
+	{
+		return this.executionLatency;
+	}
+
+	/**
+	 * @return the time spent in validation and execution together, in nanoseconds
+	 */
+	@API public long getTotalNanos()
+	{
+		return this.validationLatency.getTotalNanos()+this.executionLatency.getTotalNanos();
+	}
+
+}
@@ -0,0 +1,67 @@
+package de.domisum.lib.mandatum.metrics;
+
+/**
+ * The possible results of dispatching a command.
+ */
+public enum CommandOutcome
+{
+
+	/**
+	 * The arguments fit and the command has been executed (or handed to the async executor).
+	 */
+	EXECUTED,
+
+	/**
+	 * A page of the subcommands of a command with subcommands has been requested and sent.
+	 */
+	HELP,
+
+	/**
+	 * The arguments didn't fit the command, so the usage message has been sent.
+	 */
+	USAGE_ERROR,
+
+	/**
+	 * An argument was invalid in a way that has its own error message, for example a player that isn't online.
+	 */
+	VALIDATION_ERROR,
+
+	/**
+	 * The sender doesn't have the permission to use the command.
+	 */
+	PERMISSION_DENIED,
+
+	/**
+	 * The command has been sent by the console, but can only be used by players.
+	 */
+	CONSOLE_REJECTED,
+
+	/**
+	 * The sender has used the command too often recently.
+	 */
+	RATE_LIMITED,
+
+	/**
+	 * A supercommand prevented the execution of its subcommand in
+	 * {@link de.domisum.lib.mandatum.cmd.MandatumSuperCommand#shouldExecute()}.
+	 */
+	CANCELLED,
+
+	/**
+	 * The command has been disabled by the {@link de.domisum.lib.mandatum.watchdog.CommandWatchdog} for stalling the
+	 * server too often.
+	 */
+	DISABLED;
+
+
+	// GETTERS
+
+	/**
+	 * @return if the command couldn't be used as the sender intended
+	 */
+	public boolean isFailure()
+	{
+		return this != EXECUTED && this != HELP;
+	}
+
+}
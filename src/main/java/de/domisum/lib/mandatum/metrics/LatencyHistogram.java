@@ -0,0 +1,72 @@
+package de.domisum.lib.mandatum.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with fixed, exponentially growing buckets.
+ * <p>
+ * Bucket {@code i} counts the durations below {@code 1024 << i} nanoseconds (roughly {@code 2^i} microseconds), the last
+ * bucket counts everything above. Recording a duration only increments two {@link LongAdder}s, so it doesn't contend
+ * and doesn't allocate.
+ */
+public class LatencyHistogram
+{
+
+	// CONSTANTS
+	static final int NUMBER_OF_BUCKETS = 24;
+	private static final int BUCKET_SHIFT = 10;
+
+	// STATUS
+	private final LongAdder[] buckets = new LongAdder[NUMBER_OF_BUCKETS];
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+
+	// CONSTRUCTOR
+	LatencyHistogram()
+	{
+		for(int i = 0; i < NUMBER_OF_BUCKETS; i++)
+			this.buckets[i] = new LongAdder();
+	}
+
+
+	// RECORDING
+	public void record(long nanos)
+	{
+		this.buckets[getBucketIndex(nanos)].increment();
+		this.totalNanos.add(nanos);
+		this.maxNanos.accumulate(nanos);
+	}
+
+	static int getBucketIndex(long nanos)
+	{
+		int index = 64-Long.numberOfLeadingZeros(nanos>>BUCKET_SHIFT);
+		return Math.min(index, NUMBER_OF_BUCKETS-1);
+	}
+
+	static long getBucketUpperBound(int index)
+	{
+		return index == NUMBER_OF_BUCKETS-1 ? Long.MAX_VALUE : (1L<<BUCKET_SHIFT)<<index;
+	}
+
+
+	// SNAPSHOT
+	public LatencyHistogramSnapshot snapshot()
+	{
+		long[] counts = new long[NUMBER_OF_BUCKETS];
+		for(int i = 0; i < NUMBER_OF_BUCKETS; i++)
+			counts[i] = this.buckets[i].sum();
+
+		return new LatencyHistogramSnapshot(counts, this.totalNanos.sum(), this.maxNanos.get());
+	}
+
+	public void reset()
+	{
+		for(LongAdder bucket : this.buckets)
+			bucket.reset();
+		this.totalNanos.reset();
+		this.maxNanos.reset();
+	}
+
+}
@@ -0,0 +1,92 @@
+package de.domisum.lib.mandatum.metrics;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+/**
+ * The state of a {@link LatencyHistogram} at one point in time. All durations are in nanoseconds.
+ */
+public class LatencyHistogramSnapshot
+{
+
+	// PROPERTIES
+	private final long[] counts;
+	private final long count;
+	private final long totalNanos;
+	private final long maxNanos;
+
+
+	// CONSTRUCTOR
+	LatencyHistogramSnapshot(long[] counts, long totalNanos, long maxNanos)
+	{
+		this.counts = counts;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+
+		long count = 0;
+		for(long bucketCount : counts)
+			count += bucketCount;
+		this.count = count;
+	}
+
+
+	// GETTERS
+	@API public long getCount()
+	{
+		return this.count;
+	}
+
+	@API public long getTotalNanos()
+	{
+		return this.totalNanos;
+	}
+
+	@API public long getMaxNanos()
+	{
+		return this.maxNanos;
+	}
+
+	@API public long getMeanNanos()
+	{
+		return this.count == 0 ? 0 : this.totalNanos/this.count;
+	}
+
+	@API public int getNumberOfBuckets()
+	{
+		return this.counts.length;
+	}
+
+	@API public long getBucketCount(int index)
+	{
+		return this.counts[index];
+	}
+
+	@API public long getBucketUpperBoundNanos(int index)
+	{
+		return LatencyHistogram.getBucketUpperBound(index);
+	}
+
+	/**
+	 * Estimates a percentile of the recorded durations. The result is the upper bound of the bucket containing the
+	 * percentile, capped at the longest recorded duration.
+	 *
+	 * @param percentile the percentile, between 0 and 1
+	 * @return the estimated duration in nanoseconds
+	 */
+	@API public long getPercentileNanos(double percentile)
+	{
+		if(this.count == 0)
+			return 0;
+
+		long threshold = (long) Math.ceil(percentile*this.count);
+		long seen = 0;
+		for(int i = 0; i < this.counts.length; i++)
+		{
+			seen += this.counts[i];
+			if(seen >= threshold && seen > 0)
+				return Math.min(getBucketUpperBoundNanos(i), this.maxNanos);
+		}
+
+		return this.maxNanos;
+	}
+
+}
@@ -0,0 +1,59 @@
+package de.domisum.lib.mandatum.metrics;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link CommandMetrics} of all registered commands and subcommands.
+ * <p>
+ * The executor keeps a reference to the metrics of each command, so recording doesn't look anything up in this
+ * registry. It is only used to create snapshots.
+ */
+public class MandatumMetrics
+{
+
+	// REFERENCES
+	private final Map<String, CommandMetrics> metrics = new ConcurrentHashMap<>();
+
+
+	// GETTERS
+
+	/**
+	 * Returns the metrics of the command with the provided path, creating them if they don't exist yet.
+	 *
+	 * @param commandPath the name of the command, preceded by the names of its supercommands separated by spaces
+	 * @return the metrics of the command
+	 */
+	public CommandMetrics getMetrics(String commandPath)
+	{
+		return this.metrics.computeIfAbsent(commandPath.toLowerCase(), CommandMetrics::new);
+	}
+
+
+	// SNAPSHOT
+
+	/**
+	 * @return snapshots of the metrics of all commands, the commands with the most time spent in them first
+	 */
+	@API public List<CommandMetricsSnapshot> snapshot()
+	{
+		List<CommandMetricsSnapshot> snapshots = new ArrayList<>();
+		for(CommandMetrics commandMetrics : this.metrics.values())
+			snapshots.add(commandMetrics.snapshot());
+
+		snapshots.sort(Comparator.comparingLong(CommandMetricsSnapshot::getTotalNanos).reversed());
+		return snapshots;
+	}
+
+	@API public void reset()
+	{
+		for(CommandMetrics commandMetrics : this.metrics.values())
+			commandMetrics.reset();
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.domisum.lib.mandatum.metrics;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.MandatumCommand;
+import org.bukkit.command.CommandSender;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Built-in admin command showing the metrics recorded by the
+ * {@link de.domisum.lib.mandatum.exe.MandatumCommandExecutor}. It isn't registered by default, see
+ * {@link MandatumLib#registerMetricsCommand()}.
+ * <p>
+ * {@code /mandatummetrics [number of commands]} lists the commands with the most time spent in them,
+ * {@code /mandatummetrics reset} resets all metrics.
+ */
+public class MandatumMetricsCommand extends MandatumCommand
+{
+
+	// CONSTANTS
+	@API public static final String NAME = "mandatummetrics";
+	@API public static final String PERMISSION_NODE = "mandatum.metrics";
+
+	private static final int DEFAULT_NUMBER_OF_COMMANDS = 10;
+
+	private static final List<ArgumentSequence> ARGUMENT_SEQUENCES = Arrays.asList(
+			new ArgumentSequence("top", Integer.class),
+			new ArgumentSequence("reset", String.class),
+			new ArgumentSequence("default"));
+
+
+	// CONSTRUCTOR
+	@API public MandatumMetricsCommand(CommandSender commandSender, List<String> args)
+	{
+		super(commandSender, args);
+	}
+
+
+	// COMMAND
+	@Override public String getName()
+	{
+		return NAME;
+	}
+
+	@Override public boolean canBeRunByConsole()
+	{
+		return true;
+	}
+
+	@Override public String getRequiredPermissionNode()
+	{
+		return PERMISSION_NODE;
+	}
+
+	@Override public String getUsage()
+	{
+		return "/"+NAME+" [number of commands|reset]";
+	}
+
+	@Override public List<ArgumentSequence> getArgumentSequences()
+	{
+		return ARGUMENT_SEQUENCES;
+	}
+
+
+	// EXECUTION
+	@Override public void execute()
+	{
+		MandatumMetrics metrics = MandatumLib.getCommandExecutor().getMetrics();
+
+		if("reset".equals(this.argumentSequenceName))
+		{
+			if(!"reset".equalsIgnoreCase(this.args.get(0)))
+			{
+				sendUsageMessage();
+				return;
+			}
+
+			metrics.reset();
+			sendMessage("The command metrics have been reset.");
+			return;
+		}
+
+		int numberOfCommands = "top".equals(this.argumentSequenceName) ? getInt(0) : DEFAULT_NUMBER_OF_COMMANDS;
+		List<CommandMetricsSnapshot> snapshots = metrics.snapshot();
+		if(snapshots.isEmpty())
+		{
+			sendMessage("No commands have been used yet.");
+			return;
+		}
+
+		sendMessage("Commands by time spent (validation | execution, mean/p99/max):");
+		for(int i = 0; i < Math.min(numberOfCommands, snapshots.size()); i++)
+			sendMessage(formatSnapshot(snapshots.get(i)));
+	}
+
+
+	// UTIL
+	private static String formatSnapshot(CommandMetricsSnapshot snapshot)
+	{
+		return snapshot.getCommandPath()+": "+snapshot.getInvocations()+" calls, "+snapshot.getFailures()+" failed, "
+				+formatLatency(snapshot.getValidationLatency())+" | "+formatLatency(snapshot.getExecutionLatency())
+				+", "+formatDuration(snapshot.getTotalNanos())+" total";
+	}
+
+	private static String formatLatency(LatencyHistogramSnapshot latency)
+	{
+		return formatDuration(latency.getMeanNanos())+"/"+formatDuration(latency.getPercentileNanos(0.99))+"/"
+				+formatDuration(latency.getMaxNanos());
+	}
+
+	private static String formatDuration(long nanos)
+	{
+		if(nanos < 1000*1000)
+			return (nanos/1000)+"us";
+
+		return String.format("%.1fms", nanos/(1000d*1000));
+	}
+
+}
@@ -0,0 +1,125 @@
+package de.domisum.lib.mandatum.permission;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the results of {@link Player#hasPermission(String)} for the permission nodes of the commands, so permission
+ * plugins resolving inheritance and wildcards are only asked once per player and node.
+ * <p>
+ * Every permission node gets an index the first time it is checked, and the decisions of a player are stored in a
+ * bitset using these indexes. The decisions of a player are dropped when they quit or change worlds, see
+ * {@link PermissionCacheListener}. Bukkit has no event for changed permissions, so plugins changing permissions have to
+ * call {@link #invalidate(UUID)} or {@link #invalidateAll()} themselves.
+ * <p>
+ * The cache is disabled by default, in which case every check is passed on to the player.
+ */
+public class PermissionCache
+{
+
+	// PROPERTIES
+	private volatile boolean enabled = false;
+
+	// STATUS
+	private final Map<String, Integer> nodeIndices = new ConcurrentHashMap<>();
+	private final AtomicInteger nextNodeIndex = new AtomicInteger();
+
+	private final Map<UUID, PlayerPermissions> playerPermissions = new ConcurrentHashMap<>();
+
+
+	// SETTINGS
+
+	/**
+	 * Enables or disables the cache. Disabling the cache drops all cached decisions.
+	 *
+	 * @param enabled whether the decisions should be cached
+	 */
+	@API public void setEnabled(boolean enabled)
+	{
+		this.enabled = enabled;
+		if(!enabled)
+			invalidateAll();
+	}
+
+	@API public boolean isEnabled()
+	{
+		return this.enabled;
+	}
+
+
+	// CHECKING
+
+	/**
+	 * Checks if the player has all of the permission nodes. Operators are not treated specially, that is up to the
+	 * caller.
+	 *
+	 * @param player          the player
+	 * @param permissionNodes the permission nodes
+	 * @return whether the player has all of the permission nodes
+	 */
+	@API public boolean hasPermissions(Player player, String[] permissionNodes)
+	{
+		for(String permissionNode : permissionNodes)
+			if(!hasPermission(player, permissionNode))
+				return false;
+
+		return true;
+	}
+
+	@API public boolean hasPermission(Player player, String permissionNode)
+	{
+		if(!this.enabled)
+			return player.hasPermission(permissionNode);
+
+		int nodeIndex = getNodeIndex(permissionNode);
+		PlayerPermissions permissions = this.playerPermissions.computeIfAbsent(player.getUniqueId(),
+				uuid->new PlayerPermissions());
+
+		int decision = permissions.get(nodeIndex);
+		if(decision != -1)
+			return decision == 1;
+
+		// if the player is invalidated meanwhile, this decision is stored in an object no longer in the map
+		boolean granted = player.hasPermission(permissionNode);
+		permissions.set(nodeIndex, granted);
+		return granted;
+	}
+
+	private int getNodeIndex(String permissionNode)
+	{
+		Integer nodeIndex = this.nodeIndices.get(permissionNode);
+		if(nodeIndex != null)
+			return nodeIndex;
+
+		return this.nodeIndices.computeIfAbsent(permissionNode, node->this.nextNodeIndex.getAndIncrement());
+	}
+
+
+	// INVALIDATION
+
+	/**
+	 * Drops the cached decisions of the player, so they are checked again on their next use.
+	 *
+	 * @param playerUuid the uuid of the player
+	 */
+	@API public void invalidate(UUID playerUuid)
+	{
+		this.playerPermissions.remove(playerUuid);
+	}
+
+	@API public void invalidate(Player player)
+	{
+		invalidate(player.getUniqueId());
+	}
+
+	@API public void invalidateAll()
+	{
+		this.playerPermissions.clear();
+	}
+
+}
@@ -0,0 +1,37 @@
+package de.domisum.lib.mandatum.permission;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class PermissionCacheListener implements Listener
+{
+
+	// REFERENCES
+	private final PermissionCache cache;
+
+
+	// CONSTRUCTOR
+	public PermissionCacheListener(PermissionCache cache)
+	{
+		this.cache = cache;
+	}
+
+
+	// EVENTS
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void playerQuit(PlayerQuitEvent event)
+	{
+		this.cache.invalidate(event.getPlayer());
+	}
+
+	// permission plugins commonly grant permissions per world
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void playerChangedWorld(PlayerChangedWorldEvent event)
+	{
+		this.cache.invalidate(event.getPlayer());
+	}
+
+}
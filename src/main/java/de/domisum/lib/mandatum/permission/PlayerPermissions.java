@@ -0,0 +1,54 @@
+package de.domisum.lib.mandatum.permission;
+
+import java.util.Arrays;
+
+/**
+ * The permission decisions cached for one player, stored as two bitsets indexed by the index of the permission node:
+ * one marking the nodes that have been checked and one marking the nodes that were granted.
+ */
+class PlayerPermissions
+{
+
+	// STATUS
+	private long[] checked = new long[1];
+	private long[] granted = new long[1];
+
+
+	// ACCESS
+
+	/**
+	 * @param nodeIndex the index of the permission node
+	 * @return 1 if the node is granted, 0 if it isn't, -1 if it hasn't been checked yet
+	 */
+	synchronized int get(int nodeIndex)
+	{
+		int word = nodeIndex >>> 6;
+		if(word >= this.checked.length)
+			return -1;
+
+		long bit = 1L<<nodeIndex;
+		if((this.checked[word]&bit) == 0)
+			return -1;
+
+		return (this.granted[word]&bit) != 0 ? 1 : 0;
+	}
+
+	synchronized void set(int nodeIndex, boolean isGranted)
+	{
+		int word = nodeIndex >>> 6;
+		if(word >= this.checked.length)
+		{
+			int length = Math.max(word+1, this.checked.length*2);
+			this.checked = Arrays.copyOf(this.checked, length);
+			this.granted = Arrays.copyOf(this.granted, length);
+		}
+
+		long bit = 1L<<nodeIndex;
+		this.checked[word] |= bit;
+		if(isGranted)
+			this.granted[word] |= bit;
+		else
+			this.granted[word] &= ~bit;
+	}
+
+}
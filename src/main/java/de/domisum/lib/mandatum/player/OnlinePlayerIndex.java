@@ -0,0 +1,220 @@
+package de.domisum.lib.mandatum.player;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.util.BKTree;
+import de.domisum.lib.mandatum.util.PrefixIndex;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the players currently online, kept up to date by the {@link OnlinePlayerListener}.
+ * <p>
+ * Players are indexed by their lowercase name and their UUID, and the names are additionally kept in a
+ * {@link PrefixIndex} for prefix lookups and tab completion. Resolving a name therefore doesn't have to scan all online
+ * players like {@code Bukkit.getPlayer(String)} does.
+ * <p>
+ * Reads never block: the maps are concurrent and the prefix index is replaced as a whole when a player joins or quits,
+ * which happens far less often than it is read. The names are also kept in a {@link BKTree}, updated in place, to
+ * suggest the closest name for a misspelled one.
+ */
+public class OnlinePlayerIndex
+{
+
+	// SETTINGS
+	private volatile PlayerLookupMode lookupMode = PlayerLookupMode.PREFIX;
+
+	// REFERENCES
+	private final Map<String, Player> playersByName = new ConcurrentHashMap<>();
+	private final Map<UUID, Player> playersById = new ConcurrentHashMap<>();
+	private volatile PrefixIndex names = PrefixIndex.empty();
+	private volatile BKTree nameSuggestions = new BKTree();
+
+	// STATUS
+	private final AtomicLong version = new AtomicLong();
+
+
+	// INIT
+
+	/**
+	 * Replaces the contents of the index with the provided players. This is used when MandatumLib is enabled, since
+	 * players can already be online at that point (for example after a reload).
+	 *
+	 * @param players the players currently online
+	 */
+	public synchronized void reset(Collection<? extends Player> players)
+	{
+		this.playersByName.clear();
+		this.playersById.clear();
+
+		List<String> names = new ArrayList<>();
+		for(Player player : players)
+		{
+			names.add(player.getName());
+			this.playersByName.put(toKey(player.getName()), player);
+			this.playersById.put(player.getUniqueId(), player);
+		}
+
+		this.names = PrefixIndex.of(names);
+		this.nameSuggestions = BKTree.of(names);
+		this.version.incrementAndGet();
+	}
+
+
+	// SETTINGS
+	@API public void setLookupMode(PlayerLookupMode lookupMode)
+	{
+		this.lookupMode = lookupMode;
+		this.version.incrementAndGet();
+	}
+
+	@API public PlayerLookupMode getLookupMode()
+	{
+		return this.lookupMode;
+	}
+
+
+	// GETTERS
+
+	/**
+	 * @return a number that is increased after every change of the index or the lookup mode, so names may resolve to
+	 * other players than before once it has changed
+	 */
+	@API public long getVersion()
+	{
+		return this.version.get();
+	}
+
+
+	// CHANGERS
+	public synchronized void add(Player player)
+	{
+		this.playersByName.put(toKey(player.getName()), player);
+		this.playersById.put(player.getUniqueId(), player);
+		this.names = this.names.with(player.getName());
+		this.nameSuggestions.add(player.getName());
+		this.version.incrementAndGet();
+	}
+
+	public synchronized void remove(Player player)
+	{
+		// only remove the entries of this player object, a new session of the same player could already be indexed
+		this.playersByName.remove(toKey(player.getName()), player);
+		this.playersById.remove(player.getUniqueId(), player);
+		if(!this.playersByName.containsKey(toKey(player.getName())))
+		{
+			this.names = this.names.without(player.getName());
+			this.nameSuggestions.remove(player.getName());
+		}
+		this.version.incrementAndGet();
+	}
+
+
+	// LOOKUP
+
+	/**
+	 * Resolves the provided name using the current {@link PlayerLookupMode}.
+	 *
+	 * @param name the name, or the start of the name, ignoring case
+	 * @return the player, or null if no player could be selected
+	 */
+	@API public Player getPlayer(String name)
+	{
+		return getPlayer(name, this.lookupMode);
+	}
+
+	/**
+	 * Resolves the provided name using the provided {@link PlayerLookupMode}.
+	 *
+	 * @param name       the name, or the start of the name, ignoring case
+	 * @param lookupMode the mode used to select the player
+	 * @return the player, or null if no player could be selected
+	 */
+	@API public Player getPlayer(String name, PlayerLookupMode lookupMode)
+	{
+		Player player = this.playersByName.get(toKey(name));
+		if(player != null || lookupMode == PlayerLookupMode.EXACT)
+			return player;
+
+		List<String> candidates = this.names.lookup(name);
+		if(candidates.isEmpty())
+			return null;
+
+		if(lookupMode == PlayerLookupMode.UNIQUE_PREFIX)
+			return candidates.size() == 1 ? this.playersByName.get(toKey(candidates.get(0))) : null;
+
+		// like Bukkit, select the player whose name is the shortest, since it is the closest to what has been typed
+		String shortest = candidates.get(0);
+		for(int i = 1; i < candidates.size(); i++)
+			if(candidates.get(i).length() < shortest.length())
+				shortest = candidates.get(i);
+
+		return this.playersByName.get(toKey(shortest));
+	}
+
+	@API public Player getPlayer(UUID id)
+	{
+		return this.playersById.get(id);
+	}
+
+	/**
+	 * @return a read-only view of the online players
+	 */
+	@API public Collection<Player> getPlayers()
+	{
+		return Collections.unmodifiableCollection(this.playersById.values());
+	}
+
+	/**
+	 * @param prefix the start of the names, ignoring case
+	 * @return the online players whose names start with the prefix
+	 */
+	@API public List<Player> getPlayersByPrefix(String prefix)
+	{
+		List<String> names = this.names.lookup(prefix);
+		List<Player> players = new ArrayList<>(names.size());
+		for(String name : names)
+		{
+			// the player can have quit since the names have been read
+			Player player = this.playersByName.get(toKey(name));
+			if(player != null)
+				players.add(player);
+		}
+
+		return players;
+	}
+
+	/**
+	 * @param prefix the start of the name, ignoring case
+	 * @return a read-only view of the names of the online players starting with the prefix
+	 */
+	@API public List<String> completeName(String prefix)
+	{
+		return this.names.lookup(prefix);
+	}
+
+	/**
+	 * @param name the misspelled name
+	 * @return the name of the online player closest to the misspelled name, or null if no name is close enough
+	 */
+	@API public String suggestName(String name)
+	{
+		return this.nameSuggestions.findClosest(name);
+	}
+
+
+	// UTIL
+	private static String toKey(String name)
+	{
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,36 @@
+package de.domisum.lib.mandatum.player;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class OnlinePlayerListener implements Listener
+{
+
+	// REFERENCES
+	private final OnlinePlayerIndex index;
+
+
+	// CONSTRUCTOR
+	public OnlinePlayerListener(OnlinePlayerIndex index)
+	{
+		this.index = index;
+	}
+
+
+	// EVENTS
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void playerJoin(PlayerJoinEvent event)
+	{
+		this.index.add(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void playerQuit(PlayerQuitEvent event)
+	{
+		this.index.remove(event.getPlayer());
+	}
+
+}
@@ -0,0 +1,27 @@
+package de.domisum.lib.mandatum.player;
+
+/**
+ * Determines how the {@link OnlinePlayerIndex} resolves player names entered as command arguments. In every mode, a
+ * player whose name exactly matches the argument (ignoring case) is selected first.
+ */
+public enum PlayerLookupMode
+{
+
+	/**
+	 * Only the exact name (ignoring case) selects a player.
+	 */
+	EXACT,
+
+	/**
+	 * If there is no exact match, the player with the shortest name starting with the argument is selected. This is the
+	 * behavior of {@code Bukkit.getPlayer(String)}.
+	 */
+	PREFIX,
+
+	/**
+	 * If there is no exact match, a player is only selected if they are the only one whose name starts with the
+	 * argument.
+	 */
+	UNIQUE_PREFIX
+
+}
@@ -0,0 +1,140 @@
+package de.domisum.lib.mandatum.util;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable view of a range of a String array, used for the arguments of commands.
+ * <p>
+ * The array passed by Bukkit is used directly instead of being copied. Forwarding the arguments to a subcommand only
+ * creates a new view starting one element later, so deep command trees don't copy the arguments at every level.
+ */
+public final class ArgumentList extends AbstractList<String> implements RandomAccess
+{
+
+	// CONSTANTS
+	private static final ArgumentList EMPTY = new ArgumentList(new String[0], 0, 0);
+
+	// PROPERTIES
+	private final String[] array;
+	private final int from;
+	private final int to;
+
+
+	// CONSTRUCTOR
+	private ArgumentList(String[] array, int from, int to)
+	{
+		this.array = array;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Creates a view of the provided array. The array must not be changed afterwards.
+	 *
+	 * @param args the arguments
+	 * @return the view of the arguments
+	 */
+	@API public static ArgumentList of(String[] args)
+	{
+		if(args.length == 0)
+			return EMPTY;
+
+		return new ArgumentList(args, 0, args.length);
+	}
+
+	/**
+	 * Returns the provided list if it already is an ArgumentList, otherwise an ArgumentList containing a copy of its
+	 * elements.
+	 *
+	 * @param args the arguments
+	 * @return the arguments as an ArgumentList
+	 */
+	@API public static ArgumentList of(List<String> args)
+	{
+		if(args instanceof ArgumentList)
+			return (ArgumentList) args;
+
+		return of(args.toArray(new String[0]));
+	}
+
+
+	// LIST
+	@Override public String get(int index)
+	{
+		if(index < 0 || index >= size())
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+
+		return this.array[this.from+index];
+	}
+
+	@Override public int size()
+	{
+		return this.to-this.from;
+	}
+
+	@Override public ArgumentList subList(int fromIndex, int toIndex)
+	{
+		if(fromIndex < 0 || toIndex > size() || fromIndex > toIndex)
+			throw new IndexOutOfBoundsException("fromIndex: "+fromIndex+", toIndex: "+toIndex+", Size: "+size());
+
+		return new ArgumentList(this.array, this.from+fromIndex, this.from+toIndex);
+	}
+
+
+	// VIEWS
+
+	/**
+	 * Returns a view of the arguments starting at the provided index. This doesn't copy the arguments.
+	 *
+	 * @param fromIndex the index of the first argument of the view
+	 * @return the view of the remaining arguments
+	 */
+	@API public ArgumentList slice(int fromIndex)
+	{
+		return subList(fromIndex, size());
+	}
+
+	/**
+	 * Joins the arguments starting at the provided index, separated by spaces.
+	 *
+	 * @param fromIndex the index of the first argument to join
+	 * @return the joined arguments
+	 */
+	@API public String join(int fromIndex)
+	{
+		return join(this, fromIndex);
+	}
+
+	/**
+	 * Joins the arguments of the provided list starting at the provided index, separated by spaces. The String is built
+	 * in one pass with a builder that is sized up front.
+	 *
+	 * @param args      the arguments
+	 * @param fromIndex the index of the first argument to join
+	 * @return the joined arguments
+	 */
+	@API public static String join(List<String> args, int fromIndex)
+	{
+		int size = args.size();
+		if(fromIndex >= size)
+			return "";
+		if(fromIndex == size-1)
+			return args.get(fromIndex);
+
+		int length = size-fromIndex-1;
+		for(int i = fromIndex; i < size; i++)
+			length += args.get(i).length();
+
+		StringBuilder message = new StringBuilder(length);
+		message.append(args.get(fromIndex));
+		for(int i = fromIndex+1; i < size; i++)
+			message.append(' ').append(args.get(i));
+
+		return message.toString();
+	}
+
+}
@@ -0,0 +1,409 @@
+package de.domisum.lib.mandatum.util;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A case insensitive index of Strings that can be searched for the entries closest to a misspelled String.
+ * <p>
+ * The entries are arranged in a BK-tree: every child of a node is stored under its edit distance to that node, so by
+ * the triangle inequality a search only has to descend into the children whose distance lies within the tolerance
+ * around the distance of the query to the node. A search with a small tolerance therefore only computes the distance to
+ * a small part of the entries, even for thousands of entries.
+ * <p>
+ * Entries can be added and removed while the tree is being searched. Changes are synchronized and publish every node and
+ * child array before it becomes reachable, so searches never block. Removed entries are only marked as removed and the
+ * tree is rebuilt once they make up half of it.
+ */
+public final class BKTree
+{
+
+	// CONSTANTS
+	private static final int MIN_REBUILD_SIZE = 16;
+
+	// STATUS
+	private volatile Node root;
+	private int size;
+	private int removed;
+
+
+	// CONSTRUCTOR
+	@API public BKTree()
+	{
+
+	}
+
+	@API public static BKTree of(Collection<String> values)
+	{
+		BKTree tree = new BKTree();
+		for(String value : values)
+			tree.add(value);
+
+		return tree;
+	}
+
+
+	// GETTERS
+	@API public synchronized int size()
+	{
+		return this.size;
+	}
+
+
+	// CHANGERS
+
+	/**
+	 * Adds the value, replacing an entry differing only in capitalization.
+	 *
+	 * @param value the value to add
+	 */
+	@API public synchronized void add(String value)
+	{
+		String key = toKey(value);
+		Node node = this.root;
+		if(node == null)
+		{
+			this.root = new Node(key, value);
+			this.size++;
+			return;
+		}
+
+		EditDistance editDistance = new EditDistance(key);
+		while(true)
+		{
+			int distance = editDistance.to(node.key);
+			if(distance == 0)
+			{
+				node.value = value;
+				if(node.removed)
+				{
+					node.removed = false;
+					this.removed--;
+					this.size++;
+				}
+				return;
+			}
+
+			Node child = node.getChild(distance);
+			if(child == null)
+			{
+				node.setChild(distance, new Node(key, value));
+				this.size++;
+				return;
+			}
+
+			node = child;
+		}
+	}
+
+	/**
+	 * @param value the value to remove, in any case
+	 */
+	@API public synchronized void remove(String value)
+	{
+		String key = toKey(value);
+		EditDistance editDistance = new EditDistance(key);
+
+		Node node = this.root;
+		while(node != null)
+		{
+			int distance = editDistance.to(node.key);
+			if(distance == 0)
+			{
+				if(!node.removed)
+				{
+					node.removed = true;
+					this.removed++;
+					this.size--;
+					rebuildIfSparse();
+				}
+				return;
+			}
+
+			node = node.getChild(distance);
+		}
+	}
+
+	private void rebuildIfSparse()
+	{
+		if(this.removed < MIN_REBUILD_SIZE || this.removed < this.size)
+			return;
+
+		List<String> values = new ArrayList<>(this.size);
+		collect(this.root, values);
+
+		// the new tree is built completely before it is published, so searches see either the old or the new tree
+		BKTree rebuilt = of(values);
+		this.root = rebuilt.root;
+		this.size = rebuilt.size;
+		this.removed = 0;
+	}
+
+	private static void collect(Node node, List<String> values)
+	{
+		if(!node.removed)
+			values.add(node.value);
+
+		for(Node child : node.children)
+			if(child != null)
+				collect(child, values);
+	}
+
+
+	// LOOKUP
+
+	/**
+	 * Returns the entry closest to the query, using a tolerance depending on its length: one edit for queries of up to
+	 * four characters, two edits for longer ones. Entries equal to the query ignoring case are returned as well.
+	 *
+	 * @param query the misspelled String
+	 * @return the closest entry, or null if no entry is within the tolerance
+	 */
+	@API public String findClosest(String query)
+	{
+		List<String> closest = lookup(query, getTolerance(query), 1);
+		return closest.isEmpty() ? null : closest.get(0);
+	}
+
+	/**
+	 * Returns the entries within the maximum edit distance of the query, the closest ones first and entries with the same
+	 * distance ordered alphabetically.
+	 *
+	 * @param query       the misspelled String
+	 * @param maxDistance the maximum number of inserted, removed or replaced characters
+	 * @param limit       the maximum number of entries returned
+	 * @return the closest entries
+	 */
+	@API public List<String> lookup(String query, int maxDistance, int limit)
+	{
+		Node root = this.root;
+		if(root == null || limit <= 0)
+			return Collections.emptyList();
+
+		String key = toKey(query);
+		List<Match> matches = new ArrayList<>();
+		search(root, new EditDistance(key), maxDistance, matches);
+		if(matches.isEmpty())
+			return Collections.emptyList();
+
+		matches.sort(null);
+		List<String> values = new ArrayList<>(Math.min(limit, matches.size()));
+		for(int i = 0; i < matches.size() && i < limit; i++)
+			values.add(matches.get(i).node.value);
+
+		return values;
+	}
+
+	private static void search(Node node, EditDistance editDistance, int maxDistance, List<Match> matches)
+	{
+		int distance = editDistance.to(node.key);
+		if(distance <= maxDistance && !node.removed)
+			matches.add(new Match(node, distance));
+
+		// by the triangle inequality, matches can only be below children with a distance in this range
+		Node[] children = node.children;
+		int from = Math.max(1, distance-maxDistance);
+		int to = Math.min(children.length-1, distance+maxDistance);
+		for(int childDistance = from; childDistance <= to; childDistance++)
+			if(children[childDistance] != null)
+				search(children[childDistance], editDistance, maxDistance, matches);
+	}
+
+
+	// UTIL
+	private static int getTolerance(String query)
+	{
+		return query.length() <= 4 ? 1 : 2;
+	}
+
+	private static String toKey(String value)
+	{
+		return value.toLowerCase(Locale.ROOT);
+	}
+
+
+	// NODE
+	private static class Node
+	{
+
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private final String key;
+		private volatile String value;
+		private volatile boolean removed;
+
+		// replaced as a whole when a child is added, so searches never see a partially written array
+		private volatile Node[] children = NO_CHILDREN;
+
+
+		private Node(String key, String value)
+		{
+			this.key = key;
+			this.value = value;
+		}
+
+
+		private Node getChild(int distance)
+		{
+			Node[] children = this.children;
+			return distance < children.length ? children[distance] : null;
+		}
+
+		private void setChild(int distance, Node child)
+		{
+			Node[] children = new Node[Math.max(this.children.length, distance+1)];
+			System.arraycopy(this.children, 0, children, 0, this.children.length);
+			children[distance] = child;
+			this.children = children;
+		}
+
+	}
+
+	/**
+	 * Computes the Levenshtein distance from one String to others. Strings of up to 64 characters are handled with the
+	 * bit-parallel algorithm of Myers, which computes a whole column of the distance matrix with a few long operations,
+	 * so a comparison costs a few operations per character of the other String instead of one per cell.
+	 */
+	private static class EditDistance
+	{
+
+		private static final int MAX_BIT_PARALLEL_LENGTH = 64;
+
+		private final String pattern;
+
+		// bit i is set in the mask of a character if the pattern has that character at position i
+		private final long[] asciiMasks = new long[128];
+		private final String otherCharacters;
+		private final long[] otherMasks;
+
+
+		private EditDistance(String pattern)
+		{
+			this.pattern = pattern;
+
+			StringBuilder otherCharacters = new StringBuilder();
+			long[] otherMasks = new long[Math.min(pattern.length(), MAX_BIT_PARALLEL_LENGTH)];
+			for(int i = 0; i < pattern.length() && i < MAX_BIT_PARALLEL_LENGTH; i++)
+			{
+				char c = pattern.charAt(i);
+				if(c < 128)
+				{
+					this.asciiMasks[c] |= 1L<<i;
+					continue;
+				}
+
+				int index = otherCharacters.indexOf(String.valueOf(c));
+				if(index == -1)
+				{
+					index = otherCharacters.length();
+					otherCharacters.append(c);
+				}
+				otherMasks[index] |= 1L<<i;
+			}
+
+			this.otherCharacters = otherCharacters.toString();
+			this.otherMasks = otherMasks;
+		}
+
+
+		private int to(String other)
+		{
+			int length = this.pattern.length();
+			if(length == 0)
+				return other.length();
+			if(length > MAX_BIT_PARALLEL_LENGTH)
+				return computeByRows(other);
+
+			long lastBit = 1L<<(length-1);
+			long positiveVertical = -1L;
+			long negativeVertical = 0;
+			int distance = length;
+			for(int j = 0; j < other.length(); j++)
+			{
+				long equal = getMask(other.charAt(j));
+				long x = equal|negativeVertical;
+				long crossing = (((equal&positiveVertical)+positiveVertical)^positiveVertical)|equal;
+				long positiveHorizontal = negativeVertical|~(crossing|positiveVertical);
+				long negativeHorizontal = positiveVertical&crossing;
+
+				if((positiveHorizontal&lastBit) != 0)
+					distance++;
+				else if((negativeHorizontal&lastBit) != 0)
+					distance--;
+
+				// the first row of the matrix counts up, so a positive difference is shifted in
+				positiveHorizontal = (positiveHorizontal<<1)|1;
+				negativeHorizontal <<= 1;
+				positiveVertical = negativeHorizontal|~(x|positiveHorizontal);
+				negativeVertical = positiveHorizontal&x;
+			}
+
+			return distance;
+		}
+
+		private long getMask(char c)
+		{
+			if(c < 128)
+				return this.asciiMasks[c];
+
+			int index = this.otherCharacters.indexOf(c);
+			return index == -1 ? 0 : this.otherMasks[index];
+		}
+
+		private int computeByRows(String other)
+		{
+			int[] previous = new int[this.pattern.length()+1];
+			int[] current = new int[this.pattern.length()+1];
+			for(int i = 0; i <= this.pattern.length(); i++)
+				previous[i] = i;
+
+			for(int j = 1; j <= other.length(); j++)
+			{
+				current[0] = j;
+				char c = other.charAt(j-1);
+				for(int i = 1; i <= this.pattern.length(); i++)
+				{
+					int substitution = previous[i-1]+(this.pattern.charAt(i-1) == c ? 0 : 1);
+					current[i] = Math.min(substitution, Math.min(previous[i], current[i-1])+1);
+				}
+
+				int[] swap = previous;
+				previous = current;
+				current = swap;
+			}
+
+			return previous[this.pattern.length()];
+		}
+
+	}
+
+	private static class Match implements Comparable<Match>
+	{
+
+		private final Node node;
+		private final int distance;
+
+
+		private Match(Node node, int distance)
+		{
+			this.node = node;
+			this.distance = distance;
+		}
+
+
+		@Override public int compareTo(Match other)
+		{
+			if(this.distance != other.distance)
+				return Integer.compare(this.distance, other.distance);
+
+			return this.node.key.compareTo(other.node.key);
+		}
+
+	}
+
+}
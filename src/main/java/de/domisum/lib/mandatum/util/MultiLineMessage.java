@@ -0,0 +1,64 @@
+package de.domisum.lib.mandatum.util;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.exe.MandatumCommandExecutor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * A message of several lines sent to players as a single chat packet.
+ * <p>
+ * {@link Player#sendMessage(String)} splits a message at its line breaks and sends one packet per line, while a chat
+ * component containing line breaks is sent as one packet and displayed on several lines by the client. The component
+ * is created once, so the message can be cached and sent any number of times without allocating anything. It must
+ * only be sent on the main thread.
+ */
+public final class MultiLineMessage
+{
+
+	// PROPERTIES
+	private final String text;
+	private final BaseComponent component;
+
+
+	// CONSTRUCTOR
+	@API public MultiLineMessage(List<String> lines)
+	{
+		this.text = String.join("\n", lines);
+		this.component = new TextComponent(TextComponent.fromLegacyText(this.text));
+	}
+
+
+	// GETTERS
+	@API public String getText()
+	{
+		return this.text;
+	}
+
+
+	// SENDING
+
+	/**
+	 * Sends the message to the player, or to the console if the player is null.
+	 *
+	 * @param player the player receiving the message, null for the console
+	 */
+	@API public void send(Player player)
+	{
+		if(player != null)
+			player.spigot().sendMessage(this.component);
+		else
+			MandatumCommandExecutor.sendConsoleMessage(this.text);
+	}
+
+
+	// OBJECT
+	@Override public String toString()
+	{
+		return this.text;
+	}
+
+}
@@ -0,0 +1,187 @@
+package de.domisum.lib.mandatum.util;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable, case insensitive index of Strings that can be searched by prefix.
+ * <p>
+ * The entries are kept in an array sorted by their lowercase key, so all entries starting with a prefix form one
+ * contiguous range that is found with two binary searches. Lookups return a read-only view of that range instead of
+ * copying the entries, so a lookup costs O(prefix length + log n) no matter how many entries match.
+ * <p>
+ * Adding and removing entries creates a new index, so an index can be shared between threads and replaced atomically.
+ */
+public final class PrefixIndex
+{
+
+	// CONSTANTS
+	private static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new String[0]);
+
+	// PROPERTIES
+	private final String[] keys;
+	private final String[] values;
+	private final List<String> valueList;
+
+
+	// CONSTRUCTOR
+	private PrefixIndex(String[] keys, String[] values)
+	{
+		this.keys = keys;
+		this.values = values;
+		this.valueList = Collections.unmodifiableList(Arrays.asList(values));
+	}
+
+	@API public static PrefixIndex empty()
+	{
+		return EMPTY;
+	}
+
+	@API public static PrefixIndex of(String... values)
+	{
+		return of(Arrays.asList(values));
+	}
+
+	@API public static PrefixIndex of(Collection<String> values)
+	{
+		String[][] entries = new String[values.size()][];
+		int i = 0;
+		for(String value : values)
+			entries[i++] = new String[] {toKey(value), value};
+		Arrays.sort(entries, Comparator.comparing(entry->entry[0]));
+
+		String[] keys = new String[entries.length];
+		String[] sortedValues = new String[entries.length];
+		for(i = 0; i < entries.length; i++)
+		{
+			keys[i] = entries[i][0];
+			sortedValues[i] = entries[i][1];
+		}
+
+		return new PrefixIndex(keys, sortedValues);
+	}
+
+
+	// GETTERS
+	@API public int size()
+	{
+		return this.values.length;
+	}
+
+	@API public List<String> getValues()
+	{
+		return this.valueList;
+	}
+
+	@API public boolean contains(String value)
+	{
+		return Arrays.binarySearch(this.keys, toKey(value)) >= 0;
+	}
+
+	/**
+	 * Returns the entries starting with the provided prefix, ignoring case.
+	 *
+	 * @param prefix the prefix
+	 * @return a read-only view of the matching entries
+	 */
+	@API public List<String> lookup(String prefix)
+	{
+		if(prefix.isEmpty())
+			return this.valueList;
+
+		String keyPrefix = toKey(prefix);
+		int from = firstIndexNotBefore(keyPrefix);
+		int to = firstIndexAfterPrefix(keyPrefix, from);
+
+		return this.valueList.subList(from, to);
+	}
+
+
+	// CHANGERS
+
+	/**
+	 * @param value the value to add
+	 * @return a new index containing the entries of this index and the provided value
+	 */
+	@API public PrefixIndex with(String value)
+	{
+		String key = toKey(value);
+		int index = Arrays.binarySearch(this.keys, key);
+		if(index >= 0)
+		{
+			// replace the entry with the same key, the capitalization could have changed
+			String[] values = this.values.clone();
+			values[index] = value;
+			return new PrefixIndex(this.keys, values);
+		}
+
+		int insertionIndex = -(index+1);
+		String[] keys = new String[this.keys.length+1];
+		String[] values = new String[this.values.length+1];
+		System.arraycopy(this.keys, 0, keys, 0, insertionIndex);
+		System.arraycopy(this.values, 0, values, 0, insertionIndex);
+		keys[insertionIndex] = key;
+		values[insertionIndex] = value;
+		System.arraycopy(this.keys, insertionIndex, keys, insertionIndex+1, this.keys.length-insertionIndex);
+		System.arraycopy(this.values, insertionIndex, values, insertionIndex+1, this.values.length-insertionIndex);
+
+		return new PrefixIndex(keys, values);
+	}
+
+	/**
+	 * @param value the value to remove
+	 * @return a new index containing the entries of this index except the provided value
+	 */
+	@API public PrefixIndex without(String value)
+	{
+		int index = Arrays.binarySearch(this.keys, toKey(value));
+		if(index < 0)
+			return this;
+
+		String[] keys = new String[this.keys.length-1];
+		String[] values = new String[this.values.length-1];
+		System.arraycopy(this.keys, 0, keys, 0, index);
+		System.arraycopy(this.values, 0, values, 0, index);
+		System.arraycopy(this.keys, index+1, keys, index, keys.length-index);
+		System.arraycopy(this.values, index+1, values, index, values.length-index);
+
+		return new PrefixIndex(keys, values);
+	}
+
+
+	// UTIL
+	private int firstIndexNotBefore(String keyPrefix)
+	{
+		int index = Arrays.binarySearch(this.keys, keyPrefix);
+		return index >= 0 ? index : -(index+1);
+	}
+
+	private int firstIndexAfterPrefix(String keyPrefix, int from)
+	{
+		// the keys starting with the prefix are contiguous, so the end of the range can be found by binary search as well
+		int low = from;
+		int high = this.keys.length;
+		while(low < high)
+		{
+			int middle = (low+high)>>>1;
+			if(this.keys[middle].startsWith(keyPrefix))
+				low = middle+1;
+			else
+				high = middle;
+		}
+
+		return low;
+	}
+
+	private static String toKey(String value)
+	{
+		return value.toLowerCase(Locale.ROOT);
+	}
+
+}
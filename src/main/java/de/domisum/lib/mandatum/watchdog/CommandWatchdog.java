@@ -0,0 +1,339 @@
+package de.domisum.lib.mandatum.watchdog;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.MandatumLib;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Watches the synchronous executions of commands and reports the ones stalling their thread, usually the main thread.
+ * <p>
+ * The executing thread only registers the start and the end of every execution. A background thread checks the running
+ * executions in the sampling interval. Once an execution exceeds its threshold, it is counted as a stall and the stack
+ * of the executing thread is sampled while the command is still running. When the command has finished or enough
+ * samples have been taken, the command, its sender and arguments are logged together with the distinct stacks and how
+ * often each one has been seen, which shows where the time has been spent.
+ * <p>
+ * Commands stalling too often can be disabled automatically, see {@link WatchdogSettings#stallsUntilDisabled(int)}, so
+ * a broken command can be contained without restarting the server.
+ */
+public class CommandWatchdog
+{
+
+	// SETTINGS
+	private final WatchdogSettings settings;
+
+	// STATUS
+	private final Map<Thread, Execution> executions = new ConcurrentHashMap<>();
+
+	// kept per path like the metrics, so rebuilding the command tree doesn't enable disabled commands again
+	private final Map<String, AtomicInteger> stalls = new ConcurrentHashMap<>();
+	private final Set<String> disabledCommands = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean running;
+	private Thread watcherThread;
+
+
+	// CONSTRUCTOR
+	@API public CommandWatchdog(WatchdogSettings settings)
+	{
+		this.settings = settings;
+	}
+
+
+	// LIFECYCLE
+	@API public synchronized void start()
+	{
+		if(this.running)
+			throw new IllegalStateException("The watchdog has already been started");
+
+		this.running = true;
+		this.watcherThread = new Thread(this::watchLoop, "MandatumLib watchdog");
+		this.watcherThread.setDaemon(true);
+		this.watcherThread.start();
+	}
+
+	@API public synchronized void stop()
+	{
+		if(!this.running)
+			return;
+
+		this.running = false;
+		LockSupport.unpark(this.watcherThread);
+		try
+		{
+			this.watcherThread.join(TimeUnit.SECONDS.toMillis(5));
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	// EXECUTIONS
+
+	/**
+	 * Registers that the current thread starts executing the command. Every call has to be followed by a call of
+	 * {@link #executionFinished()} on the same thread.
+	 *
+	 * @param registeredCommand the command
+	 * @param sender            the sender of the command, null for the console
+	 * @param args              the arguments of the command, which must not be changed afterwards
+	 */
+	public void executionStarted(RegisteredCommand registeredCommand, CommandSender sender, List<String> args)
+	{
+		Thread thread = Thread.currentThread();
+		Execution execution = new Execution(thread, registeredCommand, sender != null ? sender.getName() : "CONSOLE",
+				args, System.nanoTime());
+
+		// commands can run other commands, the outer execution is watched again once the inner one has finished
+		execution.outer = this.executions.put(thread, execution);
+	}
+
+	/**
+	 * Registers that the current thread has finished executing the command it started executing last.
+	 */
+	public void executionFinished()
+	{
+		Thread thread = Thread.currentThread();
+		Execution execution = this.executions.get(thread);
+		if(execution == null)
+			return;
+
+		execution.finishedNanos = System.nanoTime();
+		if(execution.outer != null)
+			this.executions.put(thread, execution.outer);
+		else
+			this.executions.remove(thread);
+	}
+
+
+	// CIRCUIT BREAKER
+
+	/**
+	 * @param registeredCommand the command
+	 * @return if the command has been disabled for stalling too often
+	 */
+	public boolean isDisabled(RegisteredCommand registeredCommand)
+	{
+		return !this.disabledCommands.isEmpty() && this.disabledCommands.contains(registeredCommand.getCommandPath());
+	}
+
+	/**
+	 * Enables the command again after it has been disabled and resets its number of stalls.
+	 *
+	 * @param commandPath the path of the command, see {@link RegisteredCommand#getCommandPath()}
+	 */
+	@API public void enable(String commandPath)
+	{
+		this.stalls.remove(commandPath);
+		this.disabledCommands.remove(commandPath);
+	}
+
+	/**
+	 * Forgets the stalls of the command after it has been unregistered or replaced, so a command registered under the
+	 * same path starts out enabled.
+	 *
+	 * @param commandPath the path of the command, see {@link RegisteredCommand#getCommandPath()}
+	 */
+	public void commandRemoved(String commandPath)
+	{
+		enable(commandPath);
+	}
+
+	/**
+	 * @return a read-only view of the paths of the commands disabled for stalling too often
+	 */
+	@API public Set<String> getDisabledCommands()
+	{
+		return Collections.unmodifiableSet(this.disabledCommands);
+	}
+
+	/**
+	 * @param commandPath the path of the command, see {@link RegisteredCommand#getCommandPath()}
+	 * @return the number of stalls of the command since it has been enabled
+	 */
+	@API public int getStalls(String commandPath)
+	{
+		AtomicInteger stalls = this.stalls.get(commandPath);
+		return stalls == null ? 0 : stalls.get();
+	}
+
+	private void countStall(Execution execution)
+	{
+		String commandPath = execution.registeredCommand.getCommandPath();
+		int stalls = this.stalls.computeIfAbsent(commandPath, c->new AtomicInteger()).incrementAndGet();
+
+		int stallsUntilDisabled = this.settings.getStallsUntilDisabled();
+		if(stallsUntilDisabled > 0 && stalls >= stallsUntilDisabled && this.disabledCommands.add(commandPath))
+			getLogger().severe("The command '/"+commandPath+"' has been disabled after stalling "+stalls+" times");
+	}
+
+
+	// WATCHER
+	private void watchLoop()
+	{
+		// only touched by this thread
+		List<Execution> stalling = new ArrayList<>();
+
+		while(this.running)
+		{
+			LockSupport.parkNanos(this, this.settings.getSamplingIntervalNanos());
+
+			long nowNanos = System.nanoTime();
+			for(Execution execution : this.executions.values())
+				if(!execution.stalling && execution.finishedNanos == 0)
+				{
+					if(execution.thresholdNanos == 0)
+						execution.thresholdNanos = this.settings.getThresholdNanos(execution.registeredCommand);
+
+					if(nowNanos-execution.startNanos >= execution.thresholdNanos)
+						startStall(execution, nowNanos, stalling);
+				}
+
+			Iterator<Execution> iterator = stalling.iterator();
+			while(iterator.hasNext())
+				if(watchStall(iterator.next()))
+					iterator.remove();
+		}
+	}
+
+	private void startStall(Execution execution, long nowNanos, List<Execution> stalling)
+	{
+		execution.stalling = true;
+		execution.samples = new ArrayList<>();
+		stalling.add(execution);
+		countStall(execution);
+
+		getLogger().warning("The command '/"+execution.registeredCommand.getCommandPath()+"' sent by "+execution.senderName
+				+" has been running for "+TimeUnit.NANOSECONDS.toMillis(nowNanos-execution.startNanos)
+				+" ms, sampling the thread '"+execution.thread.getName()+"'");
+	}
+
+	/**
+	 * @param execution the stalling execution
+	 * @return if the stall has been reported and doesn't have to be watched anymore
+	 */
+	private boolean watchStall(Execution execution)
+	{
+		if(execution.finishedNanos != 0)
+		{
+			if(execution.reported)
+				getLogger().warning("The command '/"+execution.registeredCommand.getCommandPath()+"' sent by "
+						+execution.senderName+" has finished after "+TimeUnit.NANOSECONDS
+						.toMillis(execution.finishedNanos-execution.startNanos)+" ms");
+			else
+				report(execution);
+
+			return true;
+		}
+
+		if(execution.reported)
+			return false;
+
+		// the thread can have finished the command after it has been checked, so the sample is only used if it hasn't
+		StackTraceElement[] stack = execution.thread.getStackTrace();
+		if(execution.finishedNanos == 0)
+			execution.samples.add(stack);
+
+		if(execution.samples.size() >= this.settings.getMaxSamples())
+			report(execution);
+
+		return false;
+	}
+
+	private void report(Execution execution)
+	{
+		execution.reported = true;
+
+		StringBuilder report = new StringBuilder();
+		report.append("The command '/").append(execution.registeredCommand.getCommandPath());
+		for(String arg : execution.args)
+			report.append(' ').append(arg);
+		report.append("' sent by ").append(execution.senderName);
+
+		long finishedNanos = execution.finishedNanos;
+		if(finishedNanos != 0)
+			report.append(" stalled the thread '").append(execution.thread.getName()).append("' for ")
+					.append(TimeUnit.NANOSECONDS.toMillis(finishedNanos-execution.startNanos)).append(" ms");
+		else
+			report.append(" is still stalling the thread '").append(execution.thread.getName()).append("' after ")
+					.append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()-execution.startNanos)).append(" ms");
+
+		// the same stack is usually seen many times, so every distinct stack is only logged once
+		Map<List<StackTraceElement>, Integer> stackCounts = new LinkedHashMap<>();
+		for(StackTraceElement[] sample : execution.samples)
+			stackCounts.merge(Arrays.asList(sample), 1, Integer::sum);
+
+		report.append(", ").append(execution.samples.size()).append(" stack samples:");
+		for(Entry<List<StackTraceElement>, Integer> entry : stackCounts.entrySet())
+		{
+			report.append(System.lineSeparator()).append(entry.getValue()).append("x");
+			for(StackTraceElement frame : entry.getKey())
+				report.append(System.lineSeparator()).append("\tat ").append(frame);
+		}
+
+		getLogger().warning(report.toString());
+	}
+
+
+	private static class Execution
+	{
+
+		// PROPERTIES
+		private final Thread thread;
+		private final RegisteredCommand registeredCommand;
+		private final String senderName;
+		private final List<String> args;
+		private final long startNanos;
+		private Execution outer;
+
+		// STATUS
+		private volatile long finishedNanos;
+
+		// only touched by the watcher thread
+		private long thresholdNanos;
+		private boolean stalling;
+		private boolean reported;
+		private List<StackTraceElement[]> samples;
+
+
+		private Execution(Thread thread, RegisteredCommand registeredCommand, String senderName, List<String> args,
+				long startNanos)
+		{
+			this.thread = thread;
+			this.registeredCommand = registeredCommand;
+			this.senderName = senderName;
+			this.args = args;
+			this.startNanos = startNanos;
+		}
+
+	}
+
+
+	// UTIL
+	private static Logger getLogger()
+	{
+		if(MandatumLib.getInstance() == null)
+			return Logger.getLogger(CommandWatchdog.class.getName());
+
+		return MandatumLib.getLogger();
+	}
+
+}
@@ -0,0 +1,140 @@
+package de.domisum.lib.mandatum.watchdog;
+
+import de.domisum.lib.auxilium.util.java.annotations.API;
+import de.domisum.lib.mandatum.exe.RegisteredCommand;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of a {@link CommandWatchdog}.
+ */
+public class WatchdogSettings
+{
+
+	// PROPERTIES
+	private long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(500);
+	private final Map<String, Long> commandThresholdNanos = new ConcurrentHashMap<>();
+	private long samplingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(50);
+	private int maxSamples = 40;
+	private int stallsUntilDisabled = 0;
+
+
+	// SETTINGS
+
+	/**
+	 * Sets how long a command can execute before it counts as a stall, unless it has its own threshold.
+	 *
+	 * @param threshold the threshold
+	 * @param unit      the unit of the threshold
+	 * @return this WatchdogSettings
+	 */
+	@API public WatchdogSettings threshold(long threshold, TimeUnit unit)
+	{
+		if(threshold <= 0)
+			throw new IllegalArgumentException("The threshold has to be positive, not "+threshold);
+
+		this.thresholdNanos = unit.toNanos(threshold);
+		return this;
+	}
+
+	/**
+	 * Sets the threshold of the command with the path and its subcommands, for example a higher one for a command
+	 * known to be expensive.
+	 *
+	 * @param commandPath the names of the command and its supercommands, separated by spaces
+	 * @param threshold   the threshold
+	 * @param unit        the unit of the threshold
+	 * @return this WatchdogSettings
+	 */
+	@API public WatchdogSettings threshold(String commandPath, long threshold, TimeUnit unit)
+	{
+		if(threshold <= 0)
+			throw new IllegalArgumentException("The threshold has to be positive, not "+threshold);
+
+		this.commandThresholdNanos.put(commandPath.toLowerCase(Locale.ROOT), unit.toNanos(threshold));
+		return this;
+	}
+
+	/**
+	 * Sets how often the running commands are checked, and how often the stack of a stalling thread is sampled.
+	 *
+	 * @param samplingInterval the interval
+	 * @param unit             the unit of the interval
+	 * @return this WatchdogSettings
+	 */
+	@API public WatchdogSettings samplingInterval(long samplingInterval, TimeUnit unit)
+	{
+		if(samplingInterval <= 0)
+			throw new IllegalArgumentException("The sampling interval has to be positive, not "+samplingInterval);
+
+		this.samplingIntervalNanos = unit.toNanos(samplingInterval);
+		return this;
+	}
+
+	/**
+	 * Sets how many stack samples are taken of one stall. Once they are taken, the stall is reported even if the command
+	 * is still running.
+	 *
+	 * @param maxSamples the number of samples
+	 * @return this WatchdogSettings
+	 */
+	@API public WatchdogSettings maxSamples(int maxSamples)
+	{
+		if(maxSamples <= 0)
+			throw new IllegalArgumentException("The maximum number of samples has to be positive, not "+maxSamples);
+
+		this.maxSamples = maxSamples;
+		return this;
+	}
+
+	/**
+	 * Sets after how many stalls a command is disabled until it is enabled again using
+	 * {@link CommandWatchdog#enable(String)}, replaced or unregistered. Values of 0 or less never disable commands.
+	 *
+	 * @param stallsUntilDisabled the number of stalls
+	 * @return this WatchdogSettings
+	 */
+	@API public WatchdogSettings stallsUntilDisabled(int stallsUntilDisabled)
+	{
+		this.stallsUntilDisabled = stallsUntilDisabled;
+		return this;
+	}
+
+
+	// GETTERS
+
+	/**
+	 * @param registeredCommand the command
+	 * @return the threshold of the command or its closest supercommand having one, the default threshold otherwise
+	 */
+	public long getThresholdNanos(RegisteredCommand registeredCommand)
+	{
+		for(RegisteredCommand command = registeredCommand; command != null; command = command.getParent())
+		{
+			Long thresholdNanos = this.commandThresholdNanos.get(command.getCommandPath());
+			if(thresholdNanos != null)
+				return thresholdNanos;
+		}
+
+		return this.thresholdNanos;
+	}
+
+	public long getSamplingIntervalNanos()
+	{
+		return this.samplingIntervalNanos;
+	}
+
+	public int getMaxSamples()
+	{
+		return this.maxSamples;
+	}
+
+	public int getStallsUntilDisabled()
+	{
+		return this.stallsUntilDisabled;
+	}
+
+}
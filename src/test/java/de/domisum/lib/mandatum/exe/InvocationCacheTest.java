@@ -0,0 +1,298 @@
+package de.domisum.lib.mandatum.exe;
+
+import de.domisum.lib.mandatum.cmd.ArgumentSequence;
+import de.domisum.lib.mandatum.cmd.MandatumCommand;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentType;
+import de.domisum.lib.mandatum.cmd.arg.ArgumentTypes;
+import de.domisum.lib.mandatum.exe.InvocationCache.CachedInvocation;
+import de.domisum.lib.mandatum.metrics.MandatumMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InvocationCacheTest
+{
+
+	// REFERENCES
+	private InvocationCache cache;
+	private TargetArgumentType targetType;
+
+
+	// SETUP
+	@Before public void setUp()
+	{
+		this.cache = new InvocationCache(64);
+		this.targetType = new TargetArgumentType();
+
+		// the ArgumentSequences read the types when they are constructed, so every test gets its own
+		ArgumentTypes.register(Target.class, this.targetType);
+		ArgumentTypes.register(Uncacheable.class, new UncacheableArgumentType());
+	}
+
+
+	// TESTS
+	@Test public void reusesLineWhileTypesAreUnchanged()
+	{
+		RegisteredCommand command = register(new ArgumentSequence("amount", Integer.class));
+
+		ArgumentSequenceMatch first = resolve(command, "5");
+		ArgumentSequenceMatch second = resolve(command, "5");
+
+		assertSame(first.getArgumentSequence(), second.getArgumentSequence());
+		assertArrayEquals(first.getValues(), second.getValues());
+		assertEquals(1, this.cache.getHits());
+		assertEquals(1, this.cache.getMisses());
+	}
+
+	@Test public void retriesHigherPrioritySequenceOnceItsTypeHasChanged()
+	{
+		ArgumentSequence target = new ArgumentSequence("target", Target.class);
+		ArgumentSequence name = new ArgumentSequence("name", String.class);
+		RegisteredCommand command = register(target, name);
+
+		// bob is offline, so the line falls through to the String sequence
+		assertSame(name, resolve(command, "bob").getArgumentSequence());
+		assertSame(name, resolve(command, "bob").getArgumentSequence());
+		assertEquals(1, this.cache.getHits());
+
+		// once bob is online, matching the line again selects the higher priority sequence
+		this.targetType.join("bob");
+		assertSame(target, resolve(command, "bob").getArgumentSequence());
+		assertEquals(1, this.cache.getHits());
+
+		this.targetType.quit("bob");
+		assertSame(name, resolve(command, "bob").getArgumentSequence());
+	}
+
+	@Test public void doesntStoreLineIfHigherPrioritySequenceIsntCacheable()
+	{
+		RegisteredCommand command = register(new ArgumentSequence("uncacheable", Uncacheable.class),
+				new ArgumentSequence("name", String.class));
+
+		resolve(command, "bob");
+
+		assertEquals(0, this.cache.size());
+	}
+
+	@Test public void storesLineIfOnlyLowerPrioritySequenceIsntCacheable()
+	{
+		RegisteredCommand command = register(new ArgumentSequence("name", String.class),
+				new ArgumentSequence("uncacheable", Uncacheable.class));
+
+		resolve(command, "bob");
+
+		assertEquals(1, this.cache.size());
+	}
+
+	@Test public void doesntStoreLineIfSelectedSequenceIsntCacheable()
+	{
+		RegisteredCommand command = register(new ArgumentSequence("uncacheable", Uncacheable.class));
+
+		resolve(command, "bob");
+
+		assertEquals(0, this.cache.size());
+	}
+
+	@Test public void lineIsOutdatedIfTypeChangesWhileMatching()
+	{
+		ArgumentSequence target = new ArgumentSequence("target", Target.class);
+		RegisteredCommand command = register(target, new ArgumentSequence("name", String.class));
+		List<String> args = Collections.singletonList("bob");
+
+		long[] versions = InvocationCache.readVersions(command.getMatcher());
+		this.targetType.join("bob");
+		this.cache.put(command, args, command, 0, command.getMatcher().match(args), versions);
+
+		assertNull(this.cache.get(0, command, args));
+	}
+
+	@Test public void changingRegistryVersionDropsLines()
+	{
+		RegisteredCommand command = register(new ArgumentSequence("amount", Integer.class));
+		resolve(command, "5");
+
+		assertNotNull(this.cache.get(0, command, Collections.singletonList("5")));
+		assertNull(this.cache.get(1, command, Collections.singletonList("5")));
+	}
+
+	@Test public void cachedLinesResolveLikeFreshMatches()
+	{
+		RegisteredCommand command = register(new ArgumentSequence("targetAmount", Target.class, Integer.class),
+				new ArgumentSequence("target", Target.class), new ArgumentSequence("nameAmount", String.class, Integer.class),
+				new ArgumentSequence("name", String.class));
+
+		String[] tokens = {"alice", "bob", "carol", "7", "x"};
+		Random random = new Random(42);
+		for(int i = 0; i < 10000; i++)
+		{
+			if(random.nextInt(8) == 0)
+			{
+				String name = tokens[random.nextInt(3)];
+				if(random.nextBoolean())
+					this.targetType.join(name);
+				else
+					this.targetType.quit(name);
+			}
+
+			String[] args = new String[1+random.nextInt(2)];
+			for(int a = 0; a < args.length; a++)
+				args[a] = tokens[random.nextInt(tokens.length)];
+
+			ArgumentSequenceMatch fresh = command.getMatcher().match(Arrays.asList(args));
+			ArgumentSequenceMatch resolved = resolve(command, args);
+			String line = Arrays.toString(args)+" with "+this.targetType.online;
+			if(fresh == null)
+			{
+				assertNull(line, resolved);
+				continue;
+			}
+
+			assertSame(line, fresh.getArgumentSequence(), resolved.getArgumentSequence());
+			assertEquals(line, Arrays.asList(fresh.getValues()), Arrays.asList(resolved.getValues()));
+		}
+	}
+
+
+	// UTIL
+	private static RegisteredCommand register(ArgumentSequence... argumentSequences)
+	{
+		List<ArgumentSequence> sequences = Arrays.asList(argumentSequences);
+		CommandDefinition definition = new CommandDefinition(TestCommand.class, (sender, args)->new TestCommand(sequences));
+
+		return new RegisteredCommand(definition, null, new MandatumMetrics(), command->Collections.emptyMap());
+	}
+
+	/**
+	 * Resolves the arguments like the executor does.
+	 */
+	private ArgumentSequenceMatch resolve(RegisteredCommand command, String... args)
+	{
+		List<String> argList = Arrays.asList(args);
+		CachedInvocation cachedInvocation = this.cache.get(0, command, argList);
+		if(cachedInvocation != null)
+			return cachedInvocation.createMatch();
+
+		long[] versions = InvocationCache.readVersions(command.getMatcher());
+		ArgumentSequenceMatch match = command.getMatcher().match(argList);
+		if(match != null)
+			this.cache.put(command, argList, command, 0, match, versions);
+
+		return match;
+	}
+
+
+	// TYPES
+	private static class Target
+	{
+
+	}
+
+	private static class Uncacheable
+	{
+
+	}
+
+	private static class TargetArgumentType implements ArgumentType<String>
+	{
+
+		private final Set<String> online = new HashSet<>();
+		private long version;
+
+
+		@Override public String parse(String arg)
+		{
+			return this.online.contains(arg) ? arg : null;
+		}
+
+		@Override public long getVersion()
+		{
+			return this.version;
+		}
+
+		private void join(String name)
+		{
+			this.online.add(name);
+			this.version++;
+		}
+
+		private void quit(String name)
+		{
+			this.online.remove(name);
+			this.version++;
+		}
+
+	}
+
+	private static class UncacheableArgumentType implements ArgumentType<String>
+	{
+
+		@Override public String parse(String arg)
+		{
+			return null;
+		}
+
+		@Override public boolean isCacheable()
+		{
+			return false;
+		}
+
+	}
+
+	private static class TestCommand extends MandatumCommand
+	{
+
+		private final List<ArgumentSequence> argumentSequences;
+
+
+		private TestCommand(List<ArgumentSequence> argumentSequences)
+		{
+			super(null, null);
+			this.argumentSequences = argumentSequences;
+		}
+
+
+		@Override public String getName()
+		{
+			return "test";
+		}
+
+		@Override public boolean canBeRunByConsole()
+		{
+			return true;
+		}
+
+		@Override public String getRequiredPermissionNode()
+		{
+			return null;
+		}
+
+		@Override public String getUsage()
+		{
+			return "/test";
+		}
+
+		@Override public List<ArgumentSequence> getArgumentSequences()
+		{
+			return this.argumentSequences;
+		}
+
+		@Override public void execute()
+		{
+
+		}
+
+	}
+
+}
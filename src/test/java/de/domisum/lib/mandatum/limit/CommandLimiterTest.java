@@ -0,0 +1,170 @@
+package de.domisum.lib.mandatum.limit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommandLimiterTest
+{
+
+	// CONSTANTS
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final UUID PLAYER = new UUID(0, 1);
+	private static final UUID OTHER_PLAYER = new UUID(0, 2);
+
+	// STATUS
+	private long nanos;
+
+
+	// SETUP
+	@Before public void setUp()
+	{
+		// an arbitrary start, nanoTime can be negative
+		this.nanos = -1234567;
+	}
+
+
+	// TESTS
+	@Test public void cooldownAllowsOneUsePerDuration()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(10*SECOND, limiter.tryAcquire(PLAYER));
+
+		advance(4*SECOND);
+		assertEquals(6*SECOND, limiter.tryAcquire(PLAYER));
+
+		advance(6*SECOND);
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(10*SECOND, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void rateAllowsBurstOfPermits()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.rate(3, 3, TimeUnit.SECONDS));
+
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(SECOND, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void rateRefillsOneUsePerEmissionInterval()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.rate(3, 3, TimeUnit.SECONDS));
+		for(int i = 0; i < 3; i++)
+			limiter.tryAcquire(PLAYER);
+
+		advance(SECOND);
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(SECOND, limiter.tryAcquire(PLAYER));
+
+		// a bucket that has been full for a while doesn't hold more than the permits
+		advance(60*SECOND);
+		for(int i = 0; i < 3; i++)
+			assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(SECOND, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void rejectedUsesDontCount()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+		limiter.tryAcquire(PLAYER);
+		for(int i = 0; i < 5; i++)
+			limiter.tryAcquire(PLAYER);
+
+		advance(10*SECOND);
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void playersAreLimitedSeparately()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(0, limiter.tryAcquire(OTHER_PLAYER));
+		assertEquals(10*SECOND, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void releaseGivesBackAcquiredUse()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.rate(2, 2, TimeUnit.SECONDS));
+		limiter.tryAcquire(PLAYER);
+		limiter.tryAcquire(PLAYER);
+		assertEquals(SECOND, limiter.tryAcquire(PLAYER));
+
+		limiter.release(PLAYER);
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(SECOND, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void releaseDoesntGrowBucketBeyondPermits()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+		limiter.tryAcquire(PLAYER);
+		advance(30*SECOND);
+
+		limiter.release(PLAYER);
+		limiter.release(PLAYER);
+		limiter.release(OTHER_PLAYER);
+
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(10*SECOND, limiter.tryAcquire(PLAYER));
+		assertEquals(0, limiter.tryAcquire(OTHER_PLAYER));
+		assertEquals(10*SECOND, limiter.tryAcquire(OTHER_PLAYER));
+	}
+
+	@Test public void resetForgetsUses()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+		limiter.tryAcquire(PLAYER);
+
+		limiter.reset(PLAYER);
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+	}
+
+	@Test public void sweepForgetsPlayersWithFullBuckets()
+	{
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+		limiter.tryAcquire(PLAYER);
+		assertEquals(1, limiter.getNumberOfTrackedPlayers());
+
+		// the sweep runs every 30 seconds, on the next use of the limiter
+		advance(31*SECOND);
+		limiter.tryAcquire(OTHER_PLAYER);
+		assertEquals(1, limiter.getNumberOfTrackedPlayers());
+		assertEquals(10*SECOND, limiter.tryAcquire(OTHER_PLAYER));
+	}
+
+	@Test public void limitsAcrossOverflowOfClock()
+	{
+		this.nanos = Long.MAX_VALUE-SECOND;
+		CommandLimiter limiter = createLimiter(CommandLimit.cooldown(10, TimeUnit.SECONDS));
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+		assertEquals(10*SECOND, limiter.tryAcquire(PLAYER));
+
+		advance(5*SECOND);
+		assertEquals(5*SECOND, limiter.tryAcquire(PLAYER));
+
+		advance(5*SECOND);
+		assertEquals(0, limiter.tryAcquire(PLAYER));
+	}
+
+
+	// UTIL
+	private CommandLimiter createLimiter(CommandLimit limit)
+	{
+		return new CommandLimiter(limit, ()->this.nanos);
+	}
+
+	private void advance(long nanos)
+	{
+		this.nanos += nanos;
+	}
+
+}
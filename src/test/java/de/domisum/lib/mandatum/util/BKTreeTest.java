@@ -0,0 +1,184 @@
+package de.domisum.lib.mandatum.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BKTreeTest
+{
+
+	// CONSTANTS
+	// a small alphabet produces many close entries, the non-ASCII characters use the other masks of the bit-parallel path
+	private static final String ALPHABET = "abcde\u00e9\u20ac";
+
+
+	// TESTS
+	@Test public void lookupMatchesNaiveDistance()
+	{
+		Random random = new Random(42);
+		List<String> entries = randomEntries(random, 300);
+		BKTree tree = BKTree.of(entries);
+
+		for(int i = 0; i < 300; i++)
+			assertLookupMatchesNaive(tree, entries, mutate(random, entries.get(random.nextInt(entries.size()))));
+	}
+
+	@Test public void lookupMatchesNaiveDistanceAfterRemovals()
+	{
+		Random random = new Random(7);
+		List<String> entries = randomEntries(random, 300);
+		BKTree tree = BKTree.of(entries);
+
+		// removing most entries crosses the rebuild threshold several times
+		List<String> remaining = new ArrayList<>(entries);
+		while(remaining.size() > 20)
+		{
+			String removed = remaining.remove(random.nextInt(remaining.size()));
+			tree.remove(removed);
+			assertEquals(remaining.size(), tree.size());
+
+			if(remaining.size()%25 == 0)
+				for(int i = 0; i < 20; i++)
+					assertLookupMatchesNaive(tree, remaining, mutate(random, entries.get(random.nextInt(entries.size()))));
+		}
+	}
+
+	@Test public void removedEntriesCanBeAddedAgain()
+	{
+		BKTree tree = BKTree.of(Arrays.asList("ban", "bank", "kick"));
+
+		tree.remove("BANK");
+		assertEquals(2, tree.size());
+		assertEquals(Arrays.asList("ban"), tree.lookup("bank", 1, 10));
+
+		tree.add("Bank");
+		assertEquals(3, tree.size());
+		assertEquals(Arrays.asList("Bank", "ban"), tree.lookup("bank", 1, 10));
+	}
+
+	@Test public void removingMissingEntryChangesNothing()
+	{
+		BKTree tree = BKTree.of(Arrays.asList("ban", "kick"));
+
+		tree.remove("bank");
+		tree.remove("ban");
+		tree.remove("ban");
+
+		assertEquals(1, tree.size());
+		assertEquals(Arrays.asList("kick"), tree.lookup("kick", 0, 10));
+	}
+
+	@Test public void addingEntryDifferingInCaseReplacesIt()
+	{
+		BKTree tree = BKTree.of(Arrays.asList("net", "NET"));
+
+		assertEquals(1, tree.size());
+		assertEquals("NET", tree.findClosest("Net"));
+	}
+
+	@Test public void findClosestUsesToleranceByLength()
+	{
+		BKTree tree = BKTree.of(Arrays.asList("ban", "bank", "restart", "reload"));
+
+		assertEquals("ban", tree.findClosest("bam"));
+		assertNull(tree.findClosest("bxx"));
+		assertEquals("restart", tree.findClosest("rstrt"));
+		assertEquals("reload", tree.findClosest("RELOAD"));
+	}
+
+	@Test public void longEntriesMatchNaiveDistance()
+	{
+		// queries of more than 64 characters are compared row by row, shorter ones use the bit-parallel algorithm
+		Random random = new Random(3);
+		List<String> entries = new ArrayList<>();
+		for(int i = 0; i < 50; i++)
+			entries.add(randomString(random, 60+random.nextInt(10)));
+		BKTree tree = BKTree.of(entries);
+
+		for(int i = 0; i < 100; i++)
+			assertLookupMatchesNaive(tree, entries, mutate(random, entries.get(random.nextInt(entries.size()))));
+	}
+
+
+	// UTIL
+	private static void assertLookupMatchesNaive(BKTree tree, List<String> entries, String query)
+	{
+		for(int maxDistance = 0; maxDistance <= 3; maxDistance++)
+		{
+			int distance = maxDistance;
+			List<String> expected = new ArrayList<>(new LinkedHashSet<>(entries));
+			expected.removeIf(entry->levenshtein(query, entry) > distance);
+			expected.sort(Comparator.<String>comparingInt(entry->levenshtein(query, entry)).thenComparing(entry->entry));
+
+			assertEquals(query+" within "+maxDistance, expected, tree.lookup(query, maxDistance, Integer.MAX_VALUE));
+		}
+	}
+
+	private static List<String> randomEntries(Random random, int count)
+	{
+		Set<String> entries = new LinkedHashSet<>();
+		while(entries.size() < count)
+			entries.add(randomString(random, 1+random.nextInt(12)));
+
+		return new ArrayList<>(entries);
+	}
+
+	private static String randomString(Random random, int length)
+	{
+		StringBuilder string = new StringBuilder();
+		for(int i = 0; i < length; i++)
+			string.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+
+		return string.toString();
+	}
+
+	private static String mutate(Random random, String value)
+	{
+		StringBuilder mutated = new StringBuilder(value);
+		int edits = random.nextInt(4);
+		for(int i = 0; i < edits; i++)
+		{
+			int position = random.nextInt(mutated.length()+1);
+			char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			int operation = random.nextInt(3);
+			if(operation == 0 || mutated.length() == 0)
+				mutated.insert(position, c);
+			else if(position == mutated.length())
+				mutated.deleteCharAt(position-1);
+			else if(operation == 1)
+				mutated.deleteCharAt(position);
+			else
+				mutated.setCharAt(position, c);
+		}
+
+		return mutated.toString();
+	}
+
+	private static int levenshtein(String a, String b)
+	{
+		int[][] distances = new int[a.length()+1][b.length()+1];
+		for(int i = 0; i <= a.length(); i++)
+			distances[i][0] = i;
+		for(int j = 0; j <= b.length(); j++)
+			distances[0][j] = j;
+
+		for(int i = 1; i <= a.length(); i++)
+			for(int j = 1; j <= b.length(); j++)
+			{
+				int substitution = distances[i-1][j-1]+(a.charAt(i-1) == b.charAt(j-1) ? 0 : 1);
+				distances[i][j] = Math.min(substitution, Math.min(distances[i-1][j], distances[i][j-1])+1);
+			}
+
+		return distances[a.length()][b.length()];
+	}
+
+}